@@ -0,0 +1,169 @@
+package bcu.cmp5332.bookingsystem.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Runs benchmarks in the manner of JMH without needing it on the class path:
+ * each benchmark is run for a number of warmup iterations whose timings are
+ * discarded, so the JIT compiler has settled, and then for the measured
+ * iterations. Every iteration starts from a fresh state built by the
+ * benchmark's setup, which is not timed, and runs a fixed number of
+ * operations, either on the calling thread or shared among several threads.
+ *
+ * Results that a benchmark computes must be passed to {@link #consume(Object)}
+ * or {@link #consume(double)}, so the compiler cannot drop the work as unused.
+ */
+final class BenchmarkRunner {
+
+    /** A benchmarked operation, run once per operation index */
+    interface Operation {
+        void run(int index) throws Exception;
+    }
+
+    /** Builds the state for one iteration and returns the operation to time on it */
+    interface Setup {
+        Operation prepare() throws Exception;
+    }
+
+    /** Runs one iteration and returns the mean time of one operation in nanoseconds */
+    private interface Iteration {
+        double run() throws Exception;
+    }
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final Pattern include;
+
+    /** Accumulates consumed results; printed at the end of a run so it is never dead */
+    private static long sink;
+
+    /**
+     * @param warmupIterations   iterations run before measuring
+     * @param measuredIterations iterations measured
+     * @param include            only benchmarks whose name this finds a match in are run
+     */
+    BenchmarkRunner(int warmupIterations, int measuredIterations, Pattern include) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.include = include;
+    }
+
+    /** Prints the header of the results table */
+    void printHeader() {
+        System.out.printf(Locale.ROOT, "%-28s %10s %12s %12s %12s %14s%n",
+                "Benchmark", "ops/iter", "ns/op", "min", "max", "ops/s");
+    }
+
+    /**
+     * Runs one benchmark and prints its result, unless it is excluded.
+     *
+     * @param name       the benchmark's name
+     * @param operations operations per iteration
+     * @param setup      builds the state of each iteration
+     * @throws Exception if the setup or an operation fails
+     */
+    void run(String name, int operations, Setup setup) throws Exception {
+        measure(name, operations, () -> iteration(operations, setup));
+    }
+
+    /**
+     * Runs one benchmark whose operations are shared among threads started
+     * together, and prints its result, unless it is excluded. Thread t runs
+     * the operation indexes from {@code t * operationsPerThread}; an
+     * iteration is timed from the start until the last thread finishes.
+     *
+     * @param name                the benchmark's name
+     * @param threads             number of threads
+     * @param operationsPerThread operations each thread runs per iteration
+     * @param setup               builds the state of each iteration
+     * @throws Exception if the setup or an operation fails
+     */
+    void runConcurrent(String name, int threads, int operationsPerThread, Setup setup) throws Exception {
+        measure(name, threads * operationsPerThread, () -> concurrentIteration(threads, operationsPerThread, setup));
+    }
+
+    private void measure(String name, int operations, Iteration iteration) throws Exception {
+        if (!include.matcher(name).find()) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration.run();
+        }
+        double[] nanosPerOp = new double[measuredIterations];
+        for (int i = 0; i < measuredIterations; i++) {
+            nanosPerOp[i] = iteration.run();
+        }
+        double mean = Arrays.stream(nanosPerOp).average().orElse(0);
+        System.out.printf(Locale.ROOT, "%-28s %10d %12.1f %12.1f %12.1f %14.0f%n", name, operations, mean,
+                Arrays.stream(nanosPerOp).min().orElse(0), Arrays.stream(nanosPerOp).max().orElse(0),
+                mean > 0 ? 1e9 / mean : 0);
+    }
+
+    /** @return the mean time of one operation in nanoseconds */
+    private double iteration(int operations, Setup setup) throws Exception {
+        Operation operation = setup.prepare();
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.run(i);
+        }
+        return (double) (System.nanoTime() - start) / operations;
+    }
+
+    /** @return the mean time of one operation in nanoseconds, over all threads */
+    private double concurrentIteration(int threads, int operationsPerThread, Setup setup) throws Exception {
+        Operation operation = setup.prepare();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * operationsPerThread;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = first; i < first + operationsPerThread; i++) {
+                        operation.run(i);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        Throwable e = failure.get();
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        }
+        if (e != null) {
+            throw (Error) e;
+        }
+        return (double) elapsed / (threads * operationsPerThread);
+    }
+
+    /** @param result a result of benchmarked work */
+    static void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+
+    /** @param result a result of benchmarked work */
+    static void consume(double result) {
+        sink += Double.doubleToRawLongBits(result);
+    }
+
+    /** @return the accumulated results, to be printed at the end of a run */
+    static long sink() {
+        return sink;
+    }
+}
@@ -0,0 +1,206 @@
+package bcu.cmp5332.bookingsystem.benchmark;
+
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.FlightQuery;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the operations the system spends its time in: booking and
+ * cancelling, listing and looking up flights, pricing, the flight filter and
+ * loading and storing the data files. The data comes from
+ * {@link SyntheticData}, so runs with the same arguments measure the same work.
+ * Booking is also measured from several threads at once, each on its own
+ * flight, to show how it scales with the threads.
+ *
+ * Arguments are optional and given as name=value:
+ * flights, customers and bookings (sizes of the generated data), seed,
+ * warmup and iterations (iterations per benchmark), ops (operations per
+ * iteration, where a benchmark does not fix its own), threads (the most
+ * threads booking at once) and include (a regular expression; only
+ * benchmarks whose name it matches are run).
+ *
+ * The load and store benchmarks work on ./resources/data and so only run when
+ * that directory does not exist yet; it is deleted again afterwards.
+ */
+public final class Benchmarks {
+
+    /** The directory the data files are read from and written to */
+    private static final Path DATA_DIRECTORY = Paths.get("./resources/data");
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @param args benchmark arguments as described above
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        SyntheticData data = new SyntheticData(
+                options.getInt("flights", 10000),
+                options.getInt("customers", 100000),
+                options.getInt("bookings", 200000),
+                options.getLong("seed", 42));
+        int ops = options.getInt("ops", 10000);
+        BenchmarkRunner runner = new BenchmarkRunner(
+                options.getInt("warmup", 3),
+                options.getInt("iterations", 5),
+                Pattern.compile(options.get("include", "")));
+
+        System.out.printf("%d flights, %d customers, %d bookings attempted, seed %d%n",
+                data.getFlightCount(), data.getCustomerCount(), data.getBookingCount(), data.getSeed());
+        runner.printHeader();
+        run(runner, data, ops);
+        runConcurrentBooking(runner, options.getInt("threads",
+                Math.max(8, Runtime.getRuntime().availableProcessors())), ops);
+        System.out.println("(sink " + BenchmarkRunner.sink() + ")");
+    }
+
+    private static void run(BenchmarkRunner runner, SyntheticData data, int ops) throws Exception {
+        LocalDate today = LocalDate.now();
+        FlightBookingSystem shared = data.generate();
+        List<Flight> flights = shared.getFlights();
+        SplittableRandom random = data.random(4, 0);
+
+        // every flight taking an equal share of the bookings, each by a different customer,
+        // stays within the smallest capacity of 50
+        List<Flight> open = new ArrayList<>();
+        for (Flight flight : flights) {
+            if (!flight.getDepartureDate().isBefore(today)) {
+                open.add(flight);
+            }
+        }
+        int bookingOps = (int) Math.min(ops, Math.min(50L, data.getCustomerCount()) * open.size());
+        if (bookingOps > 0) {
+            int[] openIds = open.stream().mapToInt(Flight::getId).toArray();
+            // the same flights and customers, as they depend on the seed and not the counts
+            SyntheticData withoutBookings = new SyntheticData(data.getFlightCount(), data.getCustomerCount(), 0,
+                    data.getSeed());
+            runner.run("addBooking", bookingOps, () -> {
+                FlightBookingSystem fbs = withoutBookings.generate();
+                return i -> BenchmarkRunner.consume(fbs.addBooking(
+                        1 + (i / openIds.length) % data.getCustomerCount(),
+                        openIds[i % openIds.length], today));
+            });
+        }
+
+        int[] bookingIds = shared.getBookings().stream().mapToInt(Booking::getId).toArray();
+        if (bookingIds.length > 0) {
+            runner.run("cancelBooking", Math.min(ops, bookingIds.length), () -> {
+                FlightBookingSystem fbs = data.generate();
+                return i -> fbs.cancelBooking(bookingIds[i], 0.0);
+            });
+        }
+
+        runner.run("getFlights", ops, () -> i -> BenchmarkRunner.consume(shared.getFlights()));
+
+        int[] randomIds = random.ints(ops, 1, data.getFlightCount() + 1).toArray();
+        runner.run("getFlightByID", ops, () -> i -> BenchmarkRunner.consume(shared.getFlightByID(randomIds[i])));
+
+        Flight[] randomFlights = new Flight[ops];
+        for (int i = 0; i < ops; i++) {
+            randomFlights[i] = flights.get(random.nextInt(flights.size()));
+        }
+        runner.run("Flight.calculatePrice", ops,
+                () -> i -> BenchmarkRunner.consume(randomFlights[i].calculatePrice(today)));
+
+        // the filter window's query: a route on a day within a price range, then pricing the rows
+        FlightQuery[] queries = new FlightQuery[ops];
+        for (int i = 0; i < ops; i++) {
+            Flight flight = flights.get(random.nextInt(flights.size()));
+            queries[i] = new FlightQuery()
+                    .origin(flight.getOrigin())
+                    .destination(flight.getDestination())
+                    .departing(flight.getDepartureDate(), flight.getDepartureDate())
+                    .priceBetween(100.0, 600.0);
+        }
+        runner.run("filterFlights", ops, () -> i -> {
+            List<Flight> filtered = shared.searchFlights(queries[i]);
+            BenchmarkRunner.consume(shared.priceFlights(filtered, today));
+        });
+
+        FlightQuery[] byOrigin = new FlightQuery[ops];
+        for (int i = 0; i < ops; i++) {
+            String origin = SyntheticData.AIRPORTS[random.nextInt(SyntheticData.AIRPORTS.length)];
+            byOrigin[i] = new FlightQuery().origin(origin);
+        }
+        runner.run("filterFlights.originOnly", Math.max(1, ops / 100), () -> i -> {
+            List<Flight> filtered = shared.searchFlights(byOrigin[i]);
+            BenchmarkRunner.consume(shared.priceFlights(filtered, today));
+        });
+
+        runPersistence(runner, shared);
+    }
+
+    /**
+     * Times booking from 1, 2, 4 and so on up to the given number of threads,
+     * each booking its own customers onto its own flight, so the threads only
+     * contend for the system's shared state and never for seats.
+     */
+    private static void runConcurrentBooking(BenchmarkRunner runner, int maxThreads, int ops) throws Exception {
+        LocalDate departure = LocalDate.now().plusDays(30);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            int count = threads;
+            runner.runConcurrent("addBooking.disjoint." + threads + "t", threads, ops, () -> {
+                FlightBookingSystem fbs = new FlightBookingSystem();
+                for (int id = 1; id <= count; id++) {
+                    fbs.addFlight(new Flight(id, "FL" + id, "LHR", "JFK", departure, 100.0, ops));
+                }
+                for (int id = 1; id <= count * ops; id++) {
+                    fbs.addCustomer(new Customer(id, "Customer " + id, "0123", "c" + id + "@example.com"));
+                }
+                return i -> BenchmarkRunner.consume(fbs.addBooking(i + 1, i / ops + 1, LocalDate.now()));
+            });
+        }
+    }
+
+    /**
+     * Times writing the shared system to the data files and reading them back,
+     * without the journal or the pricing rules watcher.
+     */
+    private static void runPersistence(BenchmarkRunner runner, FlightBookingSystem shared) throws Exception {
+        if (Files.exists(DATA_DIRECTORY)) {
+            System.out.println("Skipping store and load: " + DATA_DIRECTORY + " already exists");
+            return;
+        }
+        FlightBookingSystemData.setJournalEnabled(false);
+        FlightBookingSystemData.setPricingRulesPollInterval(0);
+        Path created = DATA_DIRECTORY.getParent();
+        boolean parentExisted = Files.exists(created);
+        Files.createDirectories(DATA_DIRECTORY);
+        try {
+            runner.run("FlightBookingSystemData.store", 1, () -> {
+                shared.markAllDirty();
+                return i -> FlightBookingSystemData.store(shared);
+            });
+            shared.markAllDirty();
+            FlightBookingSystemData.store(shared);
+            runner.run("FlightBookingSystemData.load", 1,
+                    () -> i -> BenchmarkRunner.consume(FlightBookingSystemData.load()));
+        } finally {
+            delete(parentExisted ? DATA_DIRECTORY : created);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
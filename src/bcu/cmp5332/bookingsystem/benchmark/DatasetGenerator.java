@@ -0,0 +1,269 @@
+package bcu.cmp5332.bookingsystem.benchmark;
+
+import bcu.cmp5332.bookingsystem.data.DataManager;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a large synthetic data set in the formats the data managers read:
+ * flights.txt, customers.txt, bookings.txt, payments.txt and sequences.txt.
+ * The flights and customers are those of {@link SyntheticData}, so the same
+ * seed and counts always give the same files.
+ *
+ * Every record is written as soon as it is generated and nothing is kept
+ * for the records after it, so memory use does not grow with the size of
+ * the data set. Bookings are generated flight by flight: each flight gets a
+ * number of passengers no greater than its capacity, and the customers on a
+ * flight are picked by stepping through the customer IDs with a stride that
+ * has no common factor with the number of customers, so no customer is booked
+ * twice on a flight. A booking is made up to 90 days before departure (and
+ * never after today), and a fraction of the bookings are paid for on the day
+ * they were made.
+ *
+ * Arguments are optional and given as name=value:
+ * dir (where to write the files, ./resources/data by default), flights,
+ * customers, seed, load (the mean fraction of each flight's seats that are
+ * booked), paid (the fraction of bookings with a payment) and overwrite
+ * (true to replace existing data files, and delete the journal that would
+ * otherwise be replayed on top of them).
+ */
+public final class DatasetGenerator {
+
+    /** Data files written by the generator */
+    private static final String[] FILES = {
+            "flights.txt", "customers.txt", "bookings.txt", "payments.txt", "sequences.txt" };
+
+    /** Size of the buffer of each file */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Longest time before departure a booking is made */
+    private static final int MAX_DAYS_AHEAD = 90;
+
+    private static final String SEPARATOR = DataManager.SEPARATOR;
+
+    private final SyntheticData data;
+    private final double load;
+    private final double paid;
+
+    /** Day no booking is made after */
+    private final LocalDate today = LocalDate.now();
+
+    /** Reused for every line written */
+    private final StringBuilder line = new StringBuilder();
+
+    private long bookingCount;
+    private long paymentCount;
+
+    /**
+     * @param data the flights and customers to write
+     * @param load mean fraction of each flight's seats that are booked, from 0 to 1
+     * @param paid fraction of bookings that have a payment, from 0 to 1
+     */
+    public DatasetGenerator(SyntheticData data, double load, double paid) {
+        if (!(load >= 0 && load <= 1) || !(paid >= 0 && paid <= 1)) {
+            throw new IllegalArgumentException("load and paid must be between 0 and 1");
+        }
+        this.data = data;
+        this.load = load;
+        this.paid = paid;
+    }
+
+    /**
+     * @param args generator arguments as described above
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        Path directory = Paths.get(options.get("dir", "./resources/data"));
+        SyntheticData data = new SyntheticData(
+                options.getInt("flights", 100000),
+                options.getInt("customers", 1000000),
+                0,
+                options.getLong("seed", 42));
+        DatasetGenerator generator = new DatasetGenerator(data,
+                options.getDouble("load", 0.5), options.getDouble("paid", 0.6));
+
+        if (!options.getBoolean("overwrite", false)) {
+            for (String file : FILES) {
+                if (Files.exists(directory.resolve(file))) {
+                    System.err.println("Error: " + directory.resolve(file)
+                            + " exists; pass overwrite=true to replace it");
+                    System.exit(1);
+                }
+            }
+        }
+        long start = System.nanoTime();
+        generator.write(directory);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long records = data.getFlightCount() + data.getCustomerCount()
+                + generator.getBookingCount() + generator.getPaymentCount();
+        System.out.printf("Wrote %d flights, %d customers, %d bookings and %d payments to %s"
+                + " in %.1f s (%.0f records/s)%n",
+                data.getFlightCount(), data.getCustomerCount(), generator.getBookingCount(),
+                generator.getPaymentCount(), directory, seconds, records / seconds);
+    }
+
+    /**
+     * Writes the data files into a directory, replacing any already there and
+     * deleting the journal.
+     *
+     * @param directory the directory, created if it does not exist
+     * @throws IOException if a file cannot be written
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve("journal.txt"));
+        bookingCount = 0;
+        paymentCount = 0;
+        try (Writer flights = open(directory, "flights.txt")) {
+            for (int id = 1; id <= data.getFlightCount(); id++) {
+                writeFlight(flights, data.flight(id));
+            }
+        }
+        try (Writer customers = open(directory, "customers.txt")) {
+            for (int id = 1; id <= data.getCustomerCount(); id++) {
+                writeCustomer(customers, data.customer(id));
+            }
+        }
+        try (Writer bookings = open(directory, "bookings.txt");
+                Writer payments = open(directory, "payments.txt")) {
+            for (int id = 1; id <= data.getFlightCount(); id++) {
+                writeBookings(bookings, payments, data.flight(id));
+            }
+        }
+        try (Writer sequences = open(directory, "sequences.txt")) {
+            writeSequence(sequences, "FLIGHTS", data.getFlightCount());
+            writeSequence(sequences, "CUSTOMERS", data.getCustomerCount());
+            writeSequence(sequences, "BOOKINGS", bookingCount);
+        }
+    }
+
+    /** @return the number of bookings last written */
+    public long getBookingCount() {
+        return bookingCount;
+    }
+
+    /** @return the number of payments last written */
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    private static Writer open(Path directory, String file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(directory.resolve(file), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    private void writeFlight(Writer out, Flight flight) throws IOException {
+        line.setLength(0);
+        line.append(flight.getId()).append(SEPARATOR)
+                .append(flight.getFlightNumber()).append(SEPARATOR)
+                .append(flight.getOrigin()).append(SEPARATOR)
+                .append(flight.getDestination()).append(SEPARATOR)
+                .append(flight.getDepartureDate()).append(SEPARATOR)
+                .append(flight.getBasePrice()).append(SEPARATOR)
+                .append(flight.getCapacity()).append(SEPARATOR)
+                .append(false).append(SEPARATOR)
+                .append(System.lineSeparator());
+        out.append(line);
+    }
+
+    private void writeCustomer(Writer out, Customer customer) throws IOException {
+        line.setLength(0);
+        line.append(customer.getId()).append(SEPARATOR)
+                .append(customer.getName()).append(SEPARATOR)
+                .append(customer.getPhone()).append(SEPARATOR)
+                .append(customer.getEmail()).append(SEPARATOR)
+                .append(customer.getPassword()).append(SEPARATOR)
+                .append(false).append(SEPARATOR)
+                .append(System.lineSeparator());
+        out.append(line);
+    }
+
+    /** Writes the bookings on one flight, and the payments for those that are paid */
+    private void writeBookings(Writer bookings, Writer payments, Flight flight) throws IOException {
+        SplittableRandom random = data.random(5, flight.getId());
+        int customers = data.getCustomerCount();
+        // between half and one and a half times the mean load, within capacity
+        long passengers = Math.round(flight.getCapacity() * load * (0.5 + random.nextDouble()));
+        passengers = Math.min(passengers, Math.min(flight.getCapacity(), customers));
+
+        long customer = random.nextInt(customers);
+        long stride = 1;
+        if (customers > 1) {
+            do {
+                stride = 1 + random.nextInt(customers - 1);
+            } while (gcd(stride, customers) != 1);
+        }
+        for (long k = 0; k < passengers; k++) {
+            long bookingId = ++bookingCount;
+            LocalDate bookingDate = flight.getDepartureDate().minusDays(random.nextInt(MAX_DAYS_AHEAD + 1));
+            if (bookingDate.isAfter(today)) {
+                bookingDate = today;
+            }
+            long cents = Math.round(flight.calculatePrice(bookingDate) * 100);
+
+            line.setLength(0);
+            line.append(bookingId).append(SEPARATOR)
+                    .append(1 + customer).append(SEPARATOR)
+                    .append(flight.getId()).append(SEPARATOR)
+                    .append(bookingDate).append(SEPARATOR);
+            appendAmount(cents);
+            line.append(System.lineSeparator());
+            bookings.append(line);
+
+            if (random.nextDouble() < paid) {
+                paymentCount++;
+                line.setLength(0);
+                line.append(bookingId).append(SEPARATOR);
+                appendAmount(cents);
+                line.append(SEPARATOR);
+                for (int digit = 0; digit < 16; digit++) {
+                    line.append((char) ('0' + random.nextInt(10)));
+                }
+                int month = random.nextInt(1, 13);
+                int year = (bookingDate.getYear() + 1 + random.nextInt(4)) % 100;
+                line.append(SEPARATOR)
+                        .append(month < 10 ? "0" : "").append(month).append('/')
+                        .append(year < 10 ? "0" : "").append(year).append(SEPARATOR)
+                        .append(bookingDate)
+                        .append(System.lineSeparator());
+                payments.append(line);
+            }
+            customer = (customer + stride) % customers;
+        }
+    }
+
+    /** Appends an amount in cents with two decimal places, as the data managers write it */
+    private void appendAmount(long cents) {
+        line.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    private void writeSequence(Writer out, String set, long last) throws IOException {
+        line.setLength(0);
+        line.append(set).append(SEPARATOR).append(last).append(SEPARATOR).append(System.lineSeparator());
+        out.append(line);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
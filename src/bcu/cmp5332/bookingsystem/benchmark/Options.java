@@ -0,0 +1,51 @@
+package bcu.cmp5332.bookingsystem.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options given as name=value arguments, each with a default
+ * used when it is not given.
+ */
+final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    /**
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if an argument is not of the form name=value
+     */
+    Options(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected name=value but got " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    double getDouble(String name, double defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    boolean getBoolean(String name, boolean defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
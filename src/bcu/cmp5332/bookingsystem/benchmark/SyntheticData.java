@@ -0,0 +1,147 @@
+package bcu.cmp5332.bookingsystem.benchmark;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of synthetic flights, customers and bookings. The same
+ * seed and counts always give the same data, so benchmark runs and test data
+ * can be reproduced.
+ *
+ * Each flight and customer is derived from the seed and its own ID alone, so
+ * any one record can be produced without producing the ones before it.
+ * Flights are spread over a fixed set of airports, depart up to a month in the
+ * past to six months ahead, and have capacities of 50 to 300 seats.
+ */
+public final class SyntheticData {
+
+    /** Airports flights are generated between */
+    static final String[] AIRPORTS = {
+            "London", "Birmingham", "Manchester", "Edinburgh", "Dublin", "Paris", "Amsterdam", "Frankfurt",
+            "Munich", "Madrid", "Barcelona", "Rome", "Milan", "Lisbon", "Vienna", "Zurich", "Copenhagen",
+            "Stockholm", "Oslo", "New York", "Toronto", "Dubai", "Singapore", "Tokyo" };
+
+    /** Airline codes used for flight numbers */
+    private static final String[] AIRLINES = { "BA", "LH", "AF", "KL", "IB", "AZ", "EK", "SQ", "JL", "AC" };
+
+    private final int flights;
+    private final int customers;
+    private final int bookings;
+    private final long seed;
+
+    /** Day all generated dates are relative to */
+    private final LocalDate today = LocalDate.now();
+
+    /**
+     * @param flights   number of flights, with IDs 1 to flights
+     * @param customers number of customers, with IDs 1 to customers
+     * @param bookings  number of bookings to attempt; fewer are made if the
+     *                  flights fill up
+     * @param seed      seed for every random choice
+     */
+    public SyntheticData(int flights, int customers, int bookings, long seed) {
+        if (flights < 1 || customers < 1 || bookings < 0) {
+            throw new IllegalArgumentException("Need at least one flight and one customer");
+        }
+        this.flights = flights;
+        this.customers = customers;
+        this.bookings = bookings;
+        this.seed = seed;
+    }
+
+    /** @return the number of flights */
+    public int getFlightCount() {
+        return flights;
+    }
+
+    /** @return the number of customers */
+    public int getCustomerCount() {
+        return customers;
+    }
+
+    /** @return the number of bookings attempted */
+    public int getBookingCount() {
+        return bookings;
+    }
+
+    /** @return the seed */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param id a flight ID from 1 to the number of flights
+     * @return the flight with that ID
+     */
+    public Flight flight(int id) {
+        SplittableRandom random = random(1, id);
+        int origin = random.nextInt(AIRPORTS.length);
+        int destination = (origin + 1 + random.nextInt(AIRPORTS.length - 1)) % AIRPORTS.length;
+        String number = AIRLINES[random.nextInt(AIRLINES.length)] + (100 + id % 9900);
+        LocalDate departure = today.plusDays(random.nextInt(-30, 181));
+        double basePrice = 50 + random.nextInt(751);
+        int capacity = 50 + random.nextInt(251);
+        return new Flight(id, number, AIRPORTS[origin], AIRPORTS[destination], departure, basePrice, capacity);
+    }
+
+    /**
+     * @param id a customer ID from 1 to the number of customers
+     * @return the customer with that ID; names and emails are unique
+     */
+    public Customer customer(int id) {
+        SplittableRandom random = random(2, id);
+        String phone = String.format("07%09d", random.nextInt(1_000_000_000));
+        return new Customer(id, "Customer " + id, phone, "customer" + id + "@example.com", "password" + id);
+    }
+
+    /**
+     * Builds a system holding the generated flights and customers and makes
+     * the bookings through {@link FlightBookingSystem#addBooking(Customer, Flight, LocalDate)},
+     * each for a random customer on a random flight that hasn't departed.
+     * Bookings that would overfill a flight or book a customer twice are
+     * skipped.
+     *
+     * @return the populated system
+     * @throws FlightBookingSystemException if a generated record is rejected
+     */
+    public FlightBookingSystem generate() throws FlightBookingSystemException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        Flight[] flightsById = new Flight[flights + 1];
+        Customer[] customersById = new Customer[customers + 1];
+        for (int id = 1; id <= flights; id++) {
+            flightsById[id] = flight(id);
+            fbs.addFlight(flightsById[id]);
+        }
+        for (int id = 1; id <= customers; id++) {
+            customersById[id] = customer(id);
+            fbs.addCustomer(customersById[id]);
+        }
+        SplittableRandom random = random(3, 0);
+        for (int i = 0; i < bookings; i++) {
+            Flight flight = flightsById[1 + random.nextInt(flights)];
+            Customer customer = customersById[1 + random.nextInt(customers)];
+            if (flight.getDepartureDate().isBefore(today) || flight.getSeatsRemaining() == 0) {
+                continue;
+            }
+            try {
+                fbs.addBooking(customer, flight, today);
+            } catch (FlightBookingSystemException e) {
+                // already booked on this flight
+            }
+        }
+        return fbs;
+    }
+
+    /**
+     * @param stream which kind of record the numbers are for
+     * @param id     the record ID
+     * @return a generator for one record, independent of every other record's
+     */
+    SplittableRandom random(int stream, long id) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + id);
+    }
+}
@@ -1,15 +1,15 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.awt.GraphicsEnvironment;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import javax.swing.JOptionPane;
-import java.util.logging.Logger;
-import java.util.logging.Level;
 import java.io.IOException;
 
 /**
@@ -20,10 +20,13 @@ import java.io.IOException;
  * a booking for a customer on a specific flight.
  */
 public class AddBooking implements Command {
-    private static final Logger LOGGER = Logger.getLogger(AddBooking.class.getName());
+    private static final Logger LOGGER = Logger.getLogger(AddBooking.class);
     private final int customerId;
     private final int flightId;
     private final LocalDate bookingDate;
+
+    /** Whether the booking is stored and confirmed in a dialog as soon as it is made */
+    private final boolean interactive;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     /**
@@ -34,9 +37,25 @@ public class AddBooking implements Command {
      * @param bookingDate the date when the booking is made
      */
     public AddBooking(int customerId, int flightId, LocalDate bookingDate) {
+        this(customerId, flightId, bookingDate, true);
+    }
+
+    /**
+     * Constructs a new AddBooking command that may run without user
+     * interaction. A command that is not interactive leaves storing the
+     * system to its caller, so a batch of commands is stored once, and logs
+     * its confirmation instead of showing a dialog.
+     *
+     * @param customerId  the ID of the customer making the booking
+     * @param flightId    the ID of the flight to be booked
+     * @param bookingDate the date when the booking is made
+     * @param interactive whether to store the booking and confirm it in a dialog
+     */
+    public AddBooking(int customerId, int flightId, LocalDate bookingDate, boolean interactive) {
         this.customerId = customerId;
         this.flightId = flightId;
         this.bookingDate = bookingDate;
+        this.interactive = interactive;
     }
 
     /**
@@ -58,37 +77,41 @@ public class AddBooking implements Command {
             // Create booking
             Booking booking = flightBookingSystem.addBooking(customerId, flightId, bookingDate);
 
-            // Save immediately to file
-            try {
-                bcu.cmp5332.bookingsystem.data.FlightBookingSystemData.store(flightBookingSystem);
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Failed to save booking data", e);
-                throw new FlightBookingSystemException("Unable to save booking: " + e.getMessage());
+            // Persist the booking (written behind by the journal)
+            if (interactive) {
+                try {
+                    bcu.cmp5332.bookingsystem.data.FlightBookingSystemData.store(flightBookingSystem);
+                } catch (Exception e) {
+                    LOGGER.error(() -> "Failed to save booking data", e);
+                    throw new FlightBookingSystemException("Unable to save booking: " + e.getMessage());
+                }
             }
 
-            // Log the successful booking
-            LOGGER.log(Level.INFO, "Booking created successfully - ID: {0}", booking.getId());
+            // Log the successful booking; a batch's output is its runner's
+            LOGGER.info(() -> "Booking " + booking.getId() + " created for customer " + customerId
+                    + " on flight " + flightId);
 
-            // Show success message with booking details
-            String successMessage = String.format(
-                    "Booking Confirmed!\n\n" +
-                            "Customer: %s\n" +
-                            "Flight: %s to %s\n" +
-                            "Date: %s\n" +
-                            "Booking Reference: %d",
-                    customer.getName(),
-                    flight.getOrigin(),
-                    flight.getDestination(),
-                    flight.getDepartureDate().format(DATE_FORMATTER),
-                    booking.getId());
-
-            JOptionPane.showMessageDialog(null,
-                    successMessage,
-                    "Booking Confirmation",
-                    JOptionPane.INFORMATION_MESSAGE);
+            if (interactive && !GraphicsEnvironment.isHeadless()) {
+                // Show success message with booking details
+                String successMessage = String.format(
+                        "Booking Confirmed!\n\n" +
+                                "Customer: %s\n" +
+                                "Flight: %s to %s\n" +
+                                "Date: %s\n" +
+                                "Booking Reference: %d",
+                        customer.getName(),
+                        flight.getOrigin(),
+                        flight.getDestination(),
+                        flight.getDepartureDate().format(DATE_FORMATTER),
+                        booking.getId());
+                JOptionPane.showMessageDialog(null,
+                        successMessage,
+                        "Booking Confirmation",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
 
         } catch (FlightBookingSystemException e) {
-            LOGGER.log(Level.SEVERE, "Booking failed", e);
+            LOGGER.error(() -> "Booking failed", e);
             throw e;
         }
     }
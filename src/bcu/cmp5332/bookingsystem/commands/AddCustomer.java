@@ -1,7 +1,9 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.EntitySet;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
 /**
@@ -10,6 +12,7 @@ import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
  * a new customer with basic details like name, phone, email, and password.
  */
 public class AddCustomer implements Command {
+    private static final Logger LOG = Logger.getLogger(AddCustomer.class);
     
     /** The full name of the customer */
     private final String name;
@@ -48,6 +51,21 @@ public class AddCustomer implements Command {
      */
     @Override
     public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
-        // ...existing code...
+        if (name == null || name.trim().isEmpty()) {
+            throw new FlightBookingSystemException("Customer name cannot be empty");
+        }
+        if (phone == null || phone.trim().isEmpty()) {
+            throw new FlightBookingSystemException("Phone number cannot be empty");
+        }
+        if (email == null || email.trim().isEmpty()) {
+            throw new FlightBookingSystemException("Email cannot be empty");
+        }
+
+        int newId = flightBookingSystem.getIdSequence(EntitySet.CUSTOMERS).next();
+        Customer customer = password == null || password.isEmpty()
+                ? new Customer(newId, name.trim(), phone.trim(), email.trim())
+                : new Customer(newId, name.trim(), phone.trim(), email.trim(), password);
+        flightBookingSystem.addCustomer(customer);
+        LOG.info(() -> "Customer #" + newId + " added.");
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.EntitySet;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import java.time.LocalDate;
@@ -15,6 +17,8 @@ import java.time.LocalDate;
  * departure date, price, and capacity.
  */
 public class AddFlight implements Command {
+    private static final Logger LOG = Logger.getLogger(AddFlight.class);
+
     /** The unique flight number identifier */
     private final String flightNumber;
 
@@ -67,14 +71,9 @@ public class AddFlight implements Command {
      */
     @Override
     public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
-        // Debug prints
-        System.out.println("Executing AddFlight command with following parameters:");
-        System.out.println("Flight Number: " + flightNumber);
-        System.out.println("Origin: " + origin);
-        System.out.println("Destination: " + destination);
-        System.out.println("Departure Date: " + departureDate);
-        System.out.println("Price: " + price);
-        System.out.println("Capacity: " + capacity);
+        LOG.debug(() -> "Executing AddFlight: flight number " + flightNumber + ", origin " + origin
+                + ", destination " + destination + ", departure date " + departureDate
+                + ", price " + price + ", capacity " + capacity);
 
         // Validate inputs
         if (flightNumber == null || flightNumber.trim().isEmpty()) {
@@ -97,20 +96,16 @@ public class AddFlight implements Command {
         }
 
         // Generate new flight ID
-        int maxId = flightBookingSystem.getAllFlights().stream()
-                .mapToInt(Flight::getId)
-                .max()
-                .orElse(0);
-        int newId = maxId + 1;
+        int newId = flightBookingSystem.getIdSequence(EntitySet.FLIGHTS).next();
 
         // Create and add the flight
         Flight flight = new Flight(newId, flightNumber, origin, destination,
                 departureDate, price, capacity);
 
-        System.out.println("Created new flight with ID: " + newId);
+        LOG.debug(() -> "Created new flight with ID: " + newId);
 
         flightBookingSystem.addFlight(flight);
 
-        System.out.println("Flight added successfully to the system");
+        LOG.info(() -> "Flight " + newId + " added successfully to the system");
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package bcu.cmp5332.bookingsystem.commands;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
@@ -9,6 +10,8 @@ import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
  * a booking with an associated cancellation fee.
  */
 public class CancelBooking implements Command {
+    private static final Logger LOG = Logger.getLogger(CancelBooking.class);
+
     /** The unique identifier of the booking to be cancelled */
     private final int bookingId;
     
@@ -37,6 +40,6 @@ public class CancelBooking implements Command {
     @Override
     public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
         fbs.cancelBooking(bookingId, cancellationFee);
-        System.out.println("Booking " + bookingId + " cancelled with cancellation fee: $" + cancellationFee);
+        LOG.info(() -> "Booking " + bookingId + " cancelled with cancellation fee: $" + cancellationFee);
     }
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ public interface Command {
         + "\taddbooking [customer id] [flight id]      add a new booking\n"
         + "\tcancelbooking [booking id]                cancel a booking\n"
         + "\teditbooking [booking id] [flight id]        update a booking\n"
+        + "\tstats                                     print runtime metrics\n"
         + "\tloadgui                                   loads the GUI version of the app\n"
         + "\thelp                                      prints this help message\n"
         + "\texit                                      exits the program";
@@ -26,6 +26,7 @@ public class Help implements Command {
                 "\tshowcustomer [id]\n" +
                 "\taddbooking [customerId] [flightId]\n" +
                 "\tcancelbooking [bookingId]\n" +
+                "\tstats\n" +
                 "\tloadgui\n" +
                 "\thelp\n" +
                 "\texit");
@@ -0,0 +1,22 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+/**
+ * Command class that prints the runtime metrics of the system: counters,
+ * gauges, and the latencies of commands and of loading and storing data.
+ */
+public class Stats implements Command {
+
+    /**
+     * Executes the stats command by printing every metric recorded since the
+     * program started.
+     *
+     * @param fbs the flight booking system (not used in this command)
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) {
+        System.out.println(Metrics.report());
+    }
+}
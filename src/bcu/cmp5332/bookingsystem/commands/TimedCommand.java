@@ -0,0 +1,60 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.metrics.Counter;
+import bcu.cmp5332.bookingsystem.metrics.LatencyHistogram;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.util.Locale;
+
+/**
+ * Command that runs another command and records it in {@link Metrics}: the
+ * latency of every execution in the histogram {@code command.<name>} and each
+ * failed execution in the counter {@code command.<name>.errors}, where the
+ * name is the command's class name in lower case, for example
+ * {@code command.addbooking}.
+ */
+public class TimedCommand implements Command {
+    /** The command being timed */
+    private final Command command;
+
+    /** Latencies of the command's executions */
+    private final LatencyHistogram latency;
+
+    /** Executions that threw */
+    private final Counter errors;
+
+    /**
+     * Wraps a command so its executions are recorded.
+     *
+     * @param command the command to time
+     */
+    public TimedCommand(Command command) {
+        this.command = command;
+        String name = "command." + command.getClass().getSimpleName().toLowerCase(Locale.ROOT);
+        this.latency = Metrics.histogram(name);
+        this.errors = Metrics.counter(name + ".errors");
+    }
+
+    /**
+     * Executes the wrapped command, recording how long it took and whether
+     * it failed.
+     *
+     * @param fbs the flight booking system to execute the command on
+     * @throws FlightBookingSystemException if the wrapped command fails
+     */
+    @Override
+    public void execute(FlightBookingSystem fbs) throws FlightBookingSystemException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            command.execute(fbs);
+            failed = false;
+        } finally {
+            latency.record(System.nanoTime() - start);
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+}
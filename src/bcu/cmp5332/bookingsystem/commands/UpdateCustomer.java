@@ -1,7 +1,6 @@
 package bcu.cmp5332.bookingsystem.commands;
 
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
-import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 
 /**
@@ -52,11 +51,8 @@ public class UpdateCustomer implements Command {
      */
     @Override
     public void execute(FlightBookingSystem flightBookingSystem) throws FlightBookingSystemException {
-        Customer customer = flightBookingSystem.getCustomerByID(customerId);
-        customer.setName(name);
-        customer.setPhone(phone);
-        customer.setEmail(email);
-        customer.setPassword(password);
+        // Update through the system so the change is checked, locked and persisted
+        flightBookingSystem.updateCustomer(customerId, name, phone, email, password);
         System.out.println("Customer #" + customerId + " updated.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package bcu.cmp5332.bookingsystem.commands;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+class UpdateCustomerTest {
+    private FlightBookingSystem fbs;
+
+    @BeforeEach
+    void setUp() throws FlightBookingSystemException {
+        fbs = new FlightBookingSystem();
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        fbs.addCustomer(new Customer(2, "Bob", "0456", "bob@example.com", "hunter2"));
+    }
+
+    @Test
+    void testUpdatesAllDetailsIncludingPassword() throws FlightBookingSystemException {
+        new UpdateCustomer(1, "Ann Smith", "0789", "ann.smith@example.com", "changed").execute(fbs);
+
+        Customer customer = fbs.getCustomerByID(1);
+        assertEquals("Ann Smith", customer.getName());
+        assertEquals("0789", customer.getPhone());
+        assertEquals("ann.smith@example.com", customer.getEmail());
+        assertEquals("changed", customer.getPassword());
+    }
+
+    @Test
+    void testTakenEmailLeavesPasswordUnchanged() {
+        assertThrows(FlightBookingSystemException.class,
+                () -> new UpdateCustomer(1, "Ann", "0123", "bob@example.com", "changed").execute(fbs));
+
+        Customer customer = fbs.findCustomer(1);
+        assertEquals("ann@example.com", customer.getEmail());
+        assertEquals("secret", customer.getPassword());
+    }
+}
@@ -0,0 +1,134 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.log.Logger;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces a data file without ever leaving it half written.
+ * Output goes to a uniquely named temporary file next to the target through a
+ * buffered file channel. {@link #commit()} syncs the temporary file to disk,
+ * atomically renames it over the target and syncs the directory so the rename
+ * itself survives a crash; closing without committing discards it, so a crash
+ * or error mid-write leaves the previous file untouched.
+ *
+ * <pre>
+ * try (AtomicFileWriter file = new AtomicFileWriter(RESOURCE)) {
+ *     PrintWriter out = file.writer();
+ *     ...
+ *     file.commit();
+ * }
+ * </pre>
+ */
+class AtomicFileWriter implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(AtomicFileWriter.class);
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final OutputStream stream;
+    private PrintWriter writer;
+    private boolean committed;
+
+    /**
+     * Creates the temporary file for the given target.
+     *
+     * @param resource path of the file to replace
+     * @throws IOException if the temporary file cannot be created
+     */
+    AtomicFileWriter(String resource) throws IOException {
+        target = Paths.get(resource).toAbsolutePath();
+        // unique, so concurrent writers of the same target never share a temporary file
+        temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+        stream = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+    }
+
+    /** @return a buffered byte stream to the temporary file */
+    OutputStream stream() {
+        return stream;
+    }
+
+    /** @return a UTF-8 text writer to the temporary file */
+    PrintWriter writer() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        }
+        return writer;
+    }
+
+    /**
+     * Flushes and syncs the temporary file, then renames it over the target
+     * and syncs the directory holding it. Where the file system cannot rename
+     * atomically the target is replaced anyway, with a warning that a crash
+     * during the replacement may leave it partial.
+     *
+     * @throws IOException if writing, syncing or renaming fails
+     */
+    void commit() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("Error writing " + target);
+            }
+        }
+        stream.flush();
+        channel.force(true);
+        channel.close();
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOG.warn(() -> "Atomic rename not supported; replacing " + target + " non-atomically");
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+        syncDirectory(target.getParent());
+    }
+
+    /**
+     * Syncs a directory, making the files created, renamed or deleted in it
+     * durable. Does nothing on platforms that cannot open a directory, such
+     * as Windows, where the file system makes renames durable itself.
+     *
+     * @param directory the directory to sync
+     * @throws IOException if the directory was opened but could not be synced
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        FileChannel dir;
+        try {
+            dir = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (dir) {
+            dir.force(true);
+        }
+    }
+
+    /**
+     * Releases the temporary file, deleting it if {@link #commit()} was not
+     * called.
+     *
+     * @throws IOException if the temporary file cannot be removed
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
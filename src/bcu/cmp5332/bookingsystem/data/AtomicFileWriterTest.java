@@ -0,0 +1,69 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class AtomicFileWriterTest {
+    private Path dir;
+    private Path target;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("atomic");
+        target = dir.resolve("data.txt");
+        Files.write(target, List.of("old"), StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (File file : dir.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testCommitReplacesTargetAndLeavesNoTemporaryFile() throws IOException {
+        try (AtomicFileWriter file = new AtomicFileWriter(target.toString())) {
+            file.writer().println("new");
+            file.commit();
+        }
+
+        assertEquals(List.of("new"), Files.readAllLines(target, StandardCharsets.UTF_8));
+        assertEquals(1, dir.toFile().list().length);
+    }
+
+    @Test
+    void testCloseWithoutCommitKeepsPreviousFile() throws IOException {
+        try (AtomicFileWriter file = new AtomicFileWriter(target.toString())) {
+            file.writer().println("half written");
+        }
+
+        assertEquals(List.of("old"), Files.readAllLines(target, StandardCharsets.UTF_8));
+        assertEquals(1, dir.toFile().list().length);
+    }
+
+    @Test
+    void testConcurrentWritersUseSeparateTemporaryFiles() throws IOException {
+        try (AtomicFileWriter first = new AtomicFileWriter(target.toString());
+                AtomicFileWriter second = new AtomicFileWriter(target.toString())) {
+            first.writer().println("first");
+            second.writer().println("second");
+            first.commit();
+            assertEquals(List.of("first"), Files.readAllLines(target, StandardCharsets.UTF_8));
+            second.commit();
+        }
+
+        assertEquals(List.of("second"), Files.readAllLines(target, StandardCharsets.UTF_8));
+        assertEquals(1, dir.toFile().list().length);
+    }
+}
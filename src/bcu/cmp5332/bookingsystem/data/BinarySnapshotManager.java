@@ -0,0 +1,288 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import bcu.cmp5332.bookingsystem.model.SystemSnapshot;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data manager that stores the whole system in a single compact binary file.
+ * It is an alternative to the four text data managers: numbers and dates are
+ * stored in binary so nothing is re-parsed from text on startup, and repeated
+ * text (airports, names, emails...) is stored once in a string table.
+ *
+ * Layout (all integers big-endian):
+ * <pre>
+ * header    magic "FBS1", format version
+ * strings   count, then (byte length, UTF-8 bytes) per string
+ * flights   count, then fixed 33-byte records:
+ *           id, flightNumber, origin, destination (string indexes),
+ *           departure epoch day, base price (double), capacity, deleted flag
+ * customers count, then fixed 21-byte records:
+ *           id, name, phone, email, password (string indexes), deleted flag
+ * bookings  count, then fixed 25-byte records:
+ *           id, customer id, flight id, booking epoch day, fee (double), flags
+ * payments  count, then fixed 24-byte records:
+ *           booking id, amount (double), card number, expiry (string indexes),
+ *           payment epoch day
+ * </pre>
+ * Unlike the text format, cancelled bookings are stored alongside active ones.
+ */
+public class BinarySnapshotManager implements DataManager {
+
+    /** The file path where the binary snapshot is stored */
+    private static final String RESOURCE = "./resources/data/snapshot.bin";
+
+    /** "FBS1" in ASCII */
+    private static final int MAGIC = 0x46425331;
+
+    /** Current format version; bump when the layout changes */
+    static final int VERSION = 1;
+
+    private static final int FLAG_CANCELLED = 1;
+    private static final int FLAG_PAYMENT_PROCESSED = 2;
+
+    private final String resource;
+
+    /**
+     * Creates a manager backed by the default snapshot file.
+     */
+    public BinarySnapshotManager() {
+        this(RESOURCE);
+    }
+
+    /**
+     * Creates a manager backed by the given snapshot file.
+     *
+     * @param resource path of the snapshot file
+     */
+    public BinarySnapshotManager(String resource) {
+        this.resource = resource;
+    }
+
+    /** @return true if the snapshot file exists */
+    public boolean exists() {
+        return new File(resource).exists();
+    }
+
+    /**
+     * Loads the binary snapshot into the flight booking system.
+     *
+     * @param fbs the flight booking system to load the data into
+     * @throws IOException if the file cannot be read, is not a snapshot, or
+     *                     was written by an unsupported version
+     * @throws FlightBookingSystemException if the snapshot contains duplicate
+     *                                      or inconsistent records
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(resource), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(resource + " is not a binary snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            String[] strings = new String[in.readInt()];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = in.readInt();
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                in.readFully(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int flightCount = in.readInt();
+            for (int i = 0; i < flightCount; i++) {
+                Flight flight = new Flight(in.readInt(), string(strings, in.readInt()),
+                        string(strings, in.readInt()), string(strings, in.readInt()),
+                        LocalDate.ofEpochDay(in.readInt()), in.readDouble(), in.readInt());
+                flight.setDeleted(in.readBoolean());
+                fbs.addFlight(flight);
+            }
+
+            int customerCount = in.readInt();
+            for (int i = 0; i < customerCount; i++) {
+                Customer customer = new Customer(in.readInt(), string(strings, in.readInt()),
+                        string(strings, in.readInt()), string(strings, in.readInt()),
+                        string(strings, in.readInt()));
+                customer.setDeleted(in.readBoolean());
+                fbs.addCustomer(customer);
+            }
+
+            Map<Integer, Flight> flights = new HashMap<>();
+            for (Flight flight : fbs.getAllFlights()) {
+                flights.put(flight.getId(), flight);
+            }
+            Map<Integer, Customer> customers = new HashMap<>();
+            for (Customer customer : fbs.getAllCustomers()) {
+                customers.put(customer.getId(), customer);
+            }
+            int bookingCount = in.readInt();
+            for (int i = 0; i < bookingCount; i++) {
+                int id = in.readInt();
+                Customer customer = customers.get(in.readInt());
+                Flight flight = flights.get(in.readInt());
+                LocalDate bookingDate = LocalDate.ofEpochDay(in.readInt());
+                double fee = in.readDouble();
+                int flags = in.readByte();
+                if (customer == null || flight == null) {
+                    throw new FlightBookingSystemException("Booking #" + id + " references a missing customer or flight.");
+                }
+                Booking booking = new Booking(id, customer, flight, bookingDate, fee);
+                booking.setPaymentProcessed((flags & FLAG_PAYMENT_PROCESSED) != 0);
+                // only the flag: cancel() would free the seat of a later active booking on the same flight
+                booking.setCancelled((flags & FLAG_CANCELLED) != 0);
+                fbs.addBookingFromData(booking);
+            }
+
+            int paymentCount = in.readInt();
+            List<Payment> payments = new ArrayList<>(paymentCount);
+            for (int i = 0; i < paymentCount; i++) {
+                payments.add(new Payment(in.readInt(), in.readDouble(), string(strings, in.readInt()),
+                        string(strings, in.readInt()), LocalDate.ofEpochDay(in.readInt())));
+            }
+            PaymentDataManager.apply(fbs, payments);
+        }
+    }
+
+    private static String string(String[] strings, int index) throws IOException {
+        if (index == -1) {
+            return null;
+        }
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string table index " + index);
+        }
+        return strings[index];
+    }
+
+    /**
+     * Writes the whole flight booking system to the binary snapshot file,
+     * including deleted flights and customers and cancelled bookings.
+     *
+     * @param fbs the flight booking system containing the data to store
+     * @throws IOException if there is an error writing the file
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        // one consistent copy: every booking's customer and flight is among the records written
+        SystemSnapshot snapshot = fbs.snapshot(true);
+        List<Flight> flights = snapshot.getFlights();
+        List<Customer> customers = snapshot.getCustomers();
+        List<Booking> bookings = new ArrayList<>(snapshot.getBookings());
+        bookings.addAll(snapshot.getCancelledBookings());
+        List<Payment> payments = snapshot.getPayments();
+
+        StringTable table = new StringTable();
+        for (Flight flight : flights) {
+            table.add(flight.getFlightNumber());
+            table.add(flight.getOrigin());
+            table.add(flight.getDestination());
+        }
+        for (Customer customer : customers) {
+            table.add(customer.getName());
+            table.add(customer.getPhone());
+            table.add(customer.getEmail());
+            table.add(customer.getPassword());
+        }
+        for (Payment payment : payments) {
+            table.add(payment.getCardNumber());
+            table.add(payment.getExpiryDate());
+        }
+
+        try (AtomicFileWriter file = new AtomicFileWriter(resource)) {
+            DataOutputStream out = new DataOutputStream(file.stream());
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(table.strings.size());
+            for (String s : table.strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(flights.size());
+            for (Flight flight : flights) {
+                out.writeInt(flight.getId());
+                out.writeInt(table.indexOf(flight.getFlightNumber()));
+                out.writeInt(table.indexOf(flight.getOrigin()));
+                out.writeInt(table.indexOf(flight.getDestination()));
+                out.writeInt((int) flight.getDepartureDate().toEpochDay());
+                out.writeDouble(flight.getBasePrice());
+                out.writeInt(flight.getCapacity());
+                out.writeBoolean(flight.isDeleted());
+            }
+
+            out.writeInt(customers.size());
+            for (Customer customer : customers) {
+                out.writeInt(customer.getId());
+                out.writeInt(table.indexOf(customer.getName()));
+                out.writeInt(table.indexOf(customer.getPhone()));
+                out.writeInt(table.indexOf(customer.getEmail()));
+                out.writeInt(table.indexOf(customer.getPassword()));
+                out.writeBoolean(customer.isDeleted());
+            }
+
+            out.writeInt(bookings.size());
+            for (Booking booking : bookings) {
+                out.writeInt(booking.getId());
+                out.writeInt(booking.getCustomer().getId());
+                out.writeInt(booking.getFlight().getId());
+                out.writeInt((int) booking.getBookingDate().toEpochDay());
+                out.writeDouble(booking.getBookingFee());
+                int flags = (booking.isCancelled() ? FLAG_CANCELLED : 0)
+                        | (booking.isPaymentProcessed() ? FLAG_PAYMENT_PROCESSED : 0);
+                out.writeByte(flags);
+            }
+
+            out.writeInt(payments.size());
+            for (Payment payment : payments) {
+                out.writeInt(payment.getBookingId());
+                out.writeDouble(payment.getAmount());
+                out.writeInt(table.indexOf(payment.getCardNumber()));
+                out.writeInt(table.indexOf(payment.getExpiryDate()));
+                out.writeInt((int) payment.getPaymentDate().toEpochDay());
+            }
+            out.flush();
+            file.commit();
+        }
+    }
+
+    /** Deduplicating table of the strings referenced by the snapshot */
+    private static class StringTable {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private void add(String s) {
+            if (s != null && !indexes.containsKey(s)) {
+                indexes.put(s, strings.size());
+                strings.add(s);
+            }
+        }
+
+        private int indexOf(String s) {
+            return s == null ? -1 : indexes.get(s);
+        }
+    }
+}
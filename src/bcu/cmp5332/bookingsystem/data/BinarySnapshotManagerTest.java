@@ -0,0 +1,130 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import bcu.cmp5332.bookingsystem.model.PaymentStatus;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+class BinarySnapshotManagerTest {
+    private static final LocalDate DEPARTURE = LocalDate.now().plusDays(30);
+
+    private Path snapshotFile;
+    private BinarySnapshotManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotFile = Files.createTempFile("snapshot", ".bin");
+        manager = new BinarySnapshotManager(snapshotFile.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    private FlightBookingSystem roundTrip(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        manager.storeData(fbs);
+        FlightBookingSystem loaded = new FlightBookingSystem();
+        manager.loadData(loaded);
+        return loaded;
+    }
+
+    @Test
+    void testRoundTripKeepsRecords() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", DEPARTURE, 120.5, 10));
+        Flight deleted = new Flight(2, "FL2", "LHR", "CDG", DEPARTURE, 80.0, 10);
+        deleted.setDeleted(true);
+        fbs.addFlight(deleted);
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        fbs.addCustomer(new Customer(2, "Bob", "0456", "bob@example.com"));
+        Booking paid = fbs.addBooking(1, 1, LocalDate.now());
+        fbs.addPayment(new Payment(paid.getId(), 120.5, "4111111111111111", "12/30", LocalDate.now()));
+        fbs.addBooking(2, 1, LocalDate.now());
+
+        FlightBookingSystem loaded = roundTrip(fbs);
+
+        assertEquals(1, loaded.getFlights().size());
+        assertEquals(2, loaded.getAllFlights().size());
+        assertTrue(loaded.findFlight(2).isDeleted());
+        Flight flight = loaded.getFlightByID(1);
+        assertEquals("FL1", flight.getFlightNumber());
+        assertEquals(DEPARTURE, flight.getDepartureDate());
+        assertEquals(120.5, flight.getBasePrice());
+        assertEquals(2, flight.getPassengers().size());
+        assertEquals("secret", loaded.getCustomerByID(1).getPassword());
+        assertEquals(fbs.getCustomerByID(2).getPassword(), loaded.getCustomerByID(2).getPassword());
+        assertEquals(2, loaded.getBookings().size());
+        assertEquals(PaymentStatus.PAID, loaded.getBookingByID(paid.getId()).getPaymentStatus());
+        assertEquals(1, loaded.getPayments().size());
+    }
+
+    @Test
+    void testCancelledBookingDoesNotFreeLaterSeatOnSameFlight() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", DEPARTURE, 100.0, 2));
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        fbs.addCustomer(new Customer(2, "Bob", "0456", "bob@example.com", "secret"));
+        fbs.addCustomer(new Customer(3, "Cat", "0789", "cat@example.com", "secret"));
+        Booking cancelled = fbs.addBooking(1, 1, LocalDate.now());
+        fbs.cancelBooking(cancelled.getId(), 0);
+        Booking rebooked = fbs.addBooking(1, 1, LocalDate.now());
+        fbs.addBooking(2, 1, LocalDate.now());
+
+        // active bookings are written first, so the cancelled one loads after the rebooking
+        FlightBookingSystem loaded = roundTrip(fbs);
+
+        Flight flight = loaded.getFlightByID(1);
+        assertEquals(2, flight.getPassengers().size());
+        assertEquals(0, flight.getSeatsRemaining());
+        assertTrue(loaded.getBookingByID(cancelled.getId()).isCancelled());
+        assertFalse(loaded.getBookingByID(rebooked.getId()).isCancelled());
+        assertEquals(1, loaded.getBookingsForCustomer(1).size());
+        assertThrows(FlightBookingSystemException.class, () -> loaded.addBooking(3, 1, LocalDate.now()));
+    }
+
+    @Test
+    void testSnapshotStoredWhileBookingsAreMadeLoads() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", DEPARTURE, 100.0, 100_000));
+        Exception[] failure = new Exception[1];
+        Thread booker = new Thread(() -> {
+            try {
+                for (int i = 1; i <= 20_000; i++) {
+                    fbs.addCustomer(new Customer(i, "C" + i, "0123", "c" + i + "@example.com", "secret"));
+                    fbs.addBooking(i, 1, LocalDate.now());
+                }
+            } catch (Exception ex) {
+                failure[0] = ex;
+            }
+        });
+        booker.start();
+        while (booker.isAlive()) {
+            FlightBookingSystem loaded = roundTrip(fbs);
+            assertTrue(loaded.getAllCustomers().size() >= loaded.getBookings().size());
+        }
+        booker.join();
+
+        assertNull(failure[0]);
+        assertEquals(20_000, roundTrip(fbs).getBookings().size());
+    }
+
+    @Test
+    void testRejectsFileThatIsNotASnapshot() throws Exception {
+        Files.write(snapshotFile, new byte[] { 'F', 'B', 'S', '0', 0, 0, 0, 1 });
+
+        assertThrows(IOException.class, () -> manager.loadData(new FlightBookingSystem()));
+    }
+}
@@ -6,15 +6,15 @@ import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import bcu.cmp5332.bookingsystem.payment.PaymentProcessor;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Data manager implementation that handles the persistence of booking data.
@@ -35,89 +35,153 @@ public class BookingDataManager implements DataManager {
      */
     private final String RESOURCE = "./resources/data/bookings.txt";
 
+    /**
+     * Loads booking data from the text file into the flight booking system.
+     * The expected format is: bookingId::customerId::flightId::bookingDate::price
+     *
+     * Bookings keep the IDs stored in the file, so payments and archived
+     * cancelled bookings still refer to the right booking after a reload.
+     * Lines that cannot be parsed, or that reference customers or flights which
+     * do not exist, are reported as warnings and skipped.
+     *
+     * @param fbs the flight booking system to load the bookings into
+     * @throws IOException if there is an error reading the file
+     */
     @Override
-    public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(RESOURCE))) {
-            String line;
-            int lineNumber = 0;
+    public void loadData(FlightBookingSystem fbs) throws IOException {
+        apply(fbs, parseRange(fbs, Paths.get(RESOURCE), 0, Long.MAX_VALUE), 0);
+    }
 
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                line = line.trim();
-                if (line.isEmpty())
-                    continue;
+    /**
+     * Loads booking data by parsing the file in parallel chunks. Each chunk
+     * resolves its customer and flight IDs against the already-loaded maps;
+     * the resulting bookings are then added in file order so that warnings
+     * match a sequential load.
+     *
+     * Flights and customers must have been added to the system before this is
+     * called, and nothing else may modify it while chunks are being parsed.
+     *
+     * @param fbs  the flight booking system to load the bookings into
+     * @param pool the pool used to parse chunks
+     * @throws Exception if there is an error reading the file
+     */
+    void loadData(FlightBookingSystem fbs, ForkJoinPool pool) throws Exception {
+        Path path = Paths.get(RESOURCE);
+        long[] bounds = ChunkedRecordReader.split(path, pool.getParallelism() * 4);
+        List<Future<Chunk>> tasks = new ArrayList<>();
+        for (int i = 0; i < bounds.length - 1; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            tasks.add(pool.submit(() -> parseRange(fbs, path, start, end)));
+        }
+        int lineOffset = 0;
+        for (Future<Chunk> task : tasks) {
+            Chunk chunk = ParallelDataLoader.await(task);
+            apply(fbs, chunk, lineOffset);
+            lineOffset += chunk.lineCount;
+        }
+    }
 
-                String[] parts = line.split(SEPARATOR);
-                if (parts.length < 5) {
-                    System.err.println("Warning: Invalid data format at line " + lineNumber + ": " + line);
+    /**
+     * Parses one byte range of the booking file and resolves each record's
+     * customer and flight. Only reads from the flight booking system.
+     */
+    private Chunk parseRange(FlightBookingSystem fbs, Path path, long start, long end) throws IOException {
+        Chunk chunk = new Chunk();
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(path, start, end)) {
+            while (reader.nextRecord()) {
+                Record record = new Record(reader.getLineNumber());
+                chunk.records.add(record);
+                if (reader.fieldCount() < 5) {
+                    record.warning = "Invalid data format";
+                    record.detail = reader.line();
                     continue;
                 }
 
                 try {
-                    int bookingId = Integer.parseInt(parts[0]);
-                    int customerId = Integer.parseInt(parts[1]);
-                    int flightId = Integer.parseInt(parts[2]);
-                    LocalDate bookingDate = LocalDate.parse(parts[3]);
-
-                    // Instead of creating a Booking object directly, use the FlightBookingSystem's
-                    // addBooking method
+                    record.id = reader.getInt(0);
+                    int customerId = reader.getInt(1);
+                    int flightId = reader.getInt(2);
+                    record.bookingDate = reader.getDate(3);
                     try {
-                        Booking booking = fbs.addBooking(customerId, flightId, bookingDate);
-                        // If you need to set additional properties like price, do it after creation
-                        // booking.setPrice(Double.parseDouble(parts[4]));
+                        record.customer = fbs.getCustomerByID(customerId);
+                        record.flight = fbs.getFlightByID(flightId);
                     } catch (FlightBookingSystemException e) {
-                        System.err.println(
-                                "Warning: Could not create booking at line " + lineNumber + ": " + e.getMessage());
+                        record.warning = "Could not create booking";
+                        record.detail = e.getMessage();
                     }
-
                 } catch (NumberFormatException | DateTimeParseException e) {
-                    System.err.println("Warning: Invalid data format at line " + lineNumber + ": " + e.getMessage());
+                    record.warning = "Invalid data format";
+                    record.detail = e.getMessage();
                 }
             }
+            chunk.lineCount = reader.getLineNumber();
         }
+        return chunk;
     }
 
-    @Override
-    public void storeData(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(RESOURCE))) {
-            for (Booking booking : fbs.getBookings()) {
-                out.printf("%d%s%d%s%d%s%s%s%.2f%n",
-                        booking.getId(),
-                        SEPARATOR,
-                        booking.getCustomer().getId(),
-                        SEPARATOR,
-                        booking.getFlight().getId(),
-                        SEPARATOR,
-                        booking.getBookingDate(),
-                        SEPARATOR,
-                        booking.getFinalPrice());
+    /**
+     * Adds the resolved bookings of a chunk to the system, reporting any
+     * problems with line numbers relative to the whole file.
+     */
+    private void apply(FlightBookingSystem fbs, Chunk chunk, int lineOffset) {
+        for (Record record : chunk.records) {
+            if (record.warning == null) {
+                try {
+                    double fee = record.flight.calculatePrice(record.bookingDate);
+                    fbs.addBookingFromData(new Booking(record.id, record.customer, record.flight,
+                            record.bookingDate, fee));
+                } catch (FlightBookingSystemException e) {
+                    record.warning = "Could not create booking";
+                    record.detail = e.getMessage();
+                }
+            }
+            if (record.warning != null) {
+                System.err.println("Warning: " + record.warning + " at line " + (lineOffset + record.lineNumber)
+                        + ": " + record.detail);
             }
         }
     }
 
-    // Additional method without @Override annotation
+    /** Parsed records of one byte range of the booking file */
+    private static class Chunk {
+        private final List<Record> records = new ArrayList<>();
+        private int lineCount;
+    }
+
+    /** One parsed line of the booking file */
+    private static class Record {
+        private final int lineNumber;
+        private int id;
+        private Customer customer;
+        private Flight flight;
+        private LocalDate bookingDate;
+        private String warning;
+        private String detail;
+
+        private Record(int lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        storeDataToFile(fbs, RESOURCE);
+    }
+
+    /**
+     * Writes the active bookings to the given file in the format of
+     * bookings.txt, replacing it atomically. Cancelled bookings are kept by
+     * the history archive, not in this file.
+     *
+     * @param fbs      the flight booking system to store the bookings of
+     * @param filename the file to write
+     * @throws IOException if the file cannot be written
+     */
     public void storeDataToFile(FlightBookingSystem fbs, String filename) throws IOException {
-        try (PrintWriter out = new PrintWriter(new File(filename))) {
-            // Store active bookings
-            for (Booking booking : fbs.getBookings()) {
-                out.printf("%d::%d::%d::%s::%.2f::%b%n",
-                        booking.getId(),
-                        booking.getCustomer().getId(),
-                        booking.getFlight().getId(),
-                        booking.getBookingDate(),
-                        booking.getBookingFee(),
-                        booking.isPaymentProcessed());
-            }
-            // Store cancelled bookings
-            for (Booking booking : fbs.getCancelledBookings()) {
-                out.printf("%d::%d::%d::%s::%.2f::%b::cancelled%n",
-                        booking.getId(),
-                        booking.getCustomer().getId(),
-                        booking.getFlight().getId(),
-                        booking.getBookingDate(),
-                        booking.getBookingFee(),
-                        booking.isPaymentProcessed());
-            }
+        try (AtomicFileWriter file = new AtomicFileWriter(filename)) {
+            new DataExporter(DataExporter.Format.NATIVE).exportBookings(fbs, file.writer());
+            file.commit();
         }
     }
 }
\ No newline at end of file
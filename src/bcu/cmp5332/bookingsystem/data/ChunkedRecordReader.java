@@ -0,0 +1,442 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reads SEPARATOR-delimited records from a data file, a chunk at a time.
+ * Each chunk is read into one reusable heap buffer, and lines are located
+ * and split directly in that buffer. Numeric, date and boolean fields are
+ * parsed from the bytes without creating intermediate Strings. Only text
+ * columns are decoded.
+ *
+ * The file is read rather than memory-mapped, so closing the reader releases
+ * it at once. A mapping would stay in place until garbage collected, and
+ * while it does Windows refuses to rename a new file over the old one.
+ *
+ * Field numbering follows String.split(SEPARATOR): trailing empty fields are
+ * dropped, and blank lines are skipped (but still counted for line numbers).
+ * A line longer than the buffer grows it. A reader may also be limited to a
+ * byte range of the file so that several readers can parse disjoint ranges
+ * concurrently; see {@link #split}.
+ */
+class ChunkedRecordReader implements AutoCloseable {
+
+    /** Initial number of bytes read at once */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /** Exact powers of ten for the fast double path */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+
+    /** File offset just past the last byte this reader may consume */
+    private final long endOffset;
+    private ByteBuffer buffer;
+
+    /** File offset of the first byte in the buffer */
+    private long windowStart;
+
+    /** Buffer position of the next unread byte */
+    private int pos;
+
+    private int lineStart;
+    private int lineEnd;
+    private int lineNumber;
+
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    /** Reusable copy buffer for decoding text fields */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Opens the given file and reads its first chunk.
+     *
+     * @param path the data file to read
+     * @throws IOException if the file cannot be opened or read
+     */
+    ChunkedRecordReader(Path path) throws IOException {
+        this(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens the given file for reading the byte range [start, end). The range
+     * should begin at a line start, as produced by {@link #split}.
+     *
+     * @param path  the data file to read
+     * @param start offset of the first byte to read
+     * @param end   offset just past the last byte to read
+     * @throws IOException if the file cannot be opened or read
+     */
+    ChunkedRecordReader(Path path, long start, long end) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            endOffset = Math.min(end, channel.size());
+            buffer = ByteBuffer.allocate((int) Math.max(0, Math.min(CHUNK_SIZE, endOffset - start)));
+            fill(Math.min(start, endOffset));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Divides a file into roughly equal byte ranges that each start at the
+     * beginning of a line.
+     *
+     * @param path   the data file to divide
+     * @param chunks the desired number of ranges
+     * @return chunk boundaries; range i is [bounds[i], bounds[i + 1])
+     * @throws IOException if the file cannot be read
+     */
+    static long[] split(Path path, int chunks) throws IOException {
+        try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = fc.size();
+            chunks = (int) Math.max(1, Math.min(chunks, size / 4096));
+            long[] bounds = new long[chunks + 1];
+            bounds[chunks] = size;
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            for (int i = 1; i < chunks; i++) {
+                long offset = Math.max(size * i / chunks, bounds[i - 1]);
+                boolean found = false;
+                while (!found && offset < size) {
+                    probe.clear();
+                    int n = fc.read(probe, offset);
+                    if (n <= 0) {
+                        break;
+                    }
+                    for (int j = 0; j < n; j++) {
+                        if (probe.get(j) == '\n') {
+                            offset += j + 1;
+                            found = true;
+                            break;
+                        }
+                    }
+                    if (!found) {
+                        offset += n;
+                    }
+                }
+                bounds[i] = Math.min(offset, size);
+            }
+            return bounds;
+        }
+    }
+
+    /** Reads the buffer full from the given offset, or up to the end of the range */
+    private void fill(long offset) throws IOException {
+        windowStart = offset;
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), endOffset - offset));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("File shrank while being read");
+            }
+        }
+        buffer.flip();
+        pos = 0;
+    }
+
+    /**
+     * Advances to the next non-blank line and splits it into fields.
+     *
+     * @return true if a record is available, false at end of file
+     * @throws IOException if the file cannot be read
+     */
+    boolean nextRecord() throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            boolean lastWindow = windowStart + limit >= endOffset;
+            if (pos >= limit) {
+                if (lastWindow) {
+                    return false;
+                }
+                fill(windowStart + pos);
+                continue;
+            }
+            int end = pos;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && !lastWindow) {
+                if (pos == 0) {
+                    // the line fills the whole buffer, so make room for the rest of it
+                    buffer = ByteBuffer.allocate((int) Math.min(2L * buffer.capacity(), Integer.MAX_VALUE - 8));
+                }
+                fill(windowStart + pos);
+                continue;
+            }
+            lineNumber++;
+            lineStart = pos;
+            lineEnd = end;
+            pos = end + 1;
+            while (lineStart < lineEnd && buffer.get(lineStart) <= ' ') {
+                lineStart++;
+            }
+            while (lineEnd > lineStart && buffer.get(lineEnd - 1) <= ' ') {
+                lineEnd--;
+            }
+            if (lineStart == lineEnd) {
+                continue;
+            }
+            splitFields();
+            return true;
+        }
+    }
+
+    private void splitFields() {
+        fieldCount = 0;
+        int start = lineStart;
+        int i = lineStart;
+        while (i < lineEnd - 1) {
+            if (buffer.get(i) == ':' && buffer.get(i + 1) == ':') {
+                addField(start, i);
+                i += 2;
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        addField(start, lineEnd);
+        while (fieldCount > 0 && fieldStarts[fieldCount - 1] == fieldEnds[fieldCount - 1]) {
+            fieldCount--;
+        }
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /** @return the 1-based line number of the current record, relative to the start of the range */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /** @return the number of fields in the current record */
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    /** @return the current record as text, for diagnostics */
+    String line() {
+        return decode(lineStart, lineEnd);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + fieldCount);
+        }
+    }
+
+    /**
+     * @param index the field index
+     * @return true if the field has no characters
+     */
+    boolean isEmpty(int index) {
+        checkIndex(index);
+        return fieldStarts[index] == fieldEnds[index];
+    }
+
+    /**
+     * @param index the field index
+     * @return the field decoded as UTF-8 text
+     */
+    String getString(int index) {
+        checkIndex(index);
+        return decode(fieldStarts[index], fieldEnds[index]);
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int trimmedStart(int index) {
+        int start = fieldStarts[index];
+        while (start < fieldEnds[index] && buffer.get(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int index) {
+        int end = fieldEnds[index];
+        while (end > fieldStarts[index] && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Parses a field as a decimal int, ignoring surrounding whitespace.
+     *
+     * @param index the field index
+     * @return the parsed value
+     * @throws NumberFormatException if the field is not a valid int
+     */
+    int getInt(int index) {
+        checkIndex(index);
+        int start = trimmedStart(index);
+        int end = trimmedEnd(index);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw numberFormat(start, end);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw numberFormat(start, end);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw numberFormat(start, end);
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw numberFormat(start, end);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a field as a double, ignoring surrounding whitespace. Plain
+     * decimals with up to 15 significant digits are converted exactly from the
+     * bytes; anything else falls back to {@link Double#parseDouble(String)}.
+     *
+     * @param index the field index
+     * @return the parsed value
+     * @throws NumberFormatException if the field is not a valid double
+     */
+    double getDouble(int index) {
+        checkIndex(index);
+        int start = trimmedStart(index);
+        int end = trimmedEnd(index);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                seenDigit = true;
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (i == end && seenDigit && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(decode(start, end));
+    }
+
+    /**
+     * Parses a field as an ISO-8601 date (yyyy-MM-dd), ignoring surrounding
+     * whitespace. Other layouts are delegated to {@link LocalDate#parse}.
+     *
+     * @param index the field index
+     * @return the parsed date
+     * @throws java.time.format.DateTimeParseException if the field is not a valid date
+     */
+    LocalDate getDate(int index) {
+        checkIndex(index);
+        int start = trimmedStart(index);
+        int end = trimmedEnd(index);
+        if (end - start == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+            int year = digits(start, start + 4);
+            int month = digits(start + 5, start + 7);
+            int day = digits(start + 8, start + 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException ex) {
+                    // fall through so the caller sees the usual parse exception
+                }
+            }
+        }
+        return LocalDate.parse(decode(start, end));
+    }
+
+    private int digits(int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a field with the same rules as {@link Boolean#parseBoolean(String)}.
+     *
+     * @param index the field index
+     * @return true if the field equals "true", ignoring case
+     */
+    boolean getBoolean(int index) {
+        checkIndex(index);
+        int start = fieldStarts[index];
+        if (fieldEnds[index] - start != 4) {
+            return false;
+        }
+        return (buffer.get(start) | 0x20) == 't' && (buffer.get(start + 1) | 0x20) == 'r'
+                && (buffer.get(start + 2) | 0x20) == 'u' && (buffer.get(start + 3) | 0x20) == 'e';
+    }
+
+    private NumberFormatException numberFormat(int start, int end) {
+        return new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,108 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class ChunkedRecordReaderTest {
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("records", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void write(String... lines) throws IOException {
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testParsesFieldsAndSkipsBlankLines() throws IOException {
+        write("1::FL1:: 120.50 ::2030-01-15::true::", "", "2::FL2::80::2030-02-01::false");
+
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(file)) {
+            assertTrue(reader.nextRecord());
+            assertEquals(5, reader.fieldCount());
+            assertEquals(1, reader.getInt(0));
+            assertEquals("FL1", reader.getString(1));
+            assertEquals(120.5, reader.getDouble(2));
+            assertEquals(LocalDate.of(2030, 1, 15), reader.getDate(3));
+            assertTrue(reader.getBoolean(4));
+            assertTrue(reader.nextRecord());
+            assertEquals(3, reader.getLineNumber());
+            assertFalse(reader.getBoolean(4));
+            assertFalse(reader.nextRecord());
+        }
+    }
+
+    @Test
+    void testLineLongerThanChunkIsReadWhole() throws IOException {
+        char[] name = new char[3 << 20];
+        Arrays.fill(name, 'a');
+        write("1::short", "2::" + new String(name), "3::after");
+
+        List<Integer> lengths = new ArrayList<>();
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(file)) {
+            while (reader.nextRecord()) {
+                lengths.add(reader.getString(1).length());
+            }
+        }
+        assertEquals(List.of(5, name.length, 5), lengths);
+    }
+
+    @Test
+    void testSplitRangesCoverEveryLineOnce() throws IOException {
+        String[] lines = new String[5000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = (i + 1) + "::customer" + i;
+        }
+        write(lines);
+
+        long[] bounds = ChunkedRecordReader.split(file, 4);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            try (ChunkedRecordReader reader = new ChunkedRecordReader(file, bounds[i], bounds[i + 1])) {
+                while (reader.nextRecord()) {
+                    ids.add(reader.getInt(0));
+                }
+            }
+        }
+        assertEquals(lines.length, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, (int) ids.get(i));
+        }
+    }
+
+    @Test
+    void testFileCanBeReplacedAfterClose() throws IOException {
+        write("1::old");
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(file)) {
+            assertTrue(reader.nextRecord());
+        }
+        Path replacement = Files.createTempFile(file.getParent(), "records", ".tmp");
+        Files.write(replacement, List.of("1::new"), StandardCharsets.UTF_8);
+
+        Files.move(replacement, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(file)) {
+            assertTrue(reader.nextRecord());
+            assertEquals("new", reader.getString(1));
+        }
+    }
+}
@@ -4,10 +4,10 @@ import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Data manager implementation that handles the persistence of customer data.
@@ -25,6 +25,7 @@ public class CustomerDataManager implements DataManager {
     
     /**
      * Loads customer data from the text file into the flight booking system.
+     * The file is read in large chunks and parsed in place by {@link ChunkedRecordReader}.
      * Each line in the file represents a customer with fields separated by the SEPARATOR.
      * The expected format is: id::name::phone::email::password::isDeleted
      *
@@ -39,34 +40,42 @@ public class CustomerDataManager implements DataManager {
      */
     @Override
     public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        for (Customer customer : parse()) {
+            fbs.addCustomer(customer);
+        }
+    }
+
+    /**
+     * Parses the customer file without touching the flight booking system, so it
+     * can run concurrently with the other parsers.
+     *
+     * @return the customers in file order
+     * @throws IOException if there is an error reading the file
+     * @throws FlightBookingSystemException if there is an error parsing the customer data
+     */
+    List<Customer> parse() throws IOException, FlightBookingSystemException {
+        List<Customer> customers = new ArrayList<>();
         File file = new File(RESOURCE);
-        if (!file.exists()) return;
-        try (Scanner sc = new Scanner(file)) {
-            int line_idx = 1;
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if(line.isEmpty()){
-                    line_idx++;
-                    continue;
-                }
-                String[] properties = line.split(SEPARATOR, -1);
+        if (!file.exists()) return customers;
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(file.toPath())) {
+            while (reader.nextRecord()) {
                 try {
-                    int id = Integer.parseInt(properties[0]);
-                    String name = properties[1];
-                    String phone = properties[2];
-                    String email = properties[3];
-                    String password = (properties.length > 4 && !properties[4].isEmpty()) ? properties[4] : "default123";
-                    boolean isDeleted = properties.length > 5 && !properties[5].isEmpty() ? Boolean.parseBoolean(properties[5]) : false;
+                    int id = reader.getInt(0);
+                    String name = reader.getString(1);
+                    String phone = reader.getString(2);
+                    String email = reader.getString(3);
+                    String password = (reader.fieldCount() > 4 && !reader.isEmpty(4)) ? reader.getString(4) : "default123";
+                    boolean isDeleted = reader.fieldCount() > 5 && reader.getBoolean(5);
                     
                     Customer customer = new Customer(id, name, phone, email, password);
                     customer.setDeleted(isDeleted);
-                    fbs.addCustomer(customer);
+                    customers.add(customer);
                 } catch (NumberFormatException ex) {
-                    throw new FlightBookingSystemException("Unable to parse customer data on line " + line_idx + "\nError: " + ex);
+                    throw new FlightBookingSystemException("Unable to parse customer data on line " + reader.getLineNumber() + "\nError: " + ex);
                 }
-                line_idx++;
             }
         }
+        return customers;
     }
     
     /**
@@ -83,7 +92,8 @@ public class CustomerDataManager implements DataManager {
      */
     @Override
     public void storeData(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(RESOURCE))) {
+        try (AtomicFileWriter file = new AtomicFileWriter(RESOURCE)) {
+            PrintWriter out = file.writer();
             for (Customer customer : fbs.getAllCustomers()) {
                 out.print(customer.getId() + SEPARATOR);
                 out.print(customer.getName() + SEPARATOR);
@@ -93,6 +103,7 @@ public class CustomerDataManager implements DataManager {
                 out.print(customer.isDeleted() + SEPARATOR);
                 out.println();
             }
+            file.commit();
         }
     }
 }
\ No newline at end of file
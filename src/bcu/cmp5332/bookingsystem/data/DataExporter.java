@@ -0,0 +1,332 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import bcu.cmp5332.bookingsystem.model.SystemSnapshot;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Streaming exporter for bookings and payments. The records to export are
+ * copied from the flight booking system in one step under its lock (only the
+ * references, not the rows), then formatted into a single reusable buffer
+ * that is handed to the writer whenever it fills, so the rows never exist as
+ * strings all at once however many the export writes.
+ *
+ * Three formats are supported: the native "::" format used by the data
+ * files, CSV with a header row, and JSON Lines (one object per line). Rows
+ * can be restricted to a date range (booking date for bookings, payment
+ * date for payments).
+ *
+ * Other threads may keep changing the system while an export runs; the
+ * export holds the records as they were when it started.
+ */
+public class DataExporter {
+
+    /** Output formats supported by the exporter */
+    public enum Format {
+        /** The "::" separated format of bookings.txt and payments.txt */
+        NATIVE,
+        /** Comma separated values with a header row */
+        CSV,
+        /** One JSON object per line */
+        JSON_LINES
+    }
+
+    /** Buffered characters are handed to the writer once this many are queued */
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final Format format;
+    private final LocalDate from;
+    private final LocalDate to;
+    private boolean includeCancelled;
+
+    /** Reused for every row */
+    private final StringBuilder sb = new StringBuilder(FLUSH_THRESHOLD + 256);
+
+    /**
+     * Creates an exporter that writes every row in the given format.
+     *
+     * @param format the output format
+     */
+    public DataExporter(Format format) {
+        this(format, null, null);
+    }
+
+    /**
+     * Creates an exporter restricted to a date range.
+     *
+     * @param format the output format
+     * @param from   first date to include, or null for no lower bound
+     * @param to     last date to include, or null for no upper bound
+     */
+    public DataExporter(Format format, LocalDate from, LocalDate to) {
+        this.format = format;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Also exports cancelled bookings. The native format has no cancelled
+     * column, so this only affects the CSV and JSON Lines formats.
+     *
+     * @param includeCancelled true to export cancelled bookings after the active ones
+     * @return this exporter
+     */
+    public DataExporter setIncludeCancelled(boolean includeCancelled) {
+        this.includeCancelled = includeCancelled;
+        return this;
+    }
+
+    /**
+     * Writes the bookings of the flight booking system to the writer.
+     * In the native format each row is
+     * {@code id::customerId::flightId::bookingDate::finalPrice}, exactly as
+     * stored in bookings.txt.
+     *
+     * @param fbs the flight booking system to export from
+     * @param out the destination; it is flushed but not closed
+     * @return the number of bookings written
+     * @throws IOException if the writer fails
+     */
+    public long exportBookings(FlightBookingSystem fbs, Writer out) throws IOException {
+        sb.setLength(0);
+        if (format == Format.CSV) {
+            sb.append("id,customerId,flightId,bookingDate,bookingFee,finalPrice,paymentProcessed,cancelled").append(System.lineSeparator());
+        }
+        boolean cancelled = includeCancelled && format != Format.NATIVE;
+        SystemSnapshot snapshot = fbs.snapshot(cancelled);
+        long count = writeBookings(snapshot.getBookings(), out);
+        if (cancelled) {
+            count += writeBookings(snapshot.getCancelledBookings(), out);
+        }
+        out.append(sb);
+        out.flush();
+        return count;
+    }
+
+    private long writeBookings(Iterable<Booking> bookings, Writer out) throws IOException {
+        long count = 0;
+        for (Booking booking : bookings) {
+            if (!inRange(booking.getBookingDate())) {
+                continue;
+            }
+            switch (format) {
+                case NATIVE:
+                    sb.append(booking.getId()).append(DataManager.SEPARATOR)
+                            .append(booking.getCustomer().getId()).append(DataManager.SEPARATOR)
+                            .append(booking.getFlight().getId()).append(DataManager.SEPARATOR)
+                            .append(booking.getBookingDate()).append(DataManager.SEPARATOR);
+                    appendAmount(booking.getFinalPrice());
+                    break;
+                case CSV:
+                    sb.append(booking.getId()).append(',')
+                            .append(booking.getCustomer().getId()).append(',')
+                            .append(booking.getFlight().getId()).append(',')
+                            .append(booking.getBookingDate()).append(',');
+                    appendAmount(booking.getBookingFee());
+                    sb.append(',');
+                    appendAmount(booking.getFinalPrice());
+                    sb.append(',').append(booking.isPaymentProcessed())
+                            .append(',').append(booking.isCancelled());
+                    break;
+                default:
+                    sb.append("{\"id\":").append(booking.getId())
+                            .append(",\"customerId\":").append(booking.getCustomer().getId())
+                            .append(",\"flightId\":").append(booking.getFlight().getId())
+                            .append(",\"bookingDate\":\"").append(booking.getBookingDate())
+                            .append("\",\"bookingFee\":");
+                    appendAmount(booking.getBookingFee());
+                    sb.append(",\"finalPrice\":");
+                    appendAmount(booking.getFinalPrice());
+                    sb.append(",\"paymentProcessed\":").append(booking.isPaymentProcessed())
+                            .append(",\"cancelled\":").append(booking.isCancelled()).append('}');
+                    break;
+            }
+            endRow(out);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the payments of the flight booking system to the writer.
+     * In the native format each row is
+     * {@code bookingId::amount::cardNumber::expiryDate::paymentDate}, exactly
+     * as stored in payments.txt.
+     *
+     * @param fbs the flight booking system to export from
+     * @param out the destination; it is flushed but not closed
+     * @return the number of payments written
+     * @throws IOException if the writer fails
+     */
+    public long exportPayments(FlightBookingSystem fbs, Writer out) throws IOException {
+        sb.setLength(0);
+        if (format == Format.CSV) {
+            sb.append("bookingId,amount,cardNumber,expiryDate,paymentDate").append(System.lineSeparator());
+        }
+        long count = 0;
+        for (Payment payment : fbs.getPayments()) {
+            if (!inRange(payment.getPaymentDate())) {
+                continue;
+            }
+            switch (format) {
+                case NATIVE:
+                    sb.append(payment.getBookingId()).append(DataManager.SEPARATOR);
+                    appendAmount(payment.getAmount());
+                    sb.append(DataManager.SEPARATOR).append(payment.getCardNumber())
+                            .append(DataManager.SEPARATOR).append(payment.getExpiryDate())
+                            .append(DataManager.SEPARATOR).append(payment.getPaymentDate());
+                    break;
+                case CSV:
+                    sb.append(payment.getBookingId()).append(',');
+                    appendAmount(payment.getAmount());
+                    sb.append(',');
+                    appendCsv(payment.getCardNumber());
+                    sb.append(',');
+                    appendCsv(payment.getExpiryDate());
+                    sb.append(',').append(payment.getPaymentDate());
+                    break;
+                default:
+                    sb.append("{\"bookingId\":").append(payment.getBookingId()).append(",\"amount\":");
+                    appendAmount(payment.getAmount());
+                    sb.append(",\"cardNumber\":");
+                    appendJson(payment.getCardNumber());
+                    sb.append(",\"expiryDate\":");
+                    appendJson(payment.getExpiryDate());
+                    sb.append(",\"paymentDate\":\"").append(payment.getPaymentDate()).append("\"}");
+                    break;
+            }
+            endRow(out);
+            count++;
+        }
+        out.append(sb);
+        out.flush();
+        return count;
+    }
+
+    private boolean inRange(LocalDate date) {
+        return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    private void endRow(Writer out) throws IOException {
+        sb.append(System.lineSeparator());
+        if (sb.length() >= FLUSH_THRESHOLD) {
+            out.append(sb);
+            sb.setLength(0);
+        }
+    }
+
+    /** Appends an amount with two decimal places, like {@code %.2f} in the English locale */
+    private void appendAmount(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount) || Math.abs(amount) >= 1e15) {
+            sb.append(String.format(Locale.ROOT, "%.2f", amount));
+            return;
+        }
+        double scaled = Math.abs(amount) * 100;
+        long cents = Math.round(scaled);
+        if (Math.abs(scaled - Math.floor(scaled) - 0.5) < 1e-6) {
+            // near a tie: round the decimal value half up as %.2f does (307.085 -> 307.09)
+            cents = new BigDecimal(Double.toString(Math.abs(amount)))
+                    .setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        if (amount < 0 && cents != 0) {
+            sb.append('-');
+        }
+        sb.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
+    private void appendCsv(String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private void appendJson(String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Exports bookings or payments from the stored data to a file.
+     * Usage: {@code DataExporter bookings|payments native|csv|jsonl <file> [from] [to]}
+     *
+     * @param args the command line arguments
+     * @throws Exception if the data cannot be loaded or the file written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || args.length > 5
+                || !(args[0].equals("bookings") || args[0].equals("payments"))) {
+            System.err.println("Usage: DataExporter bookings|payments native|csv|jsonl <file> [from] [to]");
+            System.exit(1);
+        }
+        Format format;
+        switch (args[1]) {
+            case "native":
+                format = Format.NATIVE;
+                break;
+            case "csv":
+                format = Format.CSV;
+                break;
+            case "jsonl":
+                format = Format.JSON_LINES;
+                break;
+            default:
+                System.err.println("Unknown format " + args[1]);
+                System.exit(1);
+                return;
+        }
+        LocalDate from = args.length > 3 ? LocalDate.parse(args[3]) : null;
+        LocalDate to = args.length > 4 ? LocalDate.parse(args[4]) : null;
+        DataExporter exporter = new DataExporter(format, from, to).setIncludeCancelled(true);
+
+        FlightBookingSystem fbs = FlightBookingSystemData.load();
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+            long count = args[0].equals("bookings")
+                    ? exporter.exportBookings(fbs, out)
+                    : exporter.exportPayments(fbs, out);
+            System.out.println("Exported " + count + " " + args[0] + " to " + args[2]);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.Locale;
+
+class DataExporterTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    private FlightBookingSystem fbs;
+    private Booking active;
+    private Booking cancelled;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", TODAY.plusDays(30), 100.0, 10));
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        fbs.addCustomer(new Customer(2, "Bob", "0456", "bob@example.com", "secret"));
+        active = fbs.addBooking(1, 1, TODAY);
+        cancelled = fbs.addBooking(2, 1, TODAY.plusDays(1));
+        fbs.cancelBooking(cancelled.getId(), 0);
+    }
+
+    private static String[] export(DataExporter exporter, FlightBookingSystem fbs, boolean bookings)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        long count = bookings ? exporter.exportBookings(fbs, out) : exporter.exportPayments(fbs, out);
+        String text = out.toString();
+        String[] lines = text.isEmpty() ? new String[0] : text.split(System.lineSeparator());
+        assertTrue(text.isEmpty() || text.endsWith(System.lineSeparator()));
+        assertTrue(lines.length == count || lines.length == count + 1);
+        return lines;
+    }
+
+    @Test
+    void testNativeBookingsMatchDataFileFormat() throws IOException {
+        String[] lines = export(new DataExporter(DataExporter.Format.NATIVE).setIncludeCancelled(true), fbs, true);
+
+        assertArrayEquals(new String[] {
+                active.getId() + "::1::1::2025-03-10::" + String.format(Locale.ROOT, "%.2f", active.getFinalPrice()) },
+                lines);
+    }
+
+    @Test
+    void testCsvBookingsWithHeaderAndCancelled() throws IOException {
+        String[] lines = export(new DataExporter(DataExporter.Format.CSV).setIncludeCancelled(true), fbs, true);
+
+        assertEquals(3, lines.length);
+        assertEquals("id,customerId,flightId,bookingDate,bookingFee,finalPrice,paymentProcessed,cancelled", lines[0]);
+        assertTrue(lines[1].startsWith(active.getId() + ",1,1,2025-03-10,"));
+        assertTrue(lines[1].endsWith(",false,false"));
+        assertTrue(lines[2].startsWith(cancelled.getId() + ",2,1,2025-03-11,"));
+        assertTrue(lines[2].endsWith(",false,true"));
+    }
+
+    @Test
+    void testJsonLinesBookings() throws IOException {
+        String[] lines = export(new DataExporter(DataExporter.Format.JSON_LINES), fbs, true);
+
+        assertEquals(1, lines.length);
+        assertEquals("{\"id\":" + active.getId() + ",\"customerId\":1,\"flightId\":1,\"bookingDate\":\"2025-03-10\""
+                + ",\"bookingFee\":" + String.format(Locale.ROOT, "%.2f", active.getBookingFee())
+                + ",\"finalPrice\":" + String.format(Locale.ROOT, "%.2f", active.getFinalPrice())
+                + ",\"paymentProcessed\":false,\"cancelled\":false}", lines[0]);
+    }
+
+    @Test
+    void testDateRangeIsInclusive() throws IOException {
+        DataExporter exporter = new DataExporter(DataExporter.Format.CSV, TODAY.plusDays(1), TODAY.plusDays(1))
+                .setIncludeCancelled(true);
+        String[] lines = export(exporter, fbs, true);
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith(cancelled.getId() + ","));
+    }
+
+    @Test
+    void testPaymentsEscapedPerFormat() throws IOException {
+        fbs.addPayment(new Payment(active.getId(), 307.085, "4111,\"1\"", "12\\30\t", TODAY));
+
+        assertArrayEquals(new String[] { active.getId() + "::307.09::4111,\"1\"::12\\30\t::2025-03-10" },
+                export(new DataExporter(DataExporter.Format.NATIVE), fbs, false));
+        assertArrayEquals(new String[] { "bookingId,amount,cardNumber,expiryDate,paymentDate",
+                active.getId() + ",307.09,\"4111,\"\"1\"\"\",12\\30\t,2025-03-10" },
+                export(new DataExporter(DataExporter.Format.CSV), fbs, false));
+        assertArrayEquals(new String[] { "{\"bookingId\":" + active.getId() + ",\"amount\":307.09"
+                + ",\"cardNumber\":\"4111,\\\"1\\\"\",\"expiryDate\":\"12\\\\30\\u0009\""
+                + ",\"paymentDate\":\"2025-03-10\"}" },
+                export(new DataExporter(DataExporter.Format.JSON_LINES), fbs, false));
+    }
+
+    @Test
+    void testAmountsFormattedLikeFormatString() throws IOException {
+        double[] amounts = { 0.005, 0.01, 1.005, 19.999, 307.085, 1234.5, 99999.994, 1e16 };
+        FlightBookingSystem payments = new FlightBookingSystem();
+        for (int i = 0; i < amounts.length; i++) {
+            payments.addPayment(new Payment(i + 1, amounts[i], "4111", "12/30", TODAY));
+        }
+
+        String[] lines = export(new DataExporter(DataExporter.Format.NATIVE), payments, false);
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals((i + 1) + "::" + String.format(Locale.ROOT, "%.2f", amounts[i]) + "::4111::12/30::2025-03-10",
+                    lines[i]);
+        }
+    }
+
+    @Test
+    void testExportWhileBookingsAreMade() throws Exception {
+        FlightBookingSystem busy = new FlightBookingSystem();
+        busy.addFlight(new Flight(1, "FL1", "LHR", "JFK", TODAY.plusDays(30), 100.0, 100_000));
+        Exception[] failure = new Exception[1];
+        Thread booker = new Thread(() -> {
+            try {
+                for (int i = 1; i <= 20_000; i++) {
+                    busy.addCustomer(new Customer(i, "C" + i, "0123", "c" + i + "@example.com", "secret"));
+                    busy.addBooking(i, 1, TODAY);
+                }
+            } catch (Exception ex) {
+                failure[0] = ex;
+            }
+        });
+        booker.start();
+        long previous = 0;
+        while (booker.isAlive()) {
+            long count = new DataExporter(DataExporter.Format.NATIVE).exportBookings(busy, new StringWriter());
+            assertTrue(count >= previous);
+            previous = count;
+        }
+        booker.join();
+
+        assertNull(failure[0]);
+        assertEquals(20_000, new DataExporter(DataExporter.Format.NATIVE).exportBookings(busy, new StringWriter()));
+    }
+
+    @Test
+    void testLargeExportWrittenInFull() throws IOException {
+        FlightBookingSystem payments = new FlightBookingSystem();
+        for (int i = 1; i <= 5000; i++) {
+            payments.addPayment(new Payment(i, i, "4111111111111111", "12/30", TODAY));
+        }
+
+        String[] lines = export(new DataExporter(DataExporter.Format.JSON_LINES), payments, false);
+        assertEquals(5000, lines.length);
+        assertTrue(lines[4999].startsWith("{\"bookingId\":5000,\"amount\":5000.00,"));
+    }
+}
@@ -1,8 +1,15 @@
 package bcu.cmp5332.bookingsystem.data;
 
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.EntitySet;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Central coordinator class for data persistence in the flight booking system.
@@ -22,43 +29,434 @@ public class FlightBookingSystemData {
      */
     private static final List<DataManager> dataManagers = new ArrayList<>();
 
+    private static final FlightDataManager flightDataManager = new FlightDataManager();
+    private static final CustomerDataManager customerDataManager = new CustomerDataManager();
+    private static final BookingDataManager bookingDataManager = new BookingDataManager();
+    private static final PaymentDataManager paymentDataManager = new PaymentDataManager();
+
     /**
      * Static initializer that sets up the data managers in the correct order.
      * The order is important as there are dependencies between different types of data.
      */
     static {
-        dataManagers.add(new FlightDataManager());
-        dataManagers.add(new CustomerDataManager());
-        dataManagers.add(new BookingDataManager());
-        dataManagers.add(new PaymentDataManager());
+        dataManagers.add(flightDataManager);
+        dataManagers.add(customerDataManager);
+        dataManagers.add(bookingDataManager);
+        dataManagers.add(paymentDataManager);
+    }
+
+    /** The entity set each text data manager is responsible for, in store order */
+    private static final Map<EntitySet, DataManager> managersBySet = new EnumMap<>(EntitySet.class);
+
+    static {
+        managersBySet.put(EntitySet.FLIGHTS, flightDataManager);
+        managersBySet.put(EntitySet.CUSTOMERS, customerDataManager);
+        managersBySet.put(EntitySet.BOOKINGS, bookingDataManager);
+        managersBySet.put(EntitySet.PAYMENTS, paymentDataManager);
+    }
+
+    /** Whether the data files are parsed concurrently on load */
+    private static boolean parallelLoadEnabled = true;
+
+    /** Alternative to the text data managers that stores everything in one binary file */
+    private static final BinarySnapshotManager binarySnapshotManager = new BinarySnapshotManager();
+
+    /** Whether snapshots are stored in the binary format instead of the text files */
+    private static boolean binarySnapshotEnabled = false;
+
+    /** Persists the position of the ID sequences in every storage mode */
+    private static final IdSequenceManager idSequenceManager = new IdSequenceManager();
+
+    /** Reads the pricing rules, and reloads them when they are edited */
+    private static final PricingRulesManager pricingRulesManager = new PricingRulesManager();
+
+    /** How often the pricing rules file is checked for changes, in milliseconds; 0 never */
+    private static long pricingRulesPollMillis = 2000;
+
+    /**
+     * Number of journal records after which {@link #store(FlightBookingSystem)}
+     * compacts the journal back into the snapshot files.
+     */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    /** Held while the data files are rewritten, so only one store rewrites them at a time */
+    private static final Object COMPACTION_LOCK = new Object();
+
+    /** Archive that historical records are moved to in tiered mode */
+    private static final HistoryArchiveManager historyArchive = new HistoryArchiveManager();
+
+    /** Whether historical flights and cancelled bookings are kept out of memory */
+    private static boolean tieredStorageEnabled = false;
+
+    /** Record store used instead of the snapshot files and journal, or null */
+    private static StorageEngine storageEngine;
+
+    /** The system the storage engine is recording changes for */
+    private static FlightBookingSystem engineOwner;
+
+    /** Whether mutations are persisted through the write-ahead journal */
+    private static boolean journalEnabled = true;
+
+    /** The journal attached to the most recently loaded system, if any */
+    private static JournalManager journal;
+
+    /** The system the journal is recording changes for */
+    private static FlightBookingSystem journalOwner;
+
+    /**
+     * How long a journal record may wait before it is written, in
+     * milliseconds. Zero syncs every record before the mutation returns.
+     */
+    private static long writeBehindWindowMillis = 50;
+
+    /** Number of queued journal records that triggers an immediate write */
+    private static int writeBehindMaxBatch = 256;
+
+    /**
+     * Makes sure records still queued by the write-behind journal reach the
+     * disk when the JVM exits without calling {@link #flush()}.
+     */
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Error flushing journal on exit: " + e.getMessage());
+            }
+        }, "journal-flush"));
+    }
+
+    /**
+     * Configures write-behind persistence for the journal. Mutations are
+     * queued and written by a background thread once the oldest has waited
+     * {@code windowMillis} or {@code maxBatch} records are queued, so bursts
+     * of changes are synced to disk together and callers never wait for the
+     * disk. Use {@link #flush()} to wait until the changes are durable.
+     * Takes effect on the next {@link #load()}.
+     *
+     * @param windowMillis how long a change may wait before it is written,
+     *                     or 0 to sync every change before it returns
+     * @param maxBatch     number of queued changes that triggers an immediate write
+     */
+    public static void setWriteBehind(long windowMillis, int maxBatch) {
+        writeBehindWindowMillis = windowMillis;
+        writeBehindMaxBatch = maxBatch;
+    }
+
+    /**
+     * Sets how often the pricing rules file is checked for changes while the
+     * system runs. When it changes the new rules are applied and the flights
+     * of the most recently loaded system are repriced. Takes effect on the
+     * next {@link #load()}.
+     *
+     * @param pollMillis how often to check the file, or 0 to read it only on load
+     */
+    public static void setPricingRulesPollInterval(long pollMillis) {
+        pricingRulesPollMillis = pollMillis;
+    }
+
+    /**
+     * Enables or disables journal mode. When disabled, every store rewrites
+     * all data files as before. Takes effect on the next {@link #load()}.
+     *
+     * @param enabled true to persist mutations through the journal
+     */
+    public static void setJournalEnabled(boolean enabled) {
+        journalEnabled = enabled;
+    }
+
+    /**
+     * Enables or disables parallel loading. When disabled, the data managers
+     * are run one after another in list order.
+     *
+     * @param enabled true to parse the data files concurrently
+     */
+    public static void setParallelLoadEnabled(boolean enabled) {
+        parallelLoadEnabled = enabled;
+    }
+
+    /**
+     * Selects the snapshot format. In binary mode the system is loaded from
+     * the binary snapshot when one exists (falling back to the text files so
+     * existing data is picked up) and every compaction writes the binary
+     * snapshot instead of the text files. See {@link SnapshotConverter} to
+     * convert existing data in either direction.
+     *
+     * @param enabled true to use the binary snapshot format
+     */
+    public static void setBinarySnapshotEnabled(boolean enabled) {
+        binarySnapshotEnabled = enabled;
+    }
+
+    /**
+     * Enables or disables tiered storage for the text snapshot format. In
+     * tiered mode only live data stays in memory: flights that have departed
+     * or been deleted (and have no active bookings) and cancelled bookings
+     * are moved to the {@link HistoryArchiveManager} segment on load and on
+     * every compaction, and paged back in when they are asked for (for
+     * example when all flights or all bookings are displayed). Ignored in
+     * binary mode. Takes effect on the next {@link #load()}.
+     *
+     * @param enabled true to keep history on disk until it is needed
+     */
+    public static void setTieredStorageEnabled(boolean enabled) {
+        tieredStorageEnabled = enabled;
+    }
+
+    private static boolean isTiered() {
+        return tieredStorageEnabled && !binarySnapshotEnabled && storageEngine == null;
+    }
+
+    /**
+     * Selects a {@link StorageEngine} to hold the data instead of the snapshot
+     * files and journal. The engine persists every mutation as it happens, so
+     * {@link #store(FlightBookingSystem)} never rewrites the dataset. The
+     * first time an empty engine is loaded it imports the existing text data
+     * (and any journal on top of it); the text files are left as they were.
+     * Takes effect on the next {@link #load()}.
+     *
+     * @param engine the engine to use, for example {@link LsmStorageEngine},
+     *               or null to use the snapshot files
+     * @throws IOException if the previous engine cannot be closed
+     */
+    public static void setStorageEngine(StorageEngine engine) throws IOException {
+        if (storageEngine != null && storageEngine != engine) {
+            if (engineOwner != null) {
+                engineOwner.removeListener(storageEngine);
+                engineOwner = null;
+            }
+            storageEngine.close();
+        }
+        storageEngine = engine;
     }
 
     /**
      * Loads all system data from persistent storage using registered data managers.
      * Data is loaded in the order specified by the dataManagers list to ensure
-     * that dependencies are satisfied.
+     * that dependencies are satisfied. In parallel mode independent files are
+     * parsed concurrently by {@link ParallelDataLoader}; in binary mode the
+     * binary snapshot is read instead. In journal mode the journal is then
+     * replayed on top of the snapshot and attached to the returned system so
+     * that every later mutation is appended to it. When a storage engine is
+     * selected it is loaded instead, and registered to persist each mutation.
+     * The time taken is recorded in the {@code data.load} metric, and gauges
+     * of the loaded system's size are registered.
      *
      * @return a new FlightBookingSystem instance populated with the loaded data
      * @throws Exception if there is an error during data loading from any manager
      */
     public static FlightBookingSystem load() throws Exception {
+        FlightBookingSystem fbs = Metrics.time("data.load", FlightBookingSystemData::loadSystem);
+        Metrics.gauge("flights.active", fbs::getActiveFlightCount);
+        Metrics.gauge("customers.active", fbs::getActiveCustomerCount);
+        Metrics.gauge("bookings.active", () -> fbs.getBookingsView().size());
+        Metrics.gauge("journal.records", () -> {
+            JournalManager current = journal;
+            return current != null && journalOwner == fbs ? current.getRecordCount() : 0;
+        });
+        return fbs;
+    }
+
+    private static FlightBookingSystem loadSystem() throws Exception {
         FlightBookingSystem fbs = new FlightBookingSystem();
-        for (DataManager dm : dataManagers) {
-            dm.loadData(fbs);
+        loadData(idSequenceManager, fbs);
+        // before any booking is loaded, as loaded bookings are priced
+        loadData(pricingRulesManager, fbs);
+        pricingRulesManager.watch(fbs, pricingRulesPollMillis);
+        if (engineOwner != null) {
+            engineOwner.removeListener(storageEngine);
+            engineOwner = null;
+        }
+        if (storageEngine != null) {
+            storageEngine.open();
+            if (!storageEngine.isEmpty()) {
+                loadData(storageEngine, fbs);
+                return attachEngine(fbs);
+            }
         }
+        if (binarySnapshotEnabled && binarySnapshotManager.exists()) {
+            loadData(binarySnapshotManager, fbs);
+        } else if (parallelLoadEnabled) {
+            new ParallelDataLoader(flightDataManager, customerDataManager, bookingDataManager,
+                    paymentDataManager, ForkJoinPool.commonPool()).load(fbs);
+        } else {
+            for (DataManager dm : dataManagers) {
+                loadData(dm, fbs);
+            }
+        }
+        for (EntitySet set : EntitySet.values()) {
+            fbs.markClean(set);
+        }
+        if (isTiered()) {
+            fbs.setHistoryArchive(historyArchive);
+            // moves history left in the flights file (for example by an older version) out of memory
+            if (historyArchive.archive(fbs) > 0 && fbs.isDirty(EntitySet.FLIGHTS)) {
+                storeData(flightDataManager, fbs);
+                fbs.markClean(EntitySet.FLIGHTS);
+            }
+        }
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            journalOwner = null;
+        }
+        if (journalEnabled) {
+            journal = new JournalManager();
+            journal.replay(fbs);
+            journal.open();
+            if (writeBehindWindowMillis > 0) {
+                journal.startWriteBehind(writeBehindWindowMillis, writeBehindMaxBatch);
+            }
+            fbs.addListener(journal);
+            journalOwner = fbs;
+        }
+        if (storageEngine != null) {
+            // first load with an empty engine: import the snapshot and journal
+            storeData(storageEngine, fbs);
+            if (journal != null) {
+                fbs.removeListener(journal);
+                journal.truncate();
+                journal.close();
+                journal = null;
+                journalOwner = null;
+            }
+            return attachEngine(fbs);
+        }
+        return fbs;
+    }
+
+    private static FlightBookingSystem attachEngine(FlightBookingSystem fbs) {
+        for (EntitySet set : EntitySet.values()) {
+            fbs.markClean(set);
+        }
+        fbs.addListener(storageEngine);
+        engineOwner = fbs;
         return fbs;
     }
 
     /**
-     * Stores all system data to persistent storage using registered data managers.
-     * Data is stored in the order specified by the dataManagers list.
+     * Persists the flight booking system. When the system is backed by the
+     * journal its changes have already been recorded (and are written behind
+     * within the configured window), so this only compacts once the journal
+     * grows past the threshold (or an append failed). A storage engine has
+     * already persisted every change, unless one failed, in which case it is
+     * rewritten in full. Otherwise all data is rewritten using the registered
+     * data managers. The time taken is recorded in the {@code data.store}
+     * metric.
      *
      * @param fbs the flight booking system containing the data to be stored
      * @throws Exception if there is an error during data storage from any manager
      */
     public static void store(FlightBookingSystem fbs) throws Exception {
-        for (DataManager dm : dataManagers) {
-            dm.storeData(fbs);
+        Metrics.time("data.store", () -> storeSystem(fbs));
+    }
+
+    private static void storeSystem(FlightBookingSystem fbs) throws Exception {
+        if (storageEngine != null && engineOwner == fbs) {
+            if (storageEngine.hasFailed()) {
+                synchronized (COMPACTION_LOCK) {
+                    storeData(storageEngine, fbs);
+                }
+            }
+            return;
+        }
+        if (journal != null && journalOwner == fbs
+                && !journal.hasFailed() && journal.getRecordCount() < COMPACTION_THRESHOLD) {
+            return;
         }
+        compact(fbs);
+    }
+
+    /**
+     * Blocks until every change recorded by the journal has been synced to
+     * disk. Call before exiting or wherever a change must be known to be
+     * durable; does nothing when no journal is attached.
+     *
+     * @throws IOException if a queued journal record could not be written
+     */
+    public static void flush() throws IOException {
+        JournalManager current = journal;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    /**
+     * Rewrites the data files whose entity sets have changed since they were
+     * last stored (or the binary snapshot in binary mode, if anything changed),
+     * then discards the journal records that are now reflected in the snapshot.
+     * Mutations may continue while the files are written: the changed sets and
+     * the journal position are captured first, and each file is written from a
+     * copy of its records taken under the system's lock, so a change made
+     * meanwhile keeps its set dirty and its journal record for the next
+     * compaction. Compactions are serialised, so concurrent stores never
+     * interleave their marks and truncations.
+     * In tiered mode historical records are first moved to the history archive.
+     * The position of the ID sequences is stored with the data files.
+     * Each file is written to a temporary file and atomically renamed into
+     * place by {@link AtomicFileWriter}, so a crash never leaves a partial file.
+     *
+     * @param fbs the flight booking system containing the data to be stored
+     * @throws Exception if there is an error during data storage from any manager
+     */
+    public static void compact(FlightBookingSystem fbs) throws Exception {
+        synchronized (COMPACTION_LOCK) {
+            compactSystem(fbs);
+        }
+    }
+
+    private static void compactSystem(FlightBookingSystem fbs) throws Exception {
+        if (storageEngine != null && engineOwner == fbs) {
+            storageEngine.compact();
+            storeData(idSequenceManager, fbs);
+            return;
+        }
+        if (isTiered()) {
+            // archive first: cancelled bookings only survive compaction in the archive
+            historyArchive.archive(fbs);
+        }
+        boolean journaled = journal != null && journalOwner == fbs;
+        if (journaled) {
+            // records appended from here on may not be reflected in the files written below
+            journal.mark();
+        }
+        // changes made while the files are written mark their sets dirty again
+        Set<EntitySet> dirty = fbs.takeDirty();
+        try {
+            if (binarySnapshotEnabled) {
+                if (!dirty.isEmpty() || !binarySnapshotManager.exists()) {
+                    storeData(binarySnapshotManager, fbs);
+                }
+            } else {
+                for (Map.Entry<EntitySet, DataManager> entry : managersBySet.entrySet()) {
+                    if (dirty.contains(entry.getKey())) {
+                        storeData(entry.getValue(), fbs);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            fbs.markAllDirty();
+            throw e;
+        }
+        storeData(idSequenceManager, fbs);
+        if (journaled) {
+            journal.truncateToMark();
+        }
+    }
+
+    /**
+     * Loads one data manager, recording the time taken in the metric
+     * {@code data.<manager class>.load}.
+     */
+    private static void loadData(DataManager manager, FlightBookingSystem fbs) throws Exception {
+        Metrics.time("data." + manager.getClass().getSimpleName() + ".load", () -> manager.loadData(fbs));
+    }
+
+    /**
+     * Stores one data manager, recording the time taken in the metric
+     * {@code data.<manager class>.store}.
+     */
+    private static void storeData(DataManager manager, FlightBookingSystem fbs) throws Exception {
+        Metrics.time("data." + manager.getClass().getSimpleName() + ".store", () -> manager.storeData(fbs));
     }
 }
\ No newline at end of file
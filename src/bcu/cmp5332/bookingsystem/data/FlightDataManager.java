@@ -4,11 +4,11 @@ import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDate;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Data manager implementation that handles the persistence of flight data.
@@ -26,6 +26,7 @@ public class FlightDataManager implements DataManager {
     
     /**
      * Loads flight data from the text file into the flight booking system.
+     * The file is read in large chunks and parsed in place by {@link ChunkedRecordReader}.
      * Each line in the file represents a flight with fields separated by the SEPARATOR.
      * The expected format is: id::flightNumber::origin::destination::departureDate::basePrice::capacity::isDeleted
      *
@@ -41,36 +42,44 @@ public class FlightDataManager implements DataManager {
      */
     @Override
     public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        for (Flight flight : parse()) {
+            fbs.addFlight(flight);
+        }
+    }
+
+    /**
+     * Parses the flight file without touching the flight booking system, so it
+     * can run concurrently with the other parsers.
+     *
+     * @return the flights in file order
+     * @throws IOException if there is an error reading the file
+     * @throws FlightBookingSystemException if there is an error parsing the flight data
+     */
+    List<Flight> parse() throws IOException, FlightBookingSystemException {
+        List<Flight> flights = new ArrayList<>();
         File file = new File(RESOURCE);
-        if (!file.exists()) return;
-        try (Scanner sc = new Scanner(file)) {
-            int line_idx = 1;
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if(line.isEmpty()){
-                    line_idx++;
-                    continue;
-                }
-                String[] properties = line.split(SEPARATOR, -1);
+        if (!file.exists()) return flights;
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(file.toPath())) {
+            while (reader.nextRecord()) {
                 try {
-                    int id = Integer.parseInt(properties[0]);
-                    String flightNumber = properties[1];
-                    String origin = properties[2];
-                    String destination = properties[3];
-                    LocalDate departureDate = LocalDate.parse(properties[4]);
-                    double basePrice = properties.length > 5 && !properties[5].isEmpty() ? Double.parseDouble(properties[5]) : 100.0;
-                    int capacity = properties.length > 6 && !properties[6].isEmpty() ? Integer.parseInt(properties[6]) : 150;
-                    boolean isDeleted = properties.length > 7 && !properties[7].isEmpty() ? Boolean.parseBoolean(properties[7]) : false;
+                    int id = reader.getInt(0);
+                    String flightNumber = reader.getString(1);
+                    String origin = reader.getString(2);
+                    String destination = reader.getString(3);
+                    LocalDate departureDate = reader.getDate(4);
+                    double basePrice = reader.fieldCount() > 5 && !reader.isEmpty(5) ? reader.getDouble(5) : 100.0;
+                    int capacity = reader.fieldCount() > 6 && !reader.isEmpty(6) ? reader.getInt(6) : 150;
+                    boolean isDeleted = reader.fieldCount() > 7 && reader.getBoolean(7);
                     
                     Flight flight = new Flight(id, flightNumber, origin, destination, departureDate, basePrice, capacity);
                     flight.setDeleted(isDeleted);
-                    fbs.addFlight(flight);
+                    flights.add(flight);
                 } catch (NumberFormatException ex) {
-                    throw new FlightBookingSystemException("Unable to parse flight data on line " + line_idx + "\nError: " + ex);
+                    throw new FlightBookingSystemException("Unable to parse flight data on line " + reader.getLineNumber() + "\nError: " + ex);
                 }
-                line_idx++;
             }
         }
+        return flights;
     }
     
     /**
@@ -78,7 +87,8 @@ public class FlightDataManager implements DataManager {
      * Each flight is written as a single line with fields separated by the SEPARATOR.
      * The format is: id::flightNumber::origin::destination::departureDate::basePrice::capacity::isDeleted
      *
-     * All flights in the system are stored, including both active and soft-deleted flights.
+     * All flights held in memory are stored, including both active and soft-deleted flights
+     * (flights moved to the history archive in tiered mode are not).
      * The isDeleted flag is used to track soft-deleted flights instead of removing them
      * from the file completely.
      *
@@ -87,8 +97,9 @@ public class FlightDataManager implements DataManager {
      */
     @Override
     public void storeData(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(RESOURCE))) {
-            for (Flight flight : fbs.getAllFlights()) {
+        try (AtomicFileWriter file = new AtomicFileWriter(RESOURCE)) {
+            PrintWriter out = file.writer();
+            for (Flight flight : fbs.snapshot(false).getFlights()) {
                 out.print(flight.getId() + SEPARATOR);
                 out.print(flight.getFlightNumber() + SEPARATOR);
                 out.print(flight.getOrigin() + SEPARATOR);
@@ -99,6 +110,7 @@ public class FlightDataManager implements DataManager {
                 out.print(flight.isDeleted() + SEPARATOR);
                 out.println();
             }
+            file.commit();
         }
     }
 }
\ No newline at end of file
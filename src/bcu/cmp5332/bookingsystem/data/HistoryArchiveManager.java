@@ -0,0 +1,524 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.log.Logger;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.HistoryArchive;
+import bcu.cmp5332.bookingsystem.model.SystemSnapshot;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Indexed on-disk segment holding the historical tier of the flight booking
+ * system: flights that have departed or been deleted and have no active
+ * bookings, and cancelled bookings. {@link #archive(FlightBookingSystem)}
+ * moves such records out of memory; {@link FlightBookingSystem} pages them
+ * back in through the {@link HistoryArchive} interface when they are needed.
+ *
+ * The segment is two append-only files:
+ * <pre>
+ * history.dat  records: 'F' id, flightNumber, origin, destination, departure
+ *              epoch day, base price, capacity, deleted
+ *              or 'B' id, customer id, flight id, booking epoch day, fee,
+ *              payment processed
+ * history.idx  fixed 14-byte entries: type, id, offset in history.dat, flags
+ * </pre>
+ * Only the index is kept in memory, as sorted primitive arrays. A record that
+ * changes after it was archived (a departed flight deleted later, a cancelled
+ * booking paid later) is appended again and the newest entry wins.
+ *
+ * The index is never changed in place: archiving builds a new one and
+ * replaces the old in a single step, so lookups made while records are being
+ * archived see either the old index or the new one, never part of each.
+ */
+public class HistoryArchiveManager implements HistoryArchive {
+
+    private static final Logger LOG = Logger.getLogger(HistoryArchiveManager.class);
+
+    /** The file path where archived records are stored */
+    private static final String RESOURCE = "./resources/data/history.dat";
+
+    private static final byte FLIGHT = 'F';
+    private static final byte BOOKING = 'B';
+    private static final int INDEX_ENTRY_SIZE = 14;
+
+    private static final int FLAG_DELETED = 1;
+    private static final int FLAG_PAYMENT_PROCESSED = 2;
+
+    private final File dataFile;
+    private final File indexFile;
+
+    /** The index, loaded on first use and replaced as a whole by {@link #archive(FlightBookingSystem)} */
+    private volatile State state;
+
+    /** Serialises calls to {@link #archive(FlightBookingSystem)}; lookups never take it */
+    private final Object archiveLock = new Object();
+
+    /**
+     * Creates an archive backed by the default files.
+     */
+    public HistoryArchiveManager() {
+        this(RESOURCE);
+    }
+
+    /**
+     * Creates an archive backed by the given data file; the index is stored
+     * next to it with the extension ".idx".
+     *
+     * @param resource path of the data file
+     */
+    public HistoryArchiveManager(String resource) {
+        this.dataFile = new File(resource);
+        this.indexFile = new File(resource.replaceFirst("\\.dat$", "") + ".idx");
+    }
+
+    /**
+     * Moves every historical record held in memory by the flight booking
+     * system into the archive and evicts it from memory. Records are synced
+     * to disk before they are evicted; the caller must then store the
+     * flights file so the evicted flights are dropped from it.
+     *
+     * @param fbs the flight booking system to archive from
+     * @return the number of records evicted
+     * @throws IOException if the archive cannot be written
+     */
+    public int archive(FlightBookingSystem fbs) throws IOException {
+        synchronized (archiveLock) {
+            return archiveLocked(fbs);
+        }
+    }
+
+    private int archiveLocked(FlightBookingSystem fbs) throws IOException {
+        State current = loadIndex();
+        LocalDate today = fbs.getSystemDate();
+        // only what is already in memory, so the archive is not paged in
+        SystemSnapshot snapshot = fbs.snapshot(false);
+        Set<Integer> flightsWithBookings = new HashSet<>();
+        for (Booking booking : snapshot.getBookings()) {
+            flightsWithBookings.add(booking.getFlight().getId());
+        }
+
+        List<Flight> flights = new ArrayList<>();
+        for (Flight flight : snapshot.getFlights()) {
+            if ((flight.isDeleted() || flight.getDepartureDate().isBefore(today))
+                    && !flightsWithBookings.contains(flight.getId())) {
+                flights.add(flight);
+            }
+        }
+        List<Booking> bookings = snapshot.getCancelledBookings();
+        if (flights.isEmpty() && bookings.isEmpty()) {
+            return 0;
+        }
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream idx = new DataOutputStream(entries);
+        long offset = dataFile.length();
+        Entries newFlights = new Entries();
+        Entries newBookings = new Entries();
+        List<Flight> firstArchived = new ArrayList<>();
+        for (Flight flight : flights) {
+            int flags = flight.isDeleted() ? FLAG_DELETED : 0;
+            int archivedFlags = current.flights.flags(flight.getId());
+            if (archivedFlags == flags) {
+                continue; // archived copy is current
+            }
+            if (archivedFlags < 0) {
+                firstArchived.add(flight);
+            }
+            long start = offset + out.size();
+            out.writeByte(FLIGHT);
+            out.writeInt(flight.getId());
+            out.writeUTF(flight.getFlightNumber());
+            out.writeUTF(flight.getOrigin());
+            out.writeUTF(flight.getDestination());
+            out.writeInt((int) flight.getDepartureDate().toEpochDay());
+            out.writeDouble(flight.getBasePrice());
+            out.writeInt(flight.getCapacity());
+            out.writeBoolean(flight.isDeleted());
+            writeEntry(idx, FLIGHT, flight.getId(), start, flags);
+            newFlights.add(flight.getId(), start, flags);
+        }
+        for (Booking booking : bookings) {
+            int flags = booking.isPaymentProcessed() ? FLAG_PAYMENT_PROCESSED : 0;
+            if (current.bookings.flags(booking.getId()) == flags) {
+                continue;
+            }
+            long start = offset + out.size();
+            out.writeByte(BOOKING);
+            out.writeInt(booking.getId());
+            out.writeInt(booking.getCustomer().getId());
+            out.writeInt(booking.getFlight().getId());
+            out.writeInt((int) booking.getBookingDate().toEpochDay());
+            out.writeDouble(booking.getBookingFee());
+            out.writeBoolean(booking.isPaymentProcessed());
+            writeEntry(idx, BOOKING, booking.getId(), start, flags);
+            newBookings.add(booking.getId(), start, flags);
+        }
+
+        if (out.size() > 0) {
+            // records first, so that every index entry points at durable data
+            append(dataFile, records.toByteArray());
+            append(indexFile, entries.toByteArray());
+            Index flightIndex = current.flights.merge(newFlights);
+            Index bookingIndex = current.bookings.merge(newBookings);
+            synchronized (this) {
+                // flight keys may have been built by a lookup since current was read
+                long[] keys = state.flightKeys;
+                if (keys != null && !firstArchived.isEmpty()) {
+                    int length = keys.length;
+                    keys = Arrays.copyOf(keys, length + firstArchived.size());
+                    for (int i = 0; i < firstArchived.size(); i++) {
+                        keys[length + i] = flightKey(firstArchived.get(i));
+                    }
+                    Arrays.sort(keys);
+                }
+                state = new State(flightIndex, bookingIndex, keys);
+            }
+        }
+        for (Flight flight : flights) {
+            fbs.evictFlight(flight.getId());
+        }
+        for (Booking booking : bookings) {
+            fbs.evictCancelledBooking(booking.getId());
+        }
+        return flights.size() + bookings.size();
+    }
+
+    private static void writeEntry(DataOutputStream idx, byte type, int id, long offset, int flags)
+            throws IOException {
+        idx.writeByte(type);
+        idx.writeInt(id);
+        idx.writeLong(offset);
+        idx.writeByte(flags);
+    }
+
+    private static void append(File file, byte[] bytes) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(bytes);
+            out.getFD().sync();
+        }
+    }
+
+    @Override
+    public Flight readFlight(int id) throws IOException {
+        long offset = loadIndex().flights.offset(id);
+        if (offset < 0) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            raf.seek(offset);
+            return readFlight(raf);
+        }
+    }
+
+    @Override
+    public List<Flight> readFlights() throws IOException {
+        return readFlights(loadIndex().flights);
+    }
+
+    private List<Flight> readFlights(Index flightIndex) throws IOException {
+        List<Flight> flights = new ArrayList<>(flightIndex.size);
+        if (flightIndex.size == 0) {
+            return flights;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            for (int i = 0; i < flightIndex.size; i++) {
+                raf.seek(flightIndex.offsets[i]);
+                flights.add(readFlight(raf));
+            }
+        }
+        return flights;
+    }
+
+    @Override
+    public int findFlightId(String flightNumber, LocalDate departureDate) throws IOException {
+        State current = loadIndex();
+        long[] flightKeys = current.flightKeys;
+        if (flightKeys == null) {
+            List<Flight> flights = readFlights(current.flights);
+            flightKeys = new long[flights.size()];
+            for (int i = 0; i < flightKeys.length; i++) {
+                flightKeys[i] = flightKey(flights.get(i));
+            }
+            Arrays.sort(flightKeys);
+            synchronized (this) {
+                if (state == current) {
+                    state = new State(current.flights, current.bookings, flightKeys);
+                }
+            }
+        }
+        long hash = (long) Objects.hash(flightNumber, departureDate) << 32;
+        int i = Arrays.binarySearch(flightKeys, hash);
+        // IDs are positive, so a miss lands on the first key with the same hash
+        for (i = i < 0 ? -i - 1 : i; i < flightKeys.length && (flightKeys[i] & 0xFFFFFFFF00000000L) == hash; i++) {
+            Flight flight = readFlight((int) flightKeys[i]);
+            if (flight != null && flight.getFlightNumber().equals(flightNumber)
+                    && flight.getDepartureDate().equals(departureDate)) {
+                return flight.getId();
+            }
+        }
+        return 0;
+    }
+
+    private static long flightKey(Flight flight) {
+        return (long) Objects.hash(flight.getFlightNumber(), flight.getDepartureDate()) << 32
+                | (flight.getId() & 0xFFFFFFFFL);
+    }
+
+    private static Flight readFlight(RandomAccessFile raf) throws IOException {
+        if (raf.readByte() != FLIGHT) {
+            throw new IOException("History index points at a record that is not a flight");
+        }
+        Flight flight = new Flight(raf.readInt(), raf.readUTF(), raf.readUTF(), raf.readUTF(),
+                LocalDate.ofEpochDay(raf.readInt()), raf.readDouble(), raf.readInt());
+        flight.setDeleted(raf.readBoolean());
+        return flight;
+    }
+
+    @Override
+    public Booking readCancelledBooking(int id, FlightBookingSystem fbs)
+            throws IOException, FlightBookingSystemException {
+        long offset = loadIndex().bookings.offset(id);
+        if (offset < 0) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            raf.seek(offset);
+            return readBooking(raf, fbs);
+        }
+    }
+
+    @Override
+    public List<Booking> readCancelledBookings(FlightBookingSystem fbs)
+            throws IOException, FlightBookingSystemException {
+        Index bookingIndex = loadIndex().bookings;
+        List<Booking> bookings = new ArrayList<>(bookingIndex.size);
+        if (bookingIndex.size == 0) {
+            return bookings;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            for (int i = 0; i < bookingIndex.size; i++) {
+                raf.seek(bookingIndex.offsets[i]);
+                bookings.add(readBooking(raf, fbs));
+            }
+        }
+        return bookings;
+    }
+
+    private static Booking readBooking(RandomAccessFile raf, FlightBookingSystem fbs)
+            throws IOException, FlightBookingSystemException {
+        if (raf.readByte() != BOOKING) {
+            throw new IOException("History index points at a record that is not a booking");
+        }
+        int id = raf.readInt();
+        Customer customer = fbs.findCustomer(raf.readInt());
+        Flight flight = fbs.findFlight(raf.readInt());
+        if (customer == null || flight == null) {
+            throw new FlightBookingSystemException("Booking #" + id + " references a missing customer or flight.");
+        }
+        Booking booking = new Booking(id, customer, flight, LocalDate.ofEpochDay(raf.readInt()), raf.readDouble());
+        booking.setPaymentProcessed(raf.readBoolean());
+        booking.setCancelled(true);
+        return booking;
+    }
+
+    @Override
+    public int getMaxFlightId() {
+        return maxId(true);
+    }
+
+    @Override
+    public int getMaxBookingId() {
+        return maxId(false);
+    }
+
+    private int maxId(boolean flights) {
+        State current;
+        try {
+            current = loadIndex();
+        } catch (IOException e) {
+            LOG.warn(() -> "Could not read history index: " + e.getMessage());
+            return 0;
+        }
+        Index index = flights ? current.flights : current.bookings;
+        return index.size == 0 ? 0 : index.ids[index.size - 1];
+    }
+
+    /**
+     * Reads the index file on first use. Entries that point past the end of
+     * the data file, or are incomplete, were torn by a crash and are ignored.
+     *
+     * @return the current index
+     */
+    private State loadIndex() throws IOException {
+        State current = state;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (state == null) {
+                state = readIndex();
+            }
+            return state;
+        }
+    }
+
+    private State readIndex() throws IOException {
+        Entries flights = new Entries();
+        Entries bookings = new Entries();
+        if (indexFile.exists()) {
+            long dataLength = dataFile.length();
+            byte[] bytes = Files.readAllBytes(indexFile.toPath());
+            int entries = bytes.length / INDEX_ENTRY_SIZE;
+            if (bytes.length % INDEX_ENTRY_SIZE != 0) {
+                // drop a torn final entry so later appends stay aligned
+                try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+                    raf.setLength((long) entries * INDEX_ENTRY_SIZE);
+                }
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                for (int i = 0; i < entries; i++) {
+                    byte type = in.readByte();
+                    int id = in.readInt();
+                    long offset = in.readLong();
+                    int flags = in.readByte();
+                    if (offset >= dataLength) {
+                        continue;
+                    }
+                    (type == FLIGHT ? flights : bookings).add(id, offset, flags);
+                }
+            }
+        }
+        return new State(flights.sort(), bookings.sort(), null);
+    }
+
+    /** The index of the archive at one point in time */
+    private static final class State {
+        private final Index flights;
+        private final Index bookings;
+
+        /**
+         * Hash of each archived flight's number and departure date in the high
+         * half and its ID in the low half, sorted; built on the first lookup by
+         * number and date
+         */
+        private final long[] flightKeys;
+
+        private State(Index flights, Index bookings, long[] flightKeys) {
+            this.flights = flights;
+            this.bookings = bookings;
+            this.flightKeys = flightKeys;
+        }
+    }
+
+    /** Index entries in the order they were read or written, not yet sorted */
+    private static class Entries {
+        private int[] ids = new int[16];
+        private long[] offsets = new long[16];
+        private byte[] flags = new byte[16];
+        private int size;
+
+        private void add(int id, long offset, int flag) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                flags = Arrays.copyOf(flags, size * 2);
+            }
+            ids[size] = id;
+            offsets[size] = offset;
+            flags[size] = (byte) flag;
+            size++;
+        }
+
+        /**
+         * Sorts the entries by ID; for duplicate IDs the entry added last (the
+         * newest) is kept.
+         *
+         * @return the sorted index
+         */
+        private Index sort() {
+            // ID in the high half and position in the low half, so equal IDs keep their order
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) ids[i] << 32 | i;
+            }
+            Arrays.sort(order);
+            int[] sortedIds = new int[size];
+            long[] sortedOffsets = new long[size];
+            byte[] sortedFlags = new byte[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                int j = (int) order[i];
+                if (n > 0 && sortedIds[n - 1] == ids[j]) {
+                    n--;
+                }
+                sortedIds[n] = ids[j];
+                sortedOffsets[n] = offsets[j];
+                sortedFlags[n] = flags[j];
+                n++;
+            }
+            return new Index(sortedIds, sortedOffsets, sortedFlags, n);
+        }
+    }
+
+    /** Sorted map from record ID to offset and flags, held in primitive arrays; never changed once built */
+    private static final class Index {
+        private final int[] ids;
+        private final long[] offsets;
+        private final byte[] flags;
+        private final int size;
+
+        private Index(int[] ids, long[] offsets, byte[] flags, int size) {
+            this.ids = ids;
+            this.offsets = offsets;
+            this.flags = flags;
+            this.size = size;
+        }
+
+        /**
+         * @param newer entries added after this index was built
+         * @return a new index holding this one's entries and the newer ones,
+         *         which win over older entries for the same ID
+         */
+        private Index merge(Entries newer) {
+            Entries merged = new Entries();
+            for (int i = 0; i < size; i++) {
+                merged.add(ids[i], offsets[i], flags[i]);
+            }
+            for (int i = 0; i < newer.size; i++) {
+                merged.add(newer.ids[i], newer.offsets[i], newer.flags[i]);
+            }
+            return merged.sort();
+        }
+
+        private long offset(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            return i < 0 ? -1 : offsets[i];
+        }
+
+        /** @return the flags of the entry, or -1 if the ID is not archived */
+        private int flags(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            return i < 0 ? -1 : flags[i];
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.EntitySet;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+class HistoryArchiveManagerTest {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private Path dir;
+    private String resource;
+    private FlightBookingSystem fbs;
+    private Booking cancelled;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("history");
+        resource = dir.resolve("history.dat").toString();
+        fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", TODAY.plusDays(30), 100.0, 10));
+        fbs.addFlight(new Flight(2, "FL2", "LHR", "CDG", TODAY.minusDays(30), 80.0, 10));
+        Flight deleted = new Flight(3, "FL3", "LHR", "AMS", TODAY.plusDays(10), 60.0, 10);
+        deleted.setDeleted(true);
+        fbs.addFlight(deleted);
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        fbs.addBooking(1, 1, TODAY);
+        cancelled = fbs.addBooking(1, 2, TODAY.minusDays(40));
+        cancelled.setPaymentProcessed(true);
+        fbs.cancelBooking(cancelled.getId(), 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (File file : dir.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.delete(dir);
+    }
+
+    /** @return a system loaded with the records left in memory by {@link #fbs}, on the same archive */
+    private FlightBookingSystem reload() throws FlightBookingSystemException {
+        FlightBookingSystem reloaded = new FlightBookingSystem();
+        for (Flight flight : fbs.getLoadedFlights()) {
+            reloaded.addFlight(new Flight(flight.getId(), flight.getFlightNumber(), flight.getOrigin(),
+                    flight.getDestination(), flight.getDepartureDate(), flight.getBasePrice(), flight.getCapacity()));
+        }
+        reloaded.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        reloaded.setHistoryArchive(new HistoryArchiveManager(resource));
+        return reloaded;
+    }
+
+    @Test
+    void testArchiveEvictsHistoricalRecordsOnly() throws Exception {
+        HistoryArchiveManager archive = new HistoryArchiveManager(resource);
+        fbs.setHistoryArchive(archive);
+
+        assertEquals(3, archive.archive(fbs));
+        assertEquals(1, fbs.getLoadedFlights().size());
+        assertTrue(fbs.getLoadedCancelledBookings().isEmpty());
+        assertEquals(1, fbs.getBookings().size());
+        assertEquals(0, archive.archive(fbs));
+        assertEquals(3, archive.getMaxFlightId());
+        assertEquals(cancelled.getId(), archive.getMaxBookingId());
+    }
+
+    @Test
+    void testReloadPagesRecordsBackIn() throws Exception {
+        new HistoryArchiveManager(resource).archive(fbs);
+        FlightBookingSystem reloaded = reload();
+
+        Flight departed = reloaded.findFlight(2);
+        assertEquals("FL2", departed.getFlightNumber());
+        assertEquals(TODAY.minusDays(30), departed.getDepartureDate());
+        assertTrue(reloaded.findFlight(3).isDeleted());
+        Booking booking = reloaded.getBookingByID(cancelled.getId());
+        assertTrue(booking.isCancelled());
+        assertTrue(booking.isPaymentProcessed());
+        assertSame(departed, booking.getFlight());
+        assertEquals(3, reloaded.getAllFlights().size());
+        assertEquals(1, reloaded.getCancelledBookings().size());
+        assertEquals(3, reloaded.getIdSequence(EntitySet.FLIGHTS).getLast());
+    }
+
+    @Test
+    void testArchivedFlightNumberAndDateStayTaken() throws Exception {
+        new HistoryArchiveManager(resource).archive(fbs);
+        FlightBookingSystem reloaded = reload();
+
+        assertThrows(FlightBookingSystemException.class, () -> reloaded.addFlight(
+                new Flight(4, "FL2", "LHR", "CDG", TODAY.minusDays(30), 80.0, 10)));
+        reloaded.addFlight(new Flight(4, "FL2", "LHR", "CDG", TODAY.minusDays(29), 80.0, 10));
+        assertEquals(2, reloaded.getLoadedFlights().size());
+    }
+
+    @Test
+    void testNewestEntryWinsAndTornIndexEntryIgnored() throws Exception {
+        HistoryArchiveManager archive = new HistoryArchiveManager(resource);
+        archive.archive(fbs);
+        FlightBookingSystem reloaded = reload();
+        reloaded.findFlight(2).setDeleted(true);
+        HistoryArchiveManager second = new HistoryArchiveManager(resource);
+        reloaded.setHistoryArchive(second);
+        assertEquals(1, second.archive(reloaded));
+        try (RandomAccessFile idx = new RandomAccessFile(dir.resolve("history.idx").toFile(), "rw")) {
+            idx.seek(idx.length());
+            idx.write(new byte[] { 'F', 0, 0, 0 });
+        }
+
+        HistoryArchiveManager reopened = new HistoryArchiveManager(resource);
+        assertTrue(reopened.readFlight(2).isDeleted());
+        assertEquals(2, reopened.readFlights().size());
+        assertEquals(2, reopened.findFlightId("FL2", TODAY.minusDays(30)));
+        assertEquals(0, reopened.findFlightId("FL2", TODAY.minusDays(31)));
+        assertNull(reopened.readFlight(1));
+    }
+
+    @Test
+    void testLookupsDuringArchivingSeeWholeIndex() throws Exception {
+        HistoryArchiveManager archive = new HistoryArchiveManager(resource);
+        fbs.setHistoryArchive(archive);
+        archive.archive(fbs);
+        assertEquals(2, archive.findFlightId("FL2", TODAY.minusDays(30)));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            try {
+                int seen = 0;
+                while (!done.get()) {
+                    int size = archive.readFlights().size();
+                    assertTrue(size >= seen, "index shrank from " + seen + " to " + size);
+                    seen = size;
+                    assertEquals("FL2", archive.readFlight(2).getFlightNumber());
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        for (int id = 10; id < 60; id++) {
+            fbs.addFlight(new Flight(id, "FL" + id, "LHR", "DUB", TODAY.minusDays(id), 50.0, 10));
+            assertEquals(1, archive.archive(fbs));
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(52, archive.readFlights().size());
+        assertEquals(59, archive.getMaxFlightId());
+        assertEquals(59, archive.findFlightId("FL59", TODAY.minusDays(59)));
+        assertEquals(59, new HistoryArchiveManager(resource).findFlightId("FL59", TODAY.minusDays(59)));
+    }
+}
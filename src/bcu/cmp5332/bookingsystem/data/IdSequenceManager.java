@@ -0,0 +1,116 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.model.EntitySet;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Data manager that persists the position of each ID sequence of the flight
+ * booking system, so an ID is never handed out again after a restart even if
+ * the record it was used for no longer exists.
+ *
+ * Each sequence is stored as a line with the last ID handed out:
+ * entitySet::lastId
+ *
+ * On load a sequence is only ever moved forward, so the records loaded from
+ * the other data files (and the journal replayed on top of them) keep it past
+ * every ID in use even when this file is behind them.
+ */
+public class IdSequenceManager implements DataManager {
+
+    /** The file path where the sequence positions are stored */
+    private static final String RESOURCE = "./resources/data/sequences.txt";
+
+    /** The entity sets that have an ID sequence */
+    private static final EntitySet[] SEQUENCES = { EntitySet.FLIGHTS, EntitySet.CUSTOMERS, EntitySet.BOOKINGS };
+
+    /** Positions last read from or written to the file, to skip rewriting it unchanged */
+    private final Map<EntitySet, Integer> stored = new EnumMap<>(EntitySet.class);
+
+    private final String resource;
+
+    /**
+     * Creates a manager backed by the default sequences file.
+     */
+    public IdSequenceManager() {
+        this(RESOURCE);
+    }
+
+    /**
+     * Creates a manager backed by the given sequences file.
+     *
+     * @param resource path of the sequences file
+     */
+    public IdSequenceManager(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * Advances the system's ID sequences to the stored positions. A missing
+     * file leaves them where they are; malformed lines are skipped with a
+     * warning.
+     *
+     * @param fbs the flight booking system whose sequences to advance
+     * @throws IOException if the file cannot be read
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs) throws IOException {
+        stored.clear();
+        Path path = Paths.get(resource);
+        if (!Files.exists(path)) {
+            return;
+        }
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(SEPARATOR, -1);
+            try {
+                EntitySet set = EntitySet.valueOf(parts[0]);
+                int last = Integer.parseInt(parts[1]);
+                fbs.getIdSequence(set).advanceTo(last);
+                stored.put(set, last);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+                System.err.println("Warning: Skipping ID sequence at line " + lineNumber + ": " + line);
+            }
+        }
+    }
+
+    /**
+     * Writes the current sequence positions, unless none has moved since the
+     * file was last read or written.
+     *
+     * @param fbs the flight booking system whose sequences to store
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        Map<EntitySet, Integer> current = new EnumMap<>(EntitySet.class);
+        for (EntitySet set : SEQUENCES) {
+            current.put(set, fbs.getIdSequence(set).getLast());
+        }
+        if (current.equals(stored)) {
+            return;
+        }
+        try (AtomicFileWriter file = new AtomicFileWriter(resource)) {
+            PrintWriter out = file.writer();
+            for (Map.Entry<EntitySet, Integer> entry : current.entrySet()) {
+                out.print(entry.getKey() + SEPARATOR);
+                out.print(entry.getValue() + SEPARATOR);
+                out.println();
+            }
+            file.commit();
+        }
+        stored.clear();
+        stored.putAll(current);
+    }
+}
@@ -0,0 +1,88 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.model.EntitySet;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class IdSequenceManagerTest {
+    private Path sequencesFile;
+    private IdSequenceManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sequencesFile = Files.createTempFile("sequences", ".txt");
+        Files.delete(sequencesFile);
+        manager = new IdSequenceManager(sequencesFile.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(sequencesFile);
+    }
+
+    @Test
+    void testPositionsSurviveRestart() throws IOException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.getIdSequence(EntitySet.FLIGHTS).advanceTo(12);
+        fbs.getIdSequence(EntitySet.BOOKINGS).advanceTo(40);
+        manager.storeData(fbs);
+
+        FlightBookingSystem restarted = new FlightBookingSystem();
+        new IdSequenceManager(sequencesFile.toString()).loadData(restarted);
+
+        assertEquals(12, restarted.getIdSequence(EntitySet.FLIGHTS).getLast());
+        assertEquals(0, restarted.getIdSequence(EntitySet.CUSTOMERS).getLast());
+        assertEquals(41, restarted.getIdSequence(EntitySet.BOOKINGS).next());
+    }
+
+    @Test
+    void testLoadOnlyMovesSequencesForward() throws IOException {
+        Files.write(sequencesFile, List.of("FLIGHTS::5::", "BOOKINGS::9::"), StandardCharsets.UTF_8);
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.getIdSequence(EntitySet.FLIGHTS).advanceTo(20);
+
+        manager.loadData(fbs);
+
+        assertEquals(20, fbs.getIdSequence(EntitySet.FLIGHTS).getLast());
+        assertEquals(9, fbs.getIdSequence(EntitySet.BOOKINGS).getLast());
+    }
+
+    @Test
+    void testMissingFileAndMalformedLinesLeaveSequencesAlone() throws IOException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        manager.loadData(fbs);
+        assertEquals(0, fbs.getIdSequence(EntitySet.FLIGHTS).getLast());
+
+        Files.write(sequencesFile, List.of("PLANES::3::", "FLIGHTS::x::", "", "CUSTOMERS", "CUSTOMERS::7::"),
+                StandardCharsets.UTF_8);
+        manager.loadData(fbs);
+
+        assertEquals(0, fbs.getIdSequence(EntitySet.FLIGHTS).getLast());
+        assertEquals(7, fbs.getIdSequence(EntitySet.CUSTOMERS).getLast());
+    }
+
+    @Test
+    void testUnchangedPositionsNotRewritten() throws IOException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.getIdSequence(EntitySet.CUSTOMERS).advanceTo(3);
+        manager.storeData(fbs);
+        Files.delete(sequencesFile);
+
+        manager.storeData(fbs);
+        assertFalse(Files.exists(sequencesFile));
+
+        fbs.getIdSequence(EntitySet.CUSTOMERS).next();
+        manager.storeData(fbs);
+        manager.loadData(new FlightBookingSystem());
+        assertTrue(Files.readAllLines(sequencesFile, StandardCharsets.UTF_8).contains("CUSTOMERS::4::"));
+    }
+}
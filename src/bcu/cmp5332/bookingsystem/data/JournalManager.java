@@ -0,0 +1,459 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystemListener;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only write-ahead journal for the flight booking system.
+ * Each mutation made through {@link FlightBookingSystem} is written as a single
+ * line and synced to disk, so persisting one change costs the same regardless
+ * of how large the snapshot files are. By default every record is synced
+ * before the call returns; after {@link #startWriteBehind(long, int)} records
+ * are queued instead and written in batches by a {@link WriteBehindWriter},
+ * with {@link #flush()} blocking until everything queued is durable.
+ *
+ * Records use the same SEPARATOR as the snapshot files, prefixed with an
+ * operation name, for example:
+ * BOOKING_ADD::bookingId::customerId::flightId::bookingDate::bookingFee
+ *
+ * On startup the journal is replayed on top of the snapshot loaded by the
+ * other data managers. Compaction (rewriting the snapshot files and truncating
+ * the journal) is driven by {@link FlightBookingSystemData}.
+ */
+public class JournalManager implements FlightBookingSystemListener {
+
+    /** The file path where journal records are appended */
+    private static final String RESOURCE = "./resources/data/journal.txt";
+
+    private final String resource;
+
+    /** Open append stream, or null when the journal is closed */
+    private FileOutputStream out;
+
+    /** Number of records currently held in the journal file */
+    private volatile int recordCount;
+
+    /** Set when an append fails; the next store must fall back to a full rewrite */
+    private volatile boolean failed;
+
+    /** Background writer batching appends, or null to sync every record inline */
+    private WriteBehindWriter writeBehind;
+
+    /** Number of records handed to the write-behind writer that it has not written yet */
+    private int queued;
+
+    /** Records appended since {@link #mark()}, or null when no mark is set */
+    private List<String> sinceMark;
+
+    /**
+     * Creates a journal backed by the default journal file.
+     */
+    public JournalManager() {
+        this(RESOURCE);
+    }
+
+    /**
+     * Creates a journal backed by the given file.
+     *
+     * @param resource path of the journal file
+     */
+    public JournalManager(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * Re-applies every record in the journal file to the flight booking system.
+     * Records whose effect is already in the system are skipped, so the
+     * journal can be replayed over a snapshot written after it (for example
+     * when a crash came between storing the snapshot and truncating the
+     * journal). Records that cannot be applied (for example a torn final line
+     * after a crash) are reported and skipped.
+     *
+     * @param fbs the flight booking system to replay the journal into
+     * @return the number of records read from the journal
+     * @throws IOException if there is an error reading the file
+     */
+    public int replay(FlightBookingSystem fbs) throws IOException {
+        File file = new File(resource);
+        recordCount = 0;
+        if (!file.exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                recordCount++;
+                try {
+                    apply(fbs, line.split(DataManager.SEPARATOR, -1));
+                } catch (FlightBookingSystemException | RuntimeException e) {
+                    System.err.println("Warning: Could not replay journal record at line " + lineNumber + ": "
+                            + e.getMessage());
+                }
+            }
+        }
+        return recordCount;
+    }
+
+    private void apply(FlightBookingSystem fbs, String[] parts) throws FlightBookingSystemException {
+        switch (parts[0]) {
+            case "FLIGHT_ADD": {
+                if (fbs.findFlight(Integer.parseInt(parts[1])) != null) {
+                    return; // already present in the snapshot
+                }
+                Flight flight = new Flight(Integer.parseInt(parts[1]), parts[2], parts[3], parts[4],
+                        LocalDate.parse(parts[5]), Double.parseDouble(parts[6]), Integer.parseInt(parts[7]));
+                flight.setDeleted(Boolean.parseBoolean(parts[8]));
+                fbs.addFlight(flight);
+                break;
+            }
+            case "FLIGHT_REMOVE": {
+                Flight flight = fbs.findFlight(Integer.parseInt(parts[1]));
+                if (flight != null && flight.isDeleted()) {
+                    return;
+                }
+                fbs.removeFlight(Integer.parseInt(parts[1]));
+                break;
+            }
+            case "CUSTOMER_ADD": {
+                if (fbs.findCustomer(Integer.parseInt(parts[1])) != null) {
+                    return;
+                }
+                Customer customer = new Customer(Integer.parseInt(parts[1]), parts[2], parts[3], parts[4], parts[5]);
+                customer.setDeleted(Boolean.parseBoolean(parts[6]));
+                fbs.addCustomer(customer);
+                break;
+            }
+            case "CUSTOMER_UPDATE": {
+                int id = Integer.parseInt(parts[1]);
+                fbs.updateCustomer(id, parts[2], parts[3], parts[4], parts[5]);
+                break;
+            }
+            case "CUSTOMER_REMOVE": {
+                Customer customer = fbs.findCustomer(Integer.parseInt(parts[1]));
+                if (customer != null && customer.isDeleted()) {
+                    return;
+                }
+                fbs.removeCustomer(Integer.parseInt(parts[1]));
+                break;
+            }
+            case "BOOKING_ADD": {
+                // keep the recorded ID, both to recognise a booking already in the snapshot and
+                // because bookings made on several threads may be journalled out of ID order
+                if (fbs.getLoadedBooking(Integer.parseInt(parts[1])) != null) {
+                    return;
+                }
+                Customer customer = fbs.getCustomerByID(Integer.parseInt(parts[2]));
+                Flight flight = fbs.getFlightByID(Integer.parseInt(parts[3]));
+                fbs.addBookingFromData(new Booking(Integer.parseInt(parts[1]), customer, flight,
+                        LocalDate.parse(parts[4]), Double.parseDouble(parts[5])));
+                break;
+            }
+            case "BOOKING_CANCEL": {
+                int bookingId = Integer.parseInt(parts[1]);
+                if (fbs.getBookingByID(bookingId).isCancelled()) {
+                    return;
+                }
+                fbs.cancelBooking(bookingId, Double.parseDouble(parts[2]));
+                break;
+            }
+            case "PAYMENT_ADD": {
+                int bookingId = Integer.parseInt(parts[1]);
+                if (fbs.getPaymentForBooking(bookingId) != null) {
+                    return; // already present in the snapshot
+                }
+                PaymentDataManager.apply(fbs, new Payment(bookingId, Double.parseDouble(parts[2]), parts[3],
+                        parts[4], LocalDate.parse(parts[5])));
+                break;
+            }
+            default:
+                throw new FlightBookingSystemException("Unknown journal operation " + parts[0]);
+        }
+    }
+
+    /**
+     * Opens the journal for appending. If the last record was torn by a crash
+     * it is terminated so that new records start on a fresh line.
+     *
+     * @throws IOException if the journal file cannot be opened
+     */
+    public void open() throws IOException {
+        File file = new File(resource);
+        boolean needsNewline = false;
+        if (file.exists() && file.length() > 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(raf.length() - 1);
+                needsNewline = raf.read() != '\n';
+            }
+        }
+        out = new FileOutputStream(file, true);
+        failed = false;
+        if (needsNewline) {
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Switches the journal to write-behind mode: appends are queued and
+     * written in batches, each batch synced once. Must be called after
+     * {@link #open()}.
+     *
+     * @param windowMillis how long a record may wait before it is written
+     * @param maxBatch     number of queued records that triggers an immediate write
+     */
+    public void startWriteBehind(long windowMillis, int maxBatch) {
+        if (writeBehind == null) {
+            writeBehind = new WriteBehindWriter(this::writeBatch, windowMillis, maxBatch);
+        }
+    }
+
+    /**
+     * Blocks until every record appended so far has been synced to disk.
+     * Returns immediately when the journal is not in write-behind mode.
+     *
+     * @throws IOException if a queued record could not be written
+     */
+    public void flush() throws IOException {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Discards all journal records. Called once their effects have been
+     * written to the snapshot files; records still queued for writing are
+     * written first so that none of them land after the truncation.
+     *
+     * @throws IOException if the journal file cannot be truncated
+     */
+    public void truncate() throws IOException {
+        if (writeBehind != null) {
+            try {
+                writeBehind.flush();
+            } catch (IOException e) {
+                // the snapshot already holds the effect of every queued record
+            }
+        }
+        truncateFile();
+    }
+
+    private synchronized void truncateFile() throws IOException {
+        if (out != null) {
+            out.getChannel().truncate(0);
+            out.getFD().sync();
+        } else {
+            new FileOutputStream(resource).close();
+        }
+        recordCount = 0;
+        failed = false;
+        sinceMark = null;
+    }
+
+    /**
+     * Marks the point up to which {@link #truncateToMark()} discards records.
+     * Called by compaction before it captures the changes it writes, so that
+     * records appended while the snapshot files are being written survive the
+     * truncation. Setting a new mark replaces the previous one.
+     */
+    public synchronized void mark() {
+        sinceMark = new ArrayList<>();
+    }
+
+    /**
+     * Discards the journal records appended before {@link #mark()}, once their
+     * effects have been written to the snapshot files, and keeps the ones
+     * appended since. The kept records are rewritten from memory, so any whose
+     * append failed are restored; ones still queued for writing are left to
+     * the write-behind writer. Without a mark every record is discarded.
+     *
+     * @throws IOException if the journal file cannot be rewritten
+     */
+    public void truncateToMark() throws IOException {
+        if (writeBehind != null) {
+            try {
+                writeBehind.flush();
+            } catch (IOException e) {
+                // records before the mark are in the snapshot, later ones are rewritten below
+            }
+        }
+        rewriteSinceMark();
+    }
+
+    private synchronized void rewriteSinceMark() throws IOException {
+        List<String> kept = sinceMark == null ? new ArrayList<>() : sinceMark;
+        List<String> written = kept.subList(0, Math.max(0, kept.size() - queued));
+        if (written.isEmpty()) {
+            truncateFile();
+        } else {
+            boolean open = out != null;
+            if (open) {
+                out.close();
+                out = null;
+            }
+            try (AtomicFileWriter file = new AtomicFileWriter(resource)) {
+                PrintWriter writer = file.writer();
+                for (String record : written) {
+                    writer.print(record + System.lineSeparator());
+                }
+                file.commit();
+            } finally {
+                if (open) {
+                    out = new FileOutputStream(resource, true);
+                }
+            }
+            failed = false;
+            sinceMark = null;
+        }
+        recordCount = kept.size();
+    }
+
+    /**
+     * Writes any queued records and closes the journal file.
+     *
+     * @throws IOException if the file cannot be written or closed
+     */
+    public void close() throws IOException {
+        try {
+            if (writeBehind != null) {
+                writeBehind.close();
+                writeBehind = null;
+            }
+        } finally {
+            synchronized (this) {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+            }
+        }
+    }
+
+    /** @return the number of records currently held in the journal */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /** @return true if an append failed since the last truncate */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    private synchronized void append(String record) {
+        if (out == null) {
+            return;
+        }
+        if (sinceMark != null) {
+            sinceMark.add(record);
+        }
+        if (writeBehind != null) {
+            writeBehind.submit(record);
+            queued++;
+            recordCount++;
+            return;
+        }
+        try {
+            out.write((record + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+            recordCount++;
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Error writing journal record: " + e.getMessage());
+        }
+    }
+
+    /** Writes a batch queued by the write-behind writer with a single sync */
+    private synchronized void writeBatch(List<String> records) throws IOException {
+        queued -= records.size();
+        if (out == null) {
+            throw new IOException("Journal is closed");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            sb.append(record).append(System.lineSeparator());
+        }
+        try {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private static String join(Object... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                sb.append(DataManager.SEPARATOR);
+            }
+            sb.append(fields[i]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void flightAdded(Flight flight) {
+        append(join("FLIGHT_ADD", flight.getId(), flight.getFlightNumber(), flight.getOrigin(),
+                flight.getDestination(), flight.getDepartureDate(), flight.getBasePrice(), flight.getCapacity(),
+                flight.isDeleted()));
+    }
+
+    @Override
+    public void flightRemoved(Flight flight) {
+        append(join("FLIGHT_REMOVE", flight.getId()));
+    }
+
+    @Override
+    public void customerAdded(Customer customer) {
+        append(join("CUSTOMER_ADD", customer.getId(), customer.getName(), customer.getPhone(),
+                customer.getEmail(), customer.getPassword(), customer.isDeleted()));
+    }
+
+    @Override
+    public void customerUpdated(Customer customer) {
+        append(join("CUSTOMER_UPDATE", customer.getId(), customer.getName(), customer.getPhone(),
+                customer.getEmail(), customer.getPassword()));
+    }
+
+    @Override
+    public void customerRemoved(Customer customer) {
+        append(join("CUSTOMER_REMOVE", customer.getId()));
+    }
+
+    @Override
+    public void bookingAdded(Booking booking) {
+        append(join("BOOKING_ADD", booking.getId(), booking.getCustomer().getId(), booking.getFlight().getId(),
+                booking.getBookingDate(), booking.getBookingFee()));
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking, double cancellationFee) {
+        append(join("BOOKING_CANCEL", booking.getId(), cancellationFee));
+    }
+
+    @Override
+    public void paymentAdded(Payment payment) {
+        append(join("PAYMENT_ADD", payment.getBookingId(), payment.getAmount(), payment.getCardNumber(),
+                payment.getExpiryDate(), payment.getPaymentDate()));
+    }
+}
@@ -0,0 +1,211 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.EntitySet;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import bcu.cmp5332.bookingsystem.model.PaymentStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+class JournalManagerTest {
+    private static final LocalDate DEPARTURE = LocalDate.now().plusDays(30);
+
+    private Path journalFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journalFile = Files.createTempFile("journal", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(journalFile);
+    }
+
+    /** Journals two flights, two customers and three bookings, then cancels a booking and removes a flight */
+    private FlightBookingSystem journalMutations() throws FlightBookingSystemException, IOException {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        JournalManager journal = new JournalManager(journalFile.toString());
+        journal.open();
+        fbs.addListener(journal);
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", DEPARTURE, 100.0, 10));
+        fbs.addFlight(new Flight(2, "FL2", "LHR", "CDG", DEPARTURE, 80.0, 10));
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        fbs.addCustomer(new Customer(2, "Bob", "0456", "bob@example.com", "secret"));
+        fbs.addBooking(1, 1, LocalDate.now());
+        Booking cancelled = fbs.addBooking(1, 2, LocalDate.now());
+        fbs.addBooking(2, 1, LocalDate.now());
+        fbs.cancelBooking(cancelled.getId(), 10.0);
+        fbs.removeFlight(2);
+        journal.close();
+        return fbs;
+    }
+
+    private static String replayCapturingWarnings(JournalManager journal, FlightBookingSystem fbs) throws IOException {
+        ByteArrayOutputStream warnings = new ByteArrayOutputStream();
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(warnings, true));
+        try {
+            journal.replay(fbs);
+        } finally {
+            System.setErr(err);
+        }
+        return new String(warnings.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void assertSameState(FlightBookingSystem expected, FlightBookingSystem actual) {
+        assertEquals(expected.getAllFlights().size(), actual.getAllFlights().size());
+        assertEquals(expected.getFlights().size(), actual.getFlights().size());
+        assertEquals(expected.getAllCustomers().size(), actual.getAllCustomers().size());
+        assertEquals(expected.getBookings().size(), actual.getBookings().size());
+        assertEquals(expected.getCancelledBookings().size(), actual.getCancelledBookings().size());
+        for (Booking booking : expected.getBookings()) {
+            Booking replayed = actual.getLoadedBooking(booking.getId());
+            assertNotNull(replayed, "Booking #" + booking.getId() + " not replayed");
+            assertEquals(booking.getCustomer().getId(), replayed.getCustomer().getId());
+            assertEquals(booking.getFlight().getId(), replayed.getFlight().getId());
+        }
+        for (Flight flight : expected.getAllFlights()) {
+            assertEquals(flight.getPassengers().size(), actual.findFlight(flight.getId()).getPassengers().size());
+        }
+    }
+
+    @Test
+    void testReplayRestoresJournalledState() throws Exception {
+        FlightBookingSystem original = journalMutations();
+        JournalManager journal = new JournalManager(journalFile.toString());
+        FlightBookingSystem replayed = new FlightBookingSystem();
+
+        assertEquals("", replayCapturingWarnings(journal, replayed));
+        assertEquals(9, journal.getRecordCount());
+        assertSameState(original, replayed);
+        assertTrue(replayed.getBookingByID(2).isCancelled());
+    }
+
+    @Test
+    void testReplayOverSnapshotHoldingItsEffectsIsIdempotent() throws Exception {
+        FlightBookingSystem original = journalMutations();
+        JournalManager journal = new JournalManager(journalFile.toString());
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        journal.replay(fbs);
+
+        // as after a crash between storing the snapshot and truncating the journal
+        assertEquals("", replayCapturingWarnings(journal, fbs));
+        assertSameState(original, fbs);
+        assertEquals(3, fbs.getIdSequence(EntitySet.BOOKINGS).getLast());
+    }
+
+    @Test
+    void testReplayedPaymentMarksBookingPaid() throws Exception {
+        journalMutations();
+        JournalManager journal = new JournalManager(journalFile.toString());
+        journal.open();
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        journal.replay(fbs);
+        fbs.addListener(journal);
+        fbs.addPayment(new Payment(3, 100.0, "4111111111111111", "12/30", LocalDate.now()));
+        journal.close();
+
+        FlightBookingSystem replayed = new FlightBookingSystem();
+        new JournalManager(journalFile.toString()).replay(replayed);
+        Booking booking = replayed.getBookingByID(3);
+        assertEquals(PaymentStatus.PAID, booking.getPaymentStatus());
+        assertTrue(booking.isPaymentProcessed());
+        assertEquals(PaymentStatus.PENDING, replayed.getBookingByID(1).getPaymentStatus());
+    }
+
+    @Test
+    void testTruncateDiscardsRecords() throws Exception {
+        journalMutations();
+        JournalManager journal = new JournalManager(journalFile.toString());
+        journal.open();
+        journal.truncate();
+
+        assertEquals(0, journal.getRecordCount());
+        assertEquals(0, Files.size(journalFile));
+        journal.close();
+        assertEquals(0, journal.replay(new FlightBookingSystem()));
+    }
+
+    /** Appends mutations after a mark, truncates to it, and checks only those mutations are left to replay */
+    private void assertTruncateToMarkKeepsLaterRecords(boolean writeBehind) throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        JournalManager journal = new JournalManager(journalFile.toString());
+        journal.open();
+        if (writeBehind) {
+            journal.startWriteBehind(60_000, 1000);
+        }
+        fbs.addListener(journal);
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", DEPARTURE, 100.0, 10));
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        journal.mark();
+        // as if made while compaction was writing the snapshot files
+        fbs.addCustomer(new Customer(2, "Bob", "0456", "bob@example.com", "secret"));
+        Booking booking = fbs.addBooking(2, 1, LocalDate.now());
+        journal.truncateToMark();
+
+        assertEquals(2, journal.getRecordCount());
+        fbs.cancelBooking(booking.getId(), 0);
+        journal.close();
+
+        FlightBookingSystem snapshot = new FlightBookingSystem();
+        snapshot.addFlight(new Flight(1, "FL1", "LHR", "JFK", DEPARTURE, 100.0, 10));
+        snapshot.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+        JournalManager reopened = new JournalManager(journalFile.toString());
+        assertEquals("", replayCapturingWarnings(reopened, snapshot));
+        assertEquals(3, reopened.getRecordCount());
+        assertSameState(fbs, snapshot);
+        assertTrue(snapshot.getBookingByID(booking.getId()).isCancelled());
+    }
+
+    @Test
+    void testTruncateToMarkKeepsLaterRecords() throws Exception {
+        assertTruncateToMarkKeepsLaterRecords(false);
+    }
+
+    @Test
+    void testTruncateToMarkKeepsLaterQueuedRecords() throws Exception {
+        assertTruncateToMarkKeepsLaterRecords(true);
+    }
+
+    @Test
+    void testTornLastRecordSkippedAndTerminated() throws Exception {
+        FlightBookingSystem original = journalMutations();
+        Files.write(journalFile, "BOOKING_ADD::4::2::".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        JournalManager journal = new JournalManager(journalFile.toString());
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        String warnings = replayCapturingWarnings(journal, fbs);
+        assertTrue(warnings.contains("line 10"), warnings);
+        assertSameState(original, fbs);
+
+        // records appended after the torn one start on a line of their own
+        journal.open();
+        fbs.addListener(journal);
+        fbs.addCustomer(new Customer(3, "Cat", "0789", "cat@example.com", "secret"));
+        Booking booking = fbs.addBooking(3, 1, LocalDate.now());
+        journal.close();
+        fbs.removeListener(journal);
+
+        FlightBookingSystem recovered = new FlightBookingSystem();
+        new JournalManager(journalFile.toString()).replay(recovered);
+        assertSameState(fbs, recovered);
+        assertNotNull(recovered.getLoadedBooking(booking.getId()));
+    }
+}
@@ -0,0 +1,444 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.log.Logger;
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import bcu.cmp5332.bookingsystem.model.SystemSnapshot;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link StorageEngine} backed by the embedded {@link LsmStore}. Each record
+ * is stored under a 64-bit key whose top byte selects the record type, so all
+ * records of one type are contiguous and ordered by ID:
+ * <pre>
+ * flight        FLIGHTS   | flight id
+ * customer      CUSTOMERS | customer id
+ * booking       BOOKINGS  | booking id
+ * payment       PAYMENTS  | booking id
+ * departure     DEPARTURES | departure epoch day (24 bits) | flight id
+ * </pre>
+ * The departure entries are a secondary index with empty values, kept in
+ * step with the flights so that flights can be range-scanned by date.
+ *
+ * Registered as a listener on the loaded system, the engine persists every
+ * mutation as one synced log batch instead of rewriting any files.
+ */
+public class LsmStorageEngine implements StorageEngine {
+
+    private static final Logger LOG = Logger.getLogger(LsmStorageEngine.class);
+
+    /** The directory where the engine's files are stored */
+    private static final String RESOURCE = "./resources/data/engine";
+
+    private static final long FLIGHTS = 1;
+    private static final long CUSTOMERS = 2;
+    private static final long BOOKINGS = 3;
+    private static final long PAYMENTS = 4;
+    private static final long DEPARTURES = 5;
+
+    /** Added to epoch days so dates before 1970 still sort correctly in 24 bits */
+    private static final long EPOCH_DAY_BIAS = 1 << 23;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final LsmStore store;
+
+    /** Set when persisting a mutation fails; cleared by a full store */
+    private volatile boolean failed;
+
+    /**
+     * Creates an engine backed by the default directory.
+     */
+    public LsmStorageEngine() {
+        this(RESOURCE);
+    }
+
+    /**
+     * Creates an engine backed by the given directory.
+     *
+     * @param resource path of the directory holding the engine's files
+     */
+    public LsmStorageEngine(String resource) {
+        this.store = new LsmStore(new File(resource));
+    }
+
+    private static long key(long type, int id) {
+        return type << 56 | (id & 0xFFFFFFFFL);
+    }
+
+    private static long departureKey(LocalDate date, int id) {
+        return DEPARTURES << 56 | ((date.toEpochDay() + EPOCH_DAY_BIAS) & 0xFFFFFF) << 32 | (id & 0xFFFFFFFFL);
+    }
+
+    private static int id(long key) {
+        return (int) key;
+    }
+
+    @Override
+    public void open() throws IOException {
+        store.open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    @Override
+    public void compact() throws IOException {
+        store.compact();
+    }
+
+    /**
+     * Loads every stored record into the flight booking system, in the same
+     * order as the text data managers: flights, customers, bookings, payments.
+     *
+     * @param fbs the flight booking system to load the data into
+     * @throws IOException                  if the storage files cannot be read
+     * @throws FlightBookingSystemException if the stored records are inconsistent
+     */
+    @Override
+    public void loadData(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        for (Flight flight : scanFlights()) {
+            fbs.addFlight(flight);
+        }
+        for (Customer customer : scanCustomers()) {
+            fbs.addCustomer(customer);
+        }
+        // decoded after the scan, as resolving references can throw
+        Map<Integer, byte[]> bookings = new LinkedHashMap<>();
+        scan(BOOKINGS, (k, v) -> bookings.put(id(k), v));
+        for (Map.Entry<Integer, byte[]> entry : bookings.entrySet()) {
+            fbs.addBookingFromData(decodeBooking(entry.getKey(), entry.getValue(), fbs));
+        }
+        List<Payment> payments = new ArrayList<>();
+        scan(PAYMENTS, (k, v) -> payments.add(decodePayment(id(k), v)));
+        PaymentDataManager.apply(fbs, payments);
+    }
+
+    /**
+     * Replaces the stored records with the contents of the flight booking
+     * system, written straight to a single segment. Used to import data.
+     *
+     * @param fbs the flight booking system containing the data to store
+     * @throws IOException if the storage files cannot be written
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) throws IOException {
+        SystemSnapshot snapshot = fbs.snapshot(true);
+        TreeMap<Long, byte[]> entries = new TreeMap<>();
+        for (Flight flight : snapshot.getFlights()) {
+            entries.put(key(FLIGHTS, flight.getId()), encode(flight));
+            entries.put(departureKey(flight.getDepartureDate(), flight.getId()), EMPTY);
+        }
+        for (Customer customer : snapshot.getCustomers()) {
+            entries.put(key(CUSTOMERS, customer.getId()), encode(customer));
+        }
+        for (Booking booking : snapshot.getBookings()) {
+            entries.put(key(BOOKINGS, booking.getId()), encode(booking));
+        }
+        for (Booking booking : snapshot.getCancelledBookings()) {
+            entries.put(key(BOOKINGS, booking.getId()), encode(booking));
+        }
+        for (Payment payment : snapshot.getPayments()) {
+            entries.put(key(PAYMENTS, payment.getBookingId()), encode(payment));
+        }
+        store.replaceAll(entries);
+        failed = false;
+    }
+
+    @Override
+    public Flight getFlight(int id) throws IOException {
+        byte[] value = store.get(key(FLIGHTS, id));
+        return value == null ? null : decodeFlight(id, value);
+    }
+
+    @Override
+    public void putFlight(Flight flight) throws IOException {
+        Map<Long, byte[]> batch = new LinkedHashMap<>();
+        Flight old = getFlight(flight.getId());
+        if (old != null && !old.getDepartureDate().equals(flight.getDepartureDate())) {
+            batch.put(departureKey(old.getDepartureDate(), old.getId()), null);
+        }
+        batch.put(key(FLIGHTS, flight.getId()), encode(flight));
+        batch.put(departureKey(flight.getDepartureDate(), flight.getId()), EMPTY);
+        store.write(batch);
+    }
+
+    @Override
+    public void deleteFlight(int id) throws IOException {
+        Flight old = getFlight(id);
+        if (old == null) {
+            return;
+        }
+        Map<Long, byte[]> batch = new LinkedHashMap<>();
+        batch.put(key(FLIGHTS, id), null);
+        batch.put(departureKey(old.getDepartureDate(), id), null);
+        store.write(batch);
+    }
+
+    @Override
+    public List<Flight> scanFlightsByDeparture(LocalDate from, LocalDate to) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        store.scan(departureKey(from, 0), departureKey(to, -1), (k, v) -> ids.add(id(k)));
+        List<Flight> flights = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Flight flight = getFlight(id);
+            if (flight != null) {
+                flights.add(flight);
+            }
+        }
+        return flights;
+    }
+
+    @Override
+    public Customer getCustomer(int id) throws IOException {
+        byte[] value = store.get(key(CUSTOMERS, id));
+        return value == null ? null : decodeCustomer(id, value);
+    }
+
+    @Override
+    public void putCustomer(Customer customer) throws IOException {
+        put(key(CUSTOMERS, customer.getId()), encode(customer));
+    }
+
+    @Override
+    public void deleteCustomer(int id) throws IOException {
+        put(key(CUSTOMERS, id), null);
+    }
+
+    @Override
+    public Booking getBooking(int id, FlightBookingSystem fbs) throws IOException, FlightBookingSystemException {
+        byte[] value = store.get(key(BOOKINGS, id));
+        return value == null ? null : decodeBooking(id, value, fbs);
+    }
+
+    @Override
+    public void putBooking(Booking booking) throws IOException {
+        put(key(BOOKINGS, booking.getId()), encode(booking));
+    }
+
+    @Override
+    public void deleteBooking(int id) throws IOException {
+        put(key(BOOKINGS, id), null);
+    }
+
+    @Override
+    public Payment getPayment(int bookingId) throws IOException {
+        byte[] value = store.get(key(PAYMENTS, bookingId));
+        return value == null ? null : decodePayment(bookingId, value);
+    }
+
+    @Override
+    public void putPayment(Payment payment) throws IOException {
+        put(key(PAYMENTS, payment.getBookingId()), encode(payment));
+    }
+
+    private void put(long key, byte[] value) throws IOException {
+        Map<Long, byte[]> batch = new LinkedHashMap<>();
+        batch.put(key, value);
+        store.write(batch);
+    }
+
+    private List<Flight> scanFlights() throws IOException {
+        List<Flight> flights = new ArrayList<>();
+        scan(FLIGHTS, (k, v) -> flights.add(decodeFlight(id(k), v)));
+        return flights;
+    }
+
+    private List<Customer> scanCustomers() throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        scan(CUSTOMERS, (k, v) -> customers.add(decodeCustomer(id(k), v)));
+        return customers;
+    }
+
+    /** Decodes every record of one type; IDs are non-negative so they sort in order */
+    private void scan(long type, RecordConsumer consumer) throws IOException {
+        try {
+            store.scan(key(type, 0), key(type, Integer.MAX_VALUE), (k, v) -> {
+                try {
+                    consumer.accept(k, v);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface RecordConsumer {
+        void accept(long key, byte[] value) throws IOException;
+    }
+
+    // --- Record encoding ---
+
+    private static byte[] encode(Flight flight) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(flight.getFlightNumber());
+        out.writeUTF(flight.getOrigin());
+        out.writeUTF(flight.getDestination());
+        out.writeInt((int) flight.getDepartureDate().toEpochDay());
+        out.writeDouble(flight.getBasePrice());
+        out.writeInt(flight.getCapacity());
+        out.writeBoolean(flight.isDeleted());
+        return bytes.toByteArray();
+    }
+
+    private static Flight decodeFlight(int id, byte[] value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        Flight flight = new Flight(id, in.readUTF(), in.readUTF(), in.readUTF(),
+                LocalDate.ofEpochDay(in.readInt()), in.readDouble(), in.readInt());
+        flight.setDeleted(in.readBoolean());
+        return flight;
+    }
+
+    private static byte[] encode(Customer customer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(customer.getName());
+        out.writeUTF(customer.getPhone());
+        out.writeUTF(customer.getEmail());
+        out.writeBoolean(customer.getPassword() != null);
+        if (customer.getPassword() != null) {
+            out.writeUTF(customer.getPassword());
+        }
+        out.writeBoolean(customer.isDeleted());
+        return bytes.toByteArray();
+    }
+
+    private static Customer decodeCustomer(int id, byte[] value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        String name = in.readUTF();
+        String phone = in.readUTF();
+        String email = in.readUTF();
+        String password = in.readBoolean() ? in.readUTF() : null;
+        Customer customer = new Customer(id, name, phone, email, password);
+        customer.setDeleted(in.readBoolean());
+        return customer;
+    }
+
+    private static byte[] encode(Booking booking) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(booking.getCustomer().getId());
+        out.writeInt(booking.getFlight().getId());
+        out.writeInt((int) booking.getBookingDate().toEpochDay());
+        out.writeDouble(booking.getBookingFee());
+        out.writeBoolean(booking.isCancelled());
+        out.writeBoolean(booking.isPaymentProcessed());
+        return bytes.toByteArray();
+    }
+
+    private static Booking decodeBooking(int id, byte[] value, FlightBookingSystem fbs)
+            throws IOException, FlightBookingSystemException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        Customer customer = fbs.findCustomer(in.readInt());
+        Flight flight = fbs.findFlight(in.readInt());
+        if (customer == null || flight == null) {
+            throw new FlightBookingSystemException("Booking #" + id + " references a missing customer or flight.");
+        }
+        Booking booking = new Booking(id, customer, flight, LocalDate.ofEpochDay(in.readInt()), in.readDouble());
+        booking.setCancelled(in.readBoolean());
+        booking.setPaymentProcessed(in.readBoolean());
+        return booking;
+    }
+
+    private static byte[] encode(Payment payment) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeDouble(payment.getAmount());
+        out.writeUTF(payment.getCardNumber());
+        out.writeUTF(payment.getExpiryDate());
+        out.writeInt((int) payment.getPaymentDate().toEpochDay());
+        return bytes.toByteArray();
+    }
+
+    private static Payment decodePayment(int bookingId, byte[] value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        return new Payment(bookingId, in.readDouble(), in.readUTF(), in.readUTF(),
+                LocalDate.ofEpochDay(in.readInt()));
+    }
+
+    // --- Listener: persist each mutation as it happens ---
+
+    private void persist(String what, IORunnable write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            failed = true;
+            LOG.error(() -> "Error storing " + what, e);
+        }
+    }
+
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    @Override
+    public void flightAdded(Flight flight) {
+        persist("flight #" + flight.getId(), () -> putFlight(flight));
+    }
+
+    @Override
+    public void flightRemoved(Flight flight) {
+        persist("flight #" + flight.getId(), () -> putFlight(flight));
+    }
+
+    @Override
+    public void customerAdded(Customer customer) {
+        persist("customer #" + customer.getId(), () -> putCustomer(customer));
+    }
+
+    @Override
+    public void customerUpdated(Customer customer) {
+        persist("customer #" + customer.getId(), () -> putCustomer(customer));
+    }
+
+    @Override
+    public void customerRemoved(Customer customer) {
+        persist("customer #" + customer.getId(), () -> putCustomer(customer));
+    }
+
+    @Override
+    public void bookingAdded(Booking booking) {
+        persist("booking #" + booking.getId(), () -> putBooking(booking));
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking, double cancellationFee) {
+        persist("booking #" + booking.getId(), () -> putBooking(booking));
+    }
+
+    @Override
+    public void paymentAdded(Payment payment) {
+        persist("payment for booking #" + payment.getBookingId(), () -> putPayment(payment));
+    }
+}
@@ -0,0 +1,559 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded log-structured merge store mapping {@code long} keys to byte
+ * values, used by {@link LsmStorageEngine}.
+ *
+ * Writes are appended to a write-ahead log (synced once per batch) and
+ * applied to an in-memory sorted memtable. When the memtable grows past
+ * {@link #MEMTABLE_LIMIT} bytes it is written out as an immutable sorted
+ * segment file and the log is cleared. Reads check the memtable and then the
+ * segments from newest to oldest; deletes are recorded as tombstones until a
+ * compaction merges all segments into one.
+ *
+ * Segment layout (big-endian):
+ * <pre>
+ * records  key (long), value length (int, -1 for a tombstone), value bytes
+ * index    every INDEX_INTERVAL-th record: key (long), record offset (long)
+ * footer   index offset (long), record count (int), index entries (int),
+ *          superseded sequence (int), MAGIC (int)
+ * </pre>
+ * A segment written by a compaction records the sequence number of the
+ * newest segment it merged, and so replaces every segment up to it: the
+ * switch happens when the new segment is renamed into place, and segments it
+ * replaces that are still present after a crash are deleted on open. Only the
+ * sparse index of each segment is held in memory; scans and compactions
+ * stream a k-way merge of the segments one block at a time.
+ */
+class LsmStore {
+
+    /** Memtable size in bytes above which it is written to a segment */
+    static final int MEMTABLE_LIMIT = 4 << 20;
+
+    /** Number of segments that triggers a compaction when the memtable is flushed */
+    static final int COMPACTION_TRIGGER = 4;
+
+    private static final int INDEX_INTERVAL = 32;
+    private static final int FOOTER_SIZE = 24;
+    private static final int MAGIC = 0x4C534D32; // "LSM2"
+
+    /** Segments written before the superseded sequence was recorded, with a 20-byte footer */
+    private static final int MAGIC_V1 = 0x4C534D31; // "LSM1"
+
+    /** Marks a deleted key in the memtable */
+    private static final byte[] TOMBSTONE = new byte[0];
+
+    private final File directory;
+    private final File logFile;
+
+    private final TreeMap<Long, byte[]> memtable = new TreeMap<>();
+    private long memtableBytes;
+
+    /** Oldest first */
+    private final List<Segment> segments = new ArrayList<>();
+    private int nextSegment = 1;
+
+    private FileOutputStream log;
+
+    /**
+     * @param directory directory holding the log and segment files
+     */
+    LsmStore(File directory) {
+        this.directory = directory;
+        this.logFile = new File(directory, "wal.log");
+    }
+
+    /**
+     * Opens the segments and replays the write-ahead log into the memtable.
+     * Segments left behind by a compaction interrupted by a crash are
+     * deleted, and a torn or corrupt record at the end of the log is
+     * discarded.
+     */
+    synchronized void open() throws IOException {
+        if (log != null) {
+            return;
+        }
+        Files.createDirectories(directory.toPath());
+        File[] files = directory.listFiles((dir, name) -> name.matches("seg-\\d+\\.sst"));
+        Arrays.sort(files);
+        for (File file : files) {
+            segments.add(new Segment(file));
+            nextSegment = Math.max(nextSegment, sequence(file) + 1);
+        }
+        int superseded = 0;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.sequence <= superseded) {
+                segment.close();
+                Files.deleteIfExists(segment.file.toPath());
+                segments.remove(i);
+            } else {
+                superseded = Math.max(superseded, segment.superseded);
+            }
+        }
+        long valid = replayLog();
+        if (logFile.exists() && logFile.length() > valid) {
+            try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+                raf.setLength(valid);
+            }
+        }
+        log = new FileOutputStream(logFile, true);
+    }
+
+    private static int sequence(File file) {
+        String name = file.getName();
+        return Integer.parseInt(name.substring(4, name.length() - 4));
+    }
+
+    private long replayLog() throws IOException {
+        if (!logFile.exists()) {
+            return 0;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(logFile.toPath()));
+        CRC32 crc = new CRC32();
+        long valid = 0;
+        while (buf.remaining() >= 16) {
+            int start = buf.position();
+            long key = buf.getLong();
+            int length = buf.getInt();
+            if (length < -1 || buf.remaining() < Math.max(length, 0) + 4) {
+                break;
+            }
+            byte[] value = length < 0 ? TOMBSTONE : new byte[length];
+            buf.get(value);
+            crc.reset();
+            crc.update(buf.array(), start, 12 + value.length);
+            if ((int) crc.getValue() != buf.getInt()) {
+                break;
+            }
+            applyToMemtable(key, value);
+            valid = buf.position();
+        }
+        return valid;
+    }
+
+    /** Closes the log. The memtable is recovered from it on the next open. */
+    synchronized void close() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        memtable.clear();
+        memtableBytes = 0;
+    }
+
+    /**
+     * Applies a batch of writes atomically with respect to recovery: the
+     * whole batch is appended to the log and synced once.
+     *
+     * @param batch keys to values, with null values meaning delete
+     */
+    synchronized void write(Map<Long, byte[]> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        for (Map.Entry<Long, byte[]> entry : batch.entrySet()) {
+            byte[] value = entry.getValue();
+            ByteBuffer record = ByteBuffer.allocate(16 + (value == null ? 0 : value.length));
+            record.putLong(entry.getKey());
+            record.putInt(value == null ? -1 : value.length);
+            if (value != null) {
+                record.put(value);
+            }
+            crc.reset();
+            crc.update(record.array(), 0, record.position());
+            record.putInt((int) crc.getValue());
+            bytes.write(record.array(), 0, record.position());
+        }
+        log.write(bytes.toByteArray());
+        log.getFD().sync();
+        for (Map.Entry<Long, byte[]> entry : batch.entrySet()) {
+            applyToMemtable(entry.getKey(), entry.getValue() == null ? TOMBSTONE : entry.getValue());
+        }
+        if (memtableBytes >= MEMTABLE_LIMIT) {
+            flush();
+        }
+    }
+
+    private void applyToMemtable(long key, byte[] value) {
+        byte[] old = memtable.put(key, value);
+        memtableBytes += 12 + value.length - (old == null ? 0 : 12 + old.length);
+    }
+
+    /**
+     * @return the value for the key, or null if it is absent or deleted
+     */
+    synchronized byte[] get(long key) throws IOException {
+        byte[] value = memtable.get(key);
+        for (int i = segments.size() - 1; value == null && i >= 0; i--) {
+            value = segments.get(i).get(key);
+        }
+        return value == TOMBSTONE ? null : value;
+    }
+
+    /**
+     * Passes every live key in {@code [from, to]} and its value to the
+     * consumer in key order.
+     */
+    synchronized void scan(long from, long to, BiConsumer<Long, byte[]> consumer) throws IOException {
+        List<Cursor> sources = new ArrayList<>();
+        for (Segment segment : segments) {
+            sources.add(segment.cursor(from, to));
+        }
+        sources.add(new MapCursor(memtable.subMap(from, true, to, true)));
+        Cursor merged = new MergeCursor(sources);
+        while (merged.next()) {
+            consumer.accept(merged.key, merged.value);
+        }
+    }
+
+    /** @return true if nothing has been written to the store */
+    synchronized boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.count > 0) {
+                return false;
+            }
+        }
+        return memtable.isEmpty();
+    }
+
+    /**
+     * Writes the memtable to a new segment and clears the log. Compacts when
+     * enough segments have accumulated.
+     */
+    synchronized void flush() throws IOException {
+        flushMemtable();
+        if (segments.size() >= COMPACTION_TRIGGER) {
+            compact();
+        }
+    }
+
+    private void flushMemtable() throws IOException {
+        if (!memtable.isEmpty()) {
+            segments.add(writeSegment(new MapCursor(memtable), 0));
+            // writeSegment returns only once the segment and its directory entry
+            // are synced, so the log records it holds can go
+            log.getChannel().truncate(0);
+            log.getFD().sync();
+            memtable.clear();
+            memtableBytes = 0;
+        }
+    }
+
+    /**
+     * Merges every segment and the memtable into a single segment, dropping
+     * deleted keys and superseded values. The segments are read and the new
+     * one written a block at a time, never all held in memory.
+     */
+    synchronized void compact() throws IOException {
+        flushMemtable();
+        if (segments.size() <= 1) {
+            return;
+        }
+        List<Cursor> sources = new ArrayList<>();
+        for (Segment segment : segments) {
+            sources.add(segment.cursor(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+        // no older segment survives the switch, so nothing is left for a tombstone to hide
+        replaceSegments(writeSegment(new MergeCursor(sources), segments.get(segments.size() - 1).sequence));
+    }
+
+    /**
+     * Replaces the whole contents of the store with the given entries,
+     * written straight to a single segment.
+     */
+    synchronized void replaceAll(NavigableMap<Long, byte[]> entries) throws IOException {
+        // empty the log first so that none of it is replayed over the new contents
+        flushMemtable();
+        int superseded = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).sequence;
+        replaceSegments(writeSegment(new MapCursor(entries), superseded));
+    }
+
+    /** Deletes every segment but the one just written, which already replaces them on disk */
+    private void replaceSegments(Segment replacement) throws IOException {
+        for (Segment old : segments) {
+            old.close();
+            Files.deleteIfExists(old.file.toPath());
+        }
+        segments.clear();
+        segments.add(replacement);
+    }
+
+    /**
+     * Writes the entries to a new segment and syncs it and its directory.
+     *
+     * @param entries    the entries in key order
+     * @param superseded sequence of the newest segment the new one replaces,
+     *                   or 0 if it replaces none
+     */
+    private Segment writeSegment(Cursor entries, int superseded) throws IOException {
+        File file = new File(directory, String.format("seg-%06d.sst", nextSegment++));
+        try (AtomicFileWriter writer = new AtomicFileWriter(file.getPath())) {
+            DataOutputStream out = new DataOutputStream(writer.stream());
+            List<long[]> index = new ArrayList<>();
+            long offset = 0;
+            int count = 0;
+            while (entries.next()) {
+                if (count % INDEX_INTERVAL == 0) {
+                    index.add(new long[] { entries.key, offset });
+                }
+                byte[] value = entries.value;
+                out.writeLong(entries.key);
+                if (value == TOMBSTONE) {
+                    out.writeInt(-1);
+                    offset += 12;
+                } else {
+                    out.writeInt(value.length);
+                    out.write(value);
+                    offset += 12 + value.length;
+                }
+                count++;
+            }
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+            }
+            out.writeLong(offset);
+            out.writeInt(count);
+            out.writeInt(index.size());
+            out.writeInt(superseded);
+            out.writeInt(MAGIC);
+            out.flush();
+            writer.commit();
+        }
+        return new Segment(file);
+    }
+
+    /** An immutable sorted segment file with its sparse index loaded */
+    private static class Segment {
+        private final File file;
+        private final int sequence;
+        private final FileChannel channel;
+        private final long[] indexKeys;
+        private final long[] indexOffsets;
+        private final long dataEnd;
+        private final int count;
+        private final int superseded;
+
+        private Segment(File file) throws IOException {
+            this.file = file;
+            this.sequence = sequence(file);
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            long size = channel.size();
+            int magic = size < 4 ? 0 : read(size - 4, 4).getInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                channel.close();
+                throw new IOException(file + " is not a store segment");
+            }
+            int footerSize = magic == MAGIC ? FOOTER_SIZE : FOOTER_SIZE - 4;
+            ByteBuffer footer = read(size - footerSize, footerSize);
+            dataEnd = footer.getLong();
+            count = footer.getInt();
+            int entries = footer.getInt();
+            superseded = magic == MAGIC ? footer.getInt() : 0;
+            ByteBuffer index = read(dataEnd, entries * 16);
+            indexKeys = new long[entries];
+            indexOffsets = new long[entries];
+            for (int i = 0; i < entries; i++) {
+                indexKeys[i] = index.getLong();
+                indexOffsets[i] = index.getLong();
+            }
+        }
+
+        private ByteBuffer read(long position, int length) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, position + buf.position()) < 0) {
+                    throw new IOException("Unexpected end of " + file);
+                }
+            }
+            buf.flip();
+            return buf;
+        }
+
+        /** @return the value, TOMBSTONE if deleted here, or null if absent */
+        private byte[] get(long key) throws IOException {
+            int block = block(key);
+            if (block < 0) {
+                return null;
+            }
+            ByteBuffer buf = read(indexOffsets[block], blockLength(block));
+            while (buf.hasRemaining()) {
+                long k = buf.getLong();
+                int length = buf.getInt();
+                if (k == key) {
+                    if (length < 0) {
+                        return TOMBSTONE;
+                    }
+                    byte[] value = new byte[length];
+                    buf.get(value);
+                    return value;
+                }
+                if (k > key) {
+                    return null;
+                }
+                buf.position(buf.position() + Math.max(length, 0));
+            }
+            return null;
+        }
+
+        /**
+         * @return a cursor over every entry in {@code [from, to]}, tombstones
+         *         included, reading one block at a time
+         */
+        private Cursor cursor(long from, long to) {
+            return new Cursor() {
+                private int block = Math.max(block(from), 0);
+                private ByteBuffer buf;
+
+                @Override
+                boolean next() throws IOException {
+                    while (true) {
+                        if (buf == null || !buf.hasRemaining()) {
+                            if (block >= indexKeys.length || indexKeys[block] > to) {
+                                return false;
+                            }
+                            buf = read(indexOffsets[block], blockLength(block));
+                            block++;
+                        }
+                        long k = buf.getLong();
+                        int length = buf.getInt();
+                        if (k > to) {
+                            block = indexKeys.length;
+                            buf = null;
+                            return false;
+                        }
+                        if (k < from) {
+                            buf.position(buf.position() + Math.max(length, 0));
+                            continue;
+                        }
+                        key = k;
+                        value = length < 0 ? TOMBSTONE : new byte[length];
+                        buf.get(value);
+                        return true;
+                    }
+                }
+            };
+        }
+
+        /** @return the index of the block that may hold the key, or -1 */
+        private int block(long key) {
+            int i = Arrays.binarySearch(indexKeys, key);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        private int blockLength(int block) {
+            long end = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : dataEnd;
+            return (int) (end - indexOffsets[block]);
+        }
+
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /** Entries in key order, tombstones included, visited one at a time */
+    private abstract static class Cursor {
+        long key;
+        byte[] value;
+
+        /** Position among the sources of a {@link MergeCursor}; higher is newer */
+        int age;
+
+        /**
+         * Moves to the next entry, updating {@link #key} and {@link #value}.
+         *
+         * @return false once there are no more entries
+         */
+        abstract boolean next() throws IOException;
+    }
+
+    /** Cursor over the entries of a sorted map */
+    private static class MapCursor extends Cursor {
+        private final Iterator<Map.Entry<Long, byte[]>> entries;
+
+        private MapCursor(NavigableMap<Long, byte[]> map) {
+            this.entries = map.entrySet().iterator();
+        }
+
+        @Override
+        boolean next() {
+            if (!entries.hasNext()) {
+                return false;
+            }
+            Map.Entry<Long, byte[]> entry = entries.next();
+            key = entry.getKey();
+            value = entry.getValue();
+            return true;
+        }
+    }
+
+    /**
+     * Merges cursors, oldest first, into one that visits each key once with
+     * its newest value and skips keys whose newest value is a tombstone. Only
+     * the current entry of each source is held.
+     */
+    private static class MergeCursor extends Cursor {
+        /** Sources positioned on their current entry, smallest key first and newest first among equal keys */
+        private final PriorityQueue<Cursor> heap;
+
+        private MergeCursor(List<Cursor> sources) throws IOException {
+            heap = new PriorityQueue<>(Math.max(sources.size(), 1),
+                    (a, b) -> a.key != b.key ? Long.compare(a.key, b.key) : Integer.compare(b.age, a.age));
+            for (int i = 0; i < sources.size(); i++) {
+                sources.get(i).age = i;
+                advance(sources.get(i));
+            }
+        }
+
+        @Override
+        boolean next() throws IOException {
+            while (!heap.isEmpty()) {
+                Cursor newest = heap.poll();
+                key = newest.key;
+                value = newest.value;
+                advance(newest);
+                while (!heap.isEmpty() && heap.peek().key == key) {
+                    advance(heap.poll());
+                }
+                if (value != TOMBSTONE) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void advance(Cursor source) throws IOException {
+            if (source.next()) {
+                heap.add(source);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+class LsmStoreTest {
+    private File directory;
+    private LsmStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("lsm").toFile();
+        store = new LsmStore(directory);
+        store.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String get(long key) throws IOException {
+        byte[] value = store.get(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private void put(long key, String value) throws IOException {
+        store.write(Collections.singletonMap(key, bytes(value)));
+    }
+
+    private void delete(long key) throws IOException {
+        store.write(Collections.singletonMap(key, null));
+    }
+
+    private File[] segmentFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".sst"));
+        Arrays.sort(files);
+        return files;
+    }
+
+    /** Copies of the segment files, to put back as if a crash had stopped their deletion */
+    private Map<File, byte[]> copySegments() throws IOException {
+        Map<File, byte[]> copies = new HashMap<>();
+        for (File file : segmentFiles()) {
+            copies.put(file, Files.readAllBytes(file.toPath()));
+        }
+        return copies;
+    }
+
+    private void reopenRestoring(Map<File, byte[]> segments) throws IOException {
+        store.close();
+        for (Map.Entry<File, byte[]> segment : segments.entrySet()) {
+            Files.write(segment.getKey().toPath(), segment.getValue());
+        }
+        store = new LsmStore(directory);
+        store.open();
+    }
+
+    @Test
+    void testReadsSeeNewestValueAcrossSegmentsAndLog() throws IOException {
+        put(1, "one");
+        put(2, "two");
+        store.flush();
+        put(2, "deux");
+        delete(1);
+        store.flush();
+        put(3, "three");
+
+        store.close();
+        store = new LsmStore(directory);
+        store.open();
+
+        assertNull(get(1));
+        assertEquals("deux", get(2));
+        assertEquals("three", get(3));
+        List<Long> keys = new ArrayList<>();
+        store.scan(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> keys.add(key));
+        assertEquals(List.of(2L, 3L), keys);
+    }
+
+    @Test
+    void testCompactionDropsTombstonesAndOldSegments() throws IOException {
+        for (long key = 1; key <= 3; key++) {
+            put(key, "v" + key);
+        }
+        store.flush();
+        delete(2);
+        store.compact();
+
+        assertEquals(1, segmentFiles().length);
+        assertNull(get(2));
+        assertEquals("v3", get(3));
+    }
+
+    @Test
+    void testCrashBeforeOldSegmentsDeletedDoesNotResurrectDeletedKeys() throws IOException {
+        for (long key = 1; key <= 3; key++) {
+            put(key, "v" + key);
+        }
+        store.flush();
+        delete(2);
+        put(3, "new");
+        store.flush();
+        Map<File, byte[]> beforeCompaction = copySegments();
+        store.compact();
+
+        reopenRestoring(beforeCompaction);
+
+        assertNull(get(2));
+        assertEquals("v1", get(1));
+        assertEquals("new", get(3));
+        assertEquals(1, segmentFiles().length);
+        put(4, "v4");
+        store.compact();
+        assertNull(get(2));
+        assertEquals("v4", get(4));
+    }
+
+    @Test
+    void testCrashDuringReplaceAllKeepsOnlyNewContents() throws IOException {
+        put(1, "old");
+        store.flush();
+        put(2, "unflushed");
+        Map<File, byte[]> before = copySegments();
+        TreeMap<Long, byte[]> entries = new TreeMap<>();
+        entries.put(3L, bytes("replacement"));
+        store.replaceAll(entries);
+
+        reopenRestoring(before);
+
+        assertNull(get(1));
+        assertNull(get(2));
+        assertEquals("replacement", get(3));
+        assertEquals(1, segmentFiles().length);
+    }
+
+    @Test
+    void testTornLogRecordDiscarded() throws IOException {
+        put(1, "one");
+        put(2, "two");
+        store.close();
+        File log = new File(directory, "wal.log");
+        long valid = log.length();
+        Files.write(log.toPath(), new byte[] { 0, 0, 0, 0, 0, 0, 0, 3, 0, 0 }, StandardOpenOption.APPEND);
+
+        store = new LsmStore(directory);
+        store.open();
+
+        assertEquals("one", get(1));
+        assertEquals("two", get(2));
+        assertEquals(valid, log.length());
+        put(3, "three");
+        assertEquals("three", get(3));
+    }
+
+    @Test
+    void testMergedScansAndCompactionMatchNewestWrites() throws IOException {
+        TreeMap<Long, String> expected = new TreeMap<>();
+        for (int round = 0; round < 3; round++) {
+            for (long key = round; key < 500; key += round + 1) {
+                if (key % 7 == round) {
+                    delete(key);
+                    expected.remove(key);
+                } else {
+                    put(key, round + ":" + key);
+                    expected.put(key, round + ":" + key);
+                }
+            }
+            store.flush();
+        }
+        put(250, "log");
+        expected.put(250L, "log");
+
+        Map<Long, String> scanned = new TreeMap<>();
+        store.scan(100, 300, (key, value) -> scanned.put(key, new String(value, StandardCharsets.UTF_8)));
+        assertEquals(expected.subMap(100L, true, 300L, true), scanned);
+
+        store.compact();
+        assertEquals(1, segmentFiles().length);
+        List<Long> keys = new ArrayList<>();
+        store.scan(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> {
+            keys.add(key);
+            assertEquals(expected.get(key), new String(value, StandardCharsets.UTF_8));
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+}
@@ -0,0 +1,90 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the data files concurrently while respecting their dependencies.
+ * Flights, customers and payments are independent files and are parsed at the
+ * same time on a fork-join pool. Once flights and customers have been added,
+ * the booking file is parsed in parallel chunks that resolve their IDs against
+ * the populated system. Finally payments are added and linked to their
+ * bookings, giving the same result as
+ * loading each data manager in turn.
+ */
+class ParallelDataLoader {
+
+    private final FlightDataManager flightManager;
+    private final CustomerDataManager customerManager;
+    private final BookingDataManager bookingManager;
+    private final PaymentDataManager paymentManager;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a loader that runs its tasks on the given pool.
+     *
+     * @param flightManager   parser for the flight file
+     * @param customerManager parser for the customer file
+     * @param bookingManager  parser for the booking file
+     * @param paymentManager  parser for the payment file
+     * @param pool            the pool to run parsing tasks on
+     */
+    ParallelDataLoader(FlightDataManager flightManager, CustomerDataManager customerManager,
+            BookingDataManager bookingManager, PaymentDataManager paymentManager, ForkJoinPool pool) {
+        this.flightManager = flightManager;
+        this.customerManager = customerManager;
+        this.bookingManager = bookingManager;
+        this.paymentManager = paymentManager;
+        this.pool = pool;
+    }
+
+    /**
+     * Loads all data files into the flight booking system.
+     *
+     * @param fbs the flight booking system to populate
+     * @throws Exception if any data manager fails to read or parse its file
+     */
+    void load(FlightBookingSystem fbs) throws Exception {
+        Future<List<Flight>> flights = pool.submit(() -> Metrics.time("data.FlightDataManager.parse",
+                flightManager::parse));
+        Future<List<Customer>> customers = pool.submit(() -> Metrics.time("data.CustomerDataManager.parse",
+                customerManager::parse));
+        Future<List<Payment>> payments = pool.submit(() -> Metrics.time("data.PaymentDataManager.parse",
+                paymentManager::parse));
+
+        for (Flight flight : await(flights)) {
+            fbs.addFlight(flight);
+        }
+        for (Customer customer : await(customers)) {
+            fbs.addCustomer(customer);
+        }
+        Metrics.time("data.BookingDataManager.load", () -> bookingManager.loadData(fbs, pool));
+        PaymentDataManager.apply(fbs, await(payments));
+    }
+
+    /**
+     * Waits for a task and rethrows whatever exception it failed with.
+     *
+     * @param task the task to wait for
+     * @return the task's result
+     * @throws Exception the exception thrown by the task
+     */
+    static <T> T await(Future<T> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package bcu.cmp5332.bookingsystem.data;
 
+import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import bcu.cmp5332.bookingsystem.model.Payment;
+import bcu.cmp5332.bookingsystem.model.PaymentStatus;
 import java.io.*;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
@@ -28,6 +31,7 @@ public class PaymentDataManager implements DataManager {
 
     /**
      * Loads payment data from the text file into the flight booking system.
+     * The file is read in large chunks and parsed in place by {@link ChunkedRecordReader}.
      * Each line in the file represents a payment with fields separated by the
      * SEPARATOR.
      * The expected format is:
@@ -41,25 +45,63 @@ public class PaymentDataManager implements DataManager {
      */
     @Override
     public void loadData(FlightBookingSystem fbs) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(FILENAME))) {
-            String line;
-            int lineNumber = 0;
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                if (line.trim().isEmpty())
-                    continue; // Skip empty lines
+        apply(fbs, parse());
+    }
 
+    /**
+     * Adds parsed payments to the system and links each one to its booking,
+     * marking the booking as PAID. Payments for bookings that are not loaded
+     * are kept but left unlinked.
+     *
+     * @param fbs      the flight booking system to add the payments to
+     * @param payments the payments in file order
+     */
+    static void apply(FlightBookingSystem fbs, List<Payment> payments) {
+        for (Payment payment : payments) {
+            apply(fbs, payment);
+        }
+    }
+
+    /**
+     * Adds one payment to the system and links it to its booking, marking
+     * the booking as PAID. Shared by every loader and by journal replay so a
+     * restored payment always leaves its booking in the same state.
+     *
+     * @param fbs     the flight booking system to add the payment to
+     * @param payment the payment
+     */
+    static void apply(FlightBookingSystem fbs, Payment payment) {
+        fbs.addPayment(payment);
+        // archived bookings keep their own paid flag, so only loaded ones are marked
+        Booking booking = fbs.getLoadedBooking(payment.getBookingId());
+        if (booking != null) {
+            booking.setPaymentStatus(PaymentStatus.PAID);
+            booking.setPaymentProcessed(true);
+        }
+    }
+
+    /**
+     * Parses the payment file without touching the flight booking system, so it
+     * can run concurrently with the other parsers.
+     *
+     * @return the payments in file order
+     * @throws IOException if there is an error reading or parsing the file
+     */
+    List<Payment> parse() throws IOException {
+        List<Payment> payments = new ArrayList<>();
+        try (ChunkedRecordReader reader = new ChunkedRecordReader(Paths.get(FILENAME))) {
+            while (reader.nextRecord()) {
+                int lineNumber = reader.getLineNumber();
                 try {
-                    String[] parts = line.split(SEPARATOR);
-                    if (parts.length != 5) {
+                    if (reader.fieldCount() != 5) {
                         throw new IOException("Invalid payment data format at line " + lineNumber);
                     }
 
-                    int bookingId = Integer.parseInt(parts[0].trim());
-                    double amount = Double.parseDouble(parts[1].trim());
-                    String cardNumber = parts[2].trim();
-                    String expiryDate = parts[3].trim();
-                    LocalDate paymentDate = LocalDate.parse(parts[4].trim());
+                    int bookingId = reader.getInt(0);
+                    double amount = reader.getDouble(1);
+                    String cardNumber = reader.getString(2).trim();
+                    String expiryDate = reader.getString(3).trim();
+                    LocalDate paymentDate = reader.getDate(4);
 
                     // Validate data
                     if (bookingId <= 0) {
@@ -72,13 +114,13 @@ public class PaymentDataManager implements DataManager {
                         throw new IOException("Missing card details at line " + lineNumber);
                     }
 
-                    Payment payment = new Payment(bookingId, amount, cardNumber, expiryDate, paymentDate);
-                    fbs.addPayment(payment);
+                    payments.add(new Payment(bookingId, amount, cardNumber, expiryDate, paymentDate));
                 } catch (NumberFormatException | DateTimeParseException e) {
                     throw new IOException("Invalid data format at line " + lineNumber + ": " + e.getMessage());
                 }
             }
         }
+        return payments;
     }
 
     /**
@@ -95,20 +137,9 @@ public class PaymentDataManager implements DataManager {
      */
     @Override
     public void storeData(FlightBookingSystem fbs) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(FILENAME))) {
-            for (Payment payment : fbs.getPayments()) {
-                // Use %.2f for consistent decimal places in amount
-                out.println(String.format("%d%s%.2f%s%s%s%s%s%s",
-                        payment.getBookingId(),
-                        SEPARATOR,
-                        payment.getAmount(),
-                        SEPARATOR,
-                        payment.getCardNumber(),
-                        SEPARATOR,
-                        payment.getExpiryDate(),
-                        SEPARATOR,
-                        payment.getPaymentDate()));
-            }
+        try (AtomicFileWriter file = new AtomicFileWriter(FILENAME)) {
+            new DataExporter(DataExporter.Format.NATIVE).exportPayments(fbs, file.writer());
+            file.commit();
         }
     }
-}
\ No newline at end of file
+}
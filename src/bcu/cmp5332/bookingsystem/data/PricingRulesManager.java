@@ -0,0 +1,145 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.model.FareTable;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Data manager that reads the pricing rules from a file into a
+ * {@link FareTable} and makes it the pricing engine of every flight. See
+ * {@link FareTable} for the file format. Without the file the default rules
+ * are used.
+ *
+ * The file can be edited while the system is running: once
+ * {@link #watch(FlightBookingSystem, long)} has been called a background thread
+ * checks it for changes, loads the new rules once the file has stopped
+ * changing and reprices the system's flights in parallel. A file with an
+ * invalid rule is rejected as a whole with a warning and the rules in use are
+ * kept.
+ */
+public class PricingRulesManager implements DataManager {
+
+    /** The file path where the pricing rules are stored */
+    private static final String RESOURCE = "./resources/data/pricing.txt";
+
+    private final Path path;
+
+    /** Modification time and size of the file when last read, or null if it was missing */
+    private volatile String loadedVersion;
+
+    /** The system repriced when the rules change */
+    private volatile FlightBookingSystem watched;
+
+    /** Background thread polling the file, or null when not watching */
+    private Thread watcher;
+
+    /**
+     * Creates a manager for the default pricing rules file.
+     */
+    public PricingRulesManager() {
+        this(RESOURCE);
+    }
+
+    /**
+     * Creates a manager for a pricing rules file.
+     *
+     * @param resource the path of the rules file
+     */
+    public PricingRulesManager(String resource) {
+        this.path = Paths.get(resource);
+    }
+
+    /**
+     * Loads the rules if the file has changed since it was last read, and
+     * reprices the system's flights with them.
+     *
+     * @param fbs the flight booking system to reprice
+     * @throws IOException if the file exists but cannot be read
+     */
+    @Override
+    public synchronized void loadData(FlightBookingSystem fbs) throws IOException {
+        String version = version();
+        if (version == null ? loadedVersion == null : version.equals(loadedVersion)) {
+            return;
+        }
+        if (version == null) {
+            Flight.setPricingEngine(FareTable.DEFAULT);
+        } else {
+            try {
+                Flight.setPricingEngine(FareTable.parse(Files.readAllLines(path, StandardCharsets.UTF_8)));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Warning: Keeping the current pricing rules: " + ex.getMessage());
+                loadedVersion = version; // not retried until the file changes again
+                return;
+            }
+        }
+        loadedVersion = version;
+        fbs.repriceFlights();
+    }
+
+    /**
+     * Does nothing: the rules are only ever edited by hand.
+     *
+     * @param fbs the flight booking system
+     */
+    @Override
+    public void storeData(FlightBookingSystem fbs) {
+    }
+
+    /**
+     * Checks the rules file for changes every {@code intervalMillis} in the
+     * background, reloading it and repricing the given system when it
+     * changes. Replaces the system watched by an earlier call.
+     *
+     * @param fbs            the flight booking system to reprice
+     * @param intervalMillis how often to check the file, or 0 to stop checking
+     */
+    public synchronized void watch(FlightBookingSystem fbs, long intervalMillis) {
+        watched = fbs;
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher = null;
+        }
+        if (intervalMillis > 0) {
+            watcher = new Thread(() -> poll(intervalMillis), "pricing-rules");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    private void poll(long intervalMillis) {
+        String seen = loadedVersion;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+                // a change is only loaded once the file has stayed the same for a whole
+                // interval, so a file still being written is not read half done
+                String version = version();
+                if (Objects.equals(version, seen)) {
+                    loadData(watched);
+                }
+                seen = version;
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Warning: Could not read pricing rules: " + e.getMessage());
+            }
+        }
+    }
+
+    /** @return the modification time and size of the file, or null if there is none */
+    private String version() throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.lastModifiedTime() + "/" + attributes.size();
+    }
+}
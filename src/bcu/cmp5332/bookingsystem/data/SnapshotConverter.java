@@ -0,0 +1,103 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+
+/**
+ * Converts the stored data between the "::" text files and the binary
+ * snapshot written by {@link BinarySnapshotManager}, or the record store of
+ * {@link LsmStorageEngine}.
+ *
+ * Usage: java bcu.cmp5332.bookingsystem.data.SnapshotConverter
+ * to-binary|to-text|to-engine|engine-to-text
+ */
+public class SnapshotConverter {
+
+    /**
+     * Reads the text data files and writes them as a binary snapshot.
+     *
+     * @throws Exception if either format cannot be read or written
+     */
+    public static void textToBinary() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        DataManager[] managers = { new FlightDataManager(), new CustomerDataManager(),
+                new BookingDataManager(), new PaymentDataManager() };
+        for (DataManager dm : managers) {
+            dm.loadData(fbs);
+        }
+        new BinarySnapshotManager().storeData(fbs);
+    }
+
+    /**
+     * Reads the binary snapshot and writes it out as the text data files.
+     *
+     * @throws Exception if either format cannot be read or written
+     */
+    public static void binaryToText() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        new BinarySnapshotManager().loadData(fbs);
+        DataManager[] managers = { new FlightDataManager(), new CustomerDataManager(),
+                new BookingDataManager(), new PaymentDataManager() };
+        for (DataManager dm : managers) {
+            dm.storeData(fbs);
+        }
+    }
+
+    /**
+     * Reads the text data files and replaces the contents of the storage
+     * engine with them.
+     *
+     * @throws Exception if the text files cannot be read or the engine written
+     */
+    public static void textToEngine() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        DataManager[] managers = { new FlightDataManager(), new CustomerDataManager(),
+                new BookingDataManager(), new PaymentDataManager() };
+        for (DataManager dm : managers) {
+            dm.loadData(fbs);
+        }
+        StorageEngine engine = new LsmStorageEngine();
+        engine.open();
+        try {
+            engine.storeData(fbs);
+        } finally {
+            engine.close();
+        }
+    }
+
+    /**
+     * Reads the storage engine and writes it out as the text data files.
+     * The text format has no cancelled bookings, so those are not exported.
+     *
+     * @throws Exception if the engine cannot be read or the text files written
+     */
+    public static void engineToText() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        StorageEngine engine = new LsmStorageEngine();
+        engine.open();
+        try {
+            engine.loadData(fbs);
+        } finally {
+            engine.close();
+        }
+        DataManager[] managers = { new FlightDataManager(), new CustomerDataManager(),
+                new BookingDataManager(), new PaymentDataManager() };
+        for (DataManager dm : managers) {
+            dm.storeData(fbs);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("to-binary")) {
+            textToBinary();
+        } else if (args.length == 1 && args[0].equals("to-text")) {
+            binaryToText();
+        } else if (args.length == 1 && args[0].equals("to-engine")) {
+            textToEngine();
+        } else if (args.length == 1 && args[0].equals("engine-to-text")) {
+            engineToText();
+        } else {
+            System.err.println("Usage: SnapshotConverter to-binary|to-text|to-engine|engine-to-text");
+            System.exit(1);
+        }
+    }
+}
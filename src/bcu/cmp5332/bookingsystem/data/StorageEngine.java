@@ -0,0 +1,156 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import bcu.cmp5332.bookingsystem.model.Booking;
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystemListener;
+import bcu.cmp5332.bookingsystem.model.Payment;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Storage SPI for engines that store individual records rather than whole
+ * files. On top of the whole-dataset {@link DataManager} operations it offers
+ * point reads and writes by ID and a range scan of flights by departure date,
+ * so a single change is persisted without rewriting the dataset. Engines are
+ * registered as a listener on the system they loaded and persist each
+ * mutation they are notified of.
+ *
+ * The text data managers remain the import/export format: an empty engine is
+ * filled from them by {@link FlightBookingSystemData#load()}, and
+ * {@link SnapshotConverter} can export an engine back to text.
+ */
+public interface StorageEngine extends DataManager, FlightBookingSystemListener {
+
+    /**
+     * Opens the engine, recovering any changes that were written but not yet
+     * merged into its storage files.
+     *
+     * @throws IOException if the storage files cannot be read
+     */
+    void open() throws IOException;
+
+    /**
+     * Closes the engine. Changes already written remain durable.
+     *
+     * @throws IOException if the storage files cannot be closed
+     */
+    void close() throws IOException;
+
+    /**
+     * @return true if the engine holds no records
+     * @throws IOException if the storage files cannot be read
+     */
+    boolean isEmpty() throws IOException;
+
+    /**
+     * @return true if persisting a mutation failed since the last
+     *         {@link #storeData(FlightBookingSystem)}, so storage may be
+     *         missing changes and must be rewritten in full
+     */
+    boolean hasFailed();
+
+    /**
+     * Merges the engine's storage files to reclaim space and speed up reads.
+     *
+     * @throws IOException if the storage files cannot be written
+     */
+    void compact() throws IOException;
+
+    /**
+     * @param id the flight ID
+     * @return the stored flight, or null if there is none
+     * @throws IOException if the storage files cannot be read
+     */
+    Flight getFlight(int id) throws IOException;
+
+    /**
+     * Stores a flight, replacing any flight with the same ID.
+     *
+     * @param flight the flight to store
+     * @throws IOException if the change cannot be written
+     */
+    void putFlight(Flight flight) throws IOException;
+
+    /**
+     * @param id the ID of the flight to remove from storage
+     * @throws IOException if the change cannot be written
+     */
+    void deleteFlight(int id) throws IOException;
+
+    /**
+     * Returns the stored flights departing within a date range, including
+     * deleted ones, ordered by departure date and then ID.
+     *
+     * @param from first departure date to include
+     * @param to   last departure date to include
+     * @return the matching flights
+     * @throws IOException if the storage files cannot be read
+     */
+    List<Flight> scanFlightsByDeparture(LocalDate from, LocalDate to) throws IOException;
+
+    /**
+     * @param id the customer ID
+     * @return the stored customer, or null if there is none
+     * @throws IOException if the storage files cannot be read
+     */
+    Customer getCustomer(int id) throws IOException;
+
+    /**
+     * Stores a customer, replacing any customer with the same ID.
+     *
+     * @param customer the customer to store
+     * @throws IOException if the change cannot be written
+     */
+    void putCustomer(Customer customer) throws IOException;
+
+    /**
+     * @param id the ID of the customer to remove from storage
+     * @throws IOException if the change cannot be written
+     */
+    void deleteCustomer(int id) throws IOException;
+
+    /**
+     * Reads a booking, resolving its customer and flight through the system.
+     *
+     * @param id  the booking ID
+     * @param fbs the system the booking belongs to
+     * @return the stored booking, or null if there is none
+     * @throws IOException                  if the storage files cannot be read
+     * @throws FlightBookingSystemException if the booking's customer or
+     *                                      flight does not exist
+     */
+    Booking getBooking(int id, FlightBookingSystem fbs) throws IOException, FlightBookingSystemException;
+
+    /**
+     * Stores a booking, replacing any booking with the same ID.
+     *
+     * @param booking the booking to store
+     * @throws IOException if the change cannot be written
+     */
+    void putBooking(Booking booking) throws IOException;
+
+    /**
+     * @param id the ID of the booking to remove from storage
+     * @throws IOException if the change cannot be written
+     */
+    void deleteBooking(int id) throws IOException;
+
+    /**
+     * @param bookingId the ID of the booking the payment is for
+     * @return the stored payment, or null if there is none
+     * @throws IOException if the storage files cannot be read
+     */
+    Payment getPayment(int bookingId) throws IOException;
+
+    /**
+     * Stores a payment, replacing any payment for the same booking.
+     *
+     * @param payment the payment to store
+     * @throws IOException if the change cannot be written
+     */
+    void putPayment(Payment payment) throws IOException;
+}
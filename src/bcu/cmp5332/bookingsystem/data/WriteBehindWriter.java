@@ -0,0 +1,192 @@
+package bcu.cmp5332.bookingsystem.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background writer that batches records before handing them to a
+ * {@link BatchWriter}. Records are queued by the calling thread without any
+ * disk I/O and written by a single daemon thread, so they always reach the
+ * writer in submission order.
+ *
+ * A batch is written once the oldest queued record has waited for the
+ * configured window, once the configured number of records is queued, or
+ * as soon as {@link #flush()} is called, whichever comes first. A burst of
+ * mutations therefore costs a handful of writes instead of one per record.
+ */
+public class WriteBehindWriter {
+
+    /**
+     * Destination for batches of records.
+     */
+    public interface BatchWriter {
+
+        /**
+         * Writes a batch of records and makes them durable.
+         *
+         * @param records the records to write, in submission order
+         * @throws IOException if the batch could not be written
+         */
+        void write(List<String> records) throws IOException;
+    }
+
+    private final BatchWriter writer;
+    private final long windowMillis;
+    private final int maxBatch;
+    private final Thread thread;
+
+    /** Records waiting to be written; guarded by this */
+    private List<String> queue = new ArrayList<>();
+
+    /** Time the oldest queued record was submitted */
+    private long queuedSince;
+
+    /** Sequence number of the last submitted record */
+    private long submitted;
+
+    /** Sequence number of the last record handed to the writer */
+    private long written;
+
+    /** Highest sequence number a caller of flush() is waiting for */
+    private long flushRequested;
+
+    /** Failure of the most recent batch, reported to the next flush() */
+    private IOException failure;
+
+    private boolean closed;
+
+    /**
+     * Creates and starts a write-behind writer.
+     *
+     * @param writer       the destination for batches
+     * @param windowMillis how long a record may wait before its batch is written
+     * @param maxBatch     number of queued records that triggers an immediate write
+     */
+    public WriteBehindWriter(BatchWriter writer, long windowMillis, int maxBatch) {
+        this.writer = writer;
+        this.windowMillis = windowMillis;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.thread = new Thread(this::run, "write-behind");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a record to be written by the background thread.
+     *
+     * @param record the record to write
+     * @throws IllegalStateException if the writer has been closed
+     */
+    public synchronized void submit(String record) {
+        if (closed) {
+            throw new IllegalStateException("Write-behind writer is closed");
+        }
+        if (queue.isEmpty()) {
+            queuedSince = System.currentTimeMillis();
+        }
+        queue.add(record);
+        submitted++;
+        if (queue.size() == 1 || queue.size() >= maxBatch) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Writes every record submitted so far without waiting for the window to
+     * elapse, and blocks until the writer has made them durable.
+     *
+     * @throws IOException if a batch failed since the last flush
+     */
+    public synchronized void flush() throws IOException {
+        long target = submitted;
+        if (flushRequested < target) {
+            flushRequested = target;
+            notifyAll();
+        }
+        boolean interrupted = false;
+        while (written < target && thread.isAlive()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            IOException e = failure;
+            failure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Flushes all pending records and stops the background thread.
+     *
+     * @throws IOException if the final batch could not be written
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+        }
+    }
+
+    /** @return the number of records queued but not yet handed to the writer */
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (true) {
+            List<String> batch;
+            synchronized (this) {
+                while (!closed && !batchReady()) {
+                    try {
+                        if (queue.isEmpty()) {
+                            wait();
+                        } else {
+                            wait(Math.max(1, queuedSince + windowMillis - System.currentTimeMillis()));
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return; // closed and drained
+                }
+                batch = queue;
+                queue = new ArrayList<>();
+            }
+            IOException error = null;
+            try {
+                writer.write(batch);
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = new IOException(e);
+            }
+            synchronized (this) {
+                written += batch.size();
+                if (error != null) {
+                    failure = error;
+                    System.err.println("Error writing " + batch.size() + " record(s): " + error.getMessage());
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean batchReady() {
+        return !queue.isEmpty()
+                && (queue.size() >= maxBatch
+                        || flushRequested > written
+                        || System.currentTimeMillis() - queuedSince >= windowMillis);
+    }
+}
@@ -1,6 +1,7 @@
 package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.commands.AddBooking;
+import bcu.cmp5332.bookingsystem.commands.TimedCommand;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import javax.swing.*;
@@ -198,7 +199,7 @@ public class AddBookingWindow extends JFrame implements ActionListener {
             int custId = Integer.parseInt(custIdField.getText());
             int flightId = Integer.parseInt(flightIdField.getText());
             AddBooking addCmd = new AddBooking(custId, flightId, LocalDate.now());
-            addCmd.execute(mw.getFlightBookingSystem());
+            new TimedCommand(addCmd).execute(mw.getFlightBookingSystem());
             Booking latestBooking = mw.getFlightBookingSystem().getBookings()
                     .get(mw.getFlightBookingSystem().getBookings().size() - 1);
             JOptionPane.showMessageDialog(this,
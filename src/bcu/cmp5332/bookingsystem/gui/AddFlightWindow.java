@@ -1,6 +1,8 @@
 package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.commands.AddFlight;
+import bcu.cmp5332.bookingsystem.commands.TimedCommand;
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import javax.swing.*;
 import java.awt.*;
@@ -11,6 +13,8 @@ import java.time.format.DateTimeParseException;
 
 public class AddFlightWindow extends JFrame implements ActionListener {
 
+    private static final Logger LOG = Logger.getLogger(AddFlightWindow.class);
+
     private MainWindow mw;
     private JTextField flightNoField = new JTextField(50); // Increased from default
     private JTextField originField = new JTextField(20); // Increased from default
@@ -150,14 +154,10 @@ public class AddFlightWindow extends JFrame implements ActionListener {
     public void actionPerformed(ActionEvent ae) {
         if (ae.getSource() == addBtn) {
             try {
-                // Debug prints
-                System.out.println("Attempting to add flight with following details:");
-                System.out.println("Flight Number: " + flightNoField.getText());
-                System.out.println("Origin: " + originField.getText());
-                System.out.println("Destination: " + destinationField.getText());
-                System.out.println("Date: " + departureDateField.getText());
-                System.out.println("Price: " + priceField.getText());
-                System.out.println("Capacity: " + capacityField.getText());
+                LOG.debug(() -> "Attempting to add flight: number " + flightNoField.getText()
+                        + ", origin " + originField.getText() + ", destination " + destinationField.getText()
+                        + ", date " + departureDateField.getText() + ", price " + priceField.getText()
+                        + ", capacity " + capacityField.getText());
 
                 // Validate date format
                 LocalDate departureDate;
@@ -199,10 +199,9 @@ public class AddFlightWindow extends JFrame implements ActionListener {
                         departureDate,
                         price,
                         capacity);
-                addFlight.execute(mw.getFlightBookingSystem());
+                new TimedCommand(addFlight).execute(mw.getFlightBookingSystem());
 
-                // Debug print
-                System.out.println("Flight added successfully");
+                LOG.debug(() -> "Flight added successfully");
 
                 // Refresh the flights display and close the window
                 mw.displayUpcomingFlights();
@@ -213,8 +212,7 @@ public class AddFlightWindow extends JFrame implements ActionListener {
                         JOptionPane.INFORMATION_MESSAGE);
 
             } catch (FlightBookingSystemException ex) {
-                // Debug print
-                System.out.println("Error adding flight: " + ex.getMessage());
+                LOG.debug(() -> "Error adding flight: " + ex.getMessage());
                 JOptionPane.showMessageDialog(this, ex.getMessage(),
                         "Error", JOptionPane.ERROR_MESSAGE);
             }
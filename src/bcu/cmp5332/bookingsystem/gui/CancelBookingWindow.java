@@ -1,6 +1,7 @@
 package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.commands.CancelBooking;
+import bcu.cmp5332.bookingsystem.commands.TimedCommand;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import javax.swing.*;
@@ -149,7 +150,7 @@ public class CancelBookingWindow extends JFrame implements ActionListener {
                         "Confirm Cancellation", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
                     CancelBooking cancelCmd = new CancelBooking(bookingId, cancellationFee);
-                    cancelCmd.execute(mw.getFlightBookingSystem());
+                    new TimedCommand(cancelCmd).execute(mw.getFlightBookingSystem());
                     mw.displayBookings();
                     this.dispose();
                 }
@@ -2,13 +2,13 @@ package bcu.cmp5332.bookingsystem.gui;
 
 import bcu.cmp5332.bookingsystem.model.Flight;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import bcu.cmp5332.bookingsystem.model.FlightQuery;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A GUI window that allows users to filter flights based on various criteria.
@@ -191,32 +191,15 @@ public class FilterFlightsWindow extends JFrame implements ActionListener {
             }
         }
 
-        List<Flight> filtered = new ArrayList<>();
-        for (Flight flight : fbs.getFlights()) {
-            boolean matches = true;
-            if (!origin.isEmpty() && !flight.getOrigin().equalsIgnoreCase(origin)) {
-                matches = false;
-            }
-            if (!destination.isEmpty() && !flight.getDestination().equalsIgnoreCase(destination)) {
-                matches = false;
-            }
-            if (filterDate != null && !flight.getDepartureDate().isEqual(filterDate)) {
-                matches = false;
-            }
-            double dynamicPrice = flight.calculatePrice(LocalDate.now());
-            if (minPrice != null && dynamicPrice < minPrice) {
-                matches = false;
-            }
-            if (maxPrice != null && dynamicPrice > maxPrice) {
-                matches = false;
-            }
-            if (matches) {
-                filtered.add(flight);
-            }
-        }
+        List<Flight> filtered = fbs.searchFlights(new FlightQuery()
+                .origin(origin)
+                .destination(destination)
+                .departing(filterDate, filterDate)
+                .priceBetween(minPrice, maxPrice));
 
         String[] columns = { "ID", "Flight Number", "Origin", "Destination", "Departure Date", "Dynamic Price" };
         Object[][] data = new Object[filtered.size()][6];
+        double[] prices = fbs.priceFlights(filtered, LocalDate.now());
         for (int i = 0; i < filtered.size(); i++) {
             Flight f = filtered.get(i);
             data[i][0] = f.getId();
@@ -224,7 +207,7 @@ public class FilterFlightsWindow extends JFrame implements ActionListener {
             data[i][2] = f.getOrigin();
             data[i][3] = f.getDestination();
             data[i][4] = f.getDepartureDate();
-            data[i][5] = f.calculatePrice(LocalDate.now());
+            data[i][5] = prices[i];
         }
 
         resultsTable.setModel(new javax.swing.table.DefaultTableModel(data, columns));
@@ -1,5 +1,6 @@
 package bcu.cmp5332.bookingsystem.gui;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.model.Booking;
 import bcu.cmp5332.bookingsystem.model.Customer;
 import bcu.cmp5332.bookingsystem.model.Flight;
@@ -15,6 +16,7 @@ import java.awt.event.*;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
 public class MainWindow extends JFrame implements ActionListener {
 
     private static final long serialVersionUID = 1L;
+    private static final Logger LOG = Logger.getLogger(MainWindow.class);
     private final FlightBookingSystem fbs;
     private JTable currentTable;
     private boolean isAdmin = true;
@@ -239,9 +242,9 @@ public class MainWindow extends JFrame implements ActionListener {
         statsPanel.setOpaque(false);
 
         // Add system statistics
-        addStatsLabel(statsPanel, "Total Flights", fbs.getFlights().size());
-        addStatsLabel(statsPanel, "Total Customers", fbs.getCustomers().size());
-        addStatsLabel(statsPanel, "Total Bookings", fbs.getBookings().size());
+        addStatsLabel(statsPanel, "Total Flights", fbs.getActiveFlightCount());
+        addStatsLabel(statsPanel, "Total Customers", fbs.getActiveCustomerCount());
+        addStatsLabel(statsPanel, "Total Bookings", fbs.getBookingsView().size());
 
         // Layout components
         JPanel centerPanel = new JPanel(new BorderLayout(20, 20));
@@ -393,9 +396,9 @@ public class MainWindow extends JFrame implements ActionListener {
         setJMenuBar(menuBar);
     }
 
-    // --- Refresh Table with debug print ---
+    // --- Refresh Table with debug log ---
     private void refreshTable(JTable table, String title) {
-        System.out.println("Refreshing table: " + title);
+        LOG.debug(() -> "Refreshing table: " + title);
         getContentPane().removeAll();
         JScrollPane scrollPane = new JScrollPane(table);
         getContentPane().add(scrollPane, BorderLayout.CENTER);
@@ -435,10 +438,10 @@ public class MainWindow extends JFrame implements ActionListener {
                     int row = table.getSelectedRow();
                     if (row != -1) {
                         int flightId = (int) table.getValueAt(row, 0);
-                        System.out.println("Double-clicked flight ID: " + flightId);
+                        LOG.debug(() -> "Double-clicked flight ID: " + flightId);
                         displayFlightDetails(flightId);
                     } else {
-                        System.out.println("No row selected on double-click.");
+                        LOG.debug(() -> "No row selected on double-click.");
                     }
                 }
             }
@@ -591,10 +594,10 @@ public class MainWindow extends JFrame implements ActionListener {
     public void displayFlightDetails(int flightId) {
         try {
             Flight flight = fbs.getFlightByID(flightId);
-            List<Customer> passengers = flight.getPassengers();
+            Collection<Booking> passengers = fbs.getBookingsForFlight(flightId);
 
-            System.out.println("DEBUG: Displaying details for flight " + flight.getFlightNumber());
-            System.out.println("DEBUG: Number of passengers found: " + passengers.size());
+            LOG.debug(() -> "Displaying details for flight " + flight.getFlightNumber());
+            LOG.debug(() -> "Number of passengers found: " + passengers.size());
 
             StringBuilder details = new StringBuilder();
             details.append("Flight Details:\n")
@@ -611,7 +614,8 @@ public class MainWindow extends JFrame implements ActionListener {
             if (passengers.isEmpty()) {
                 details.append("No passengers have booked this flight.");
             } else {
-                for (Customer c : passengers) {
+                for (Booking booking : passengers) {
+                    Customer c = booking.getCustomer();
                     details.append("• ").append(c.getName())
                             .append(" (Phone: ").append(c.getPhone())
                             .append(", Email: ").append(c.getEmail()).append(")\n");
@@ -750,10 +754,10 @@ public class MainWindow extends JFrame implements ActionListener {
                     int row = table.getSelectedRow();
                     if (row != -1) {
                         int customerId = (int) table.getValueAt(row, 0);
-                        System.out.println("Double-clicked active customer ID: " + customerId);
+                        LOG.debug(() -> "Double-clicked active customer ID: " + customerId);
                         showCustomerBookingDetails(customerId);
                     } else {
-                        System.out.println("No row selected on double-click.");
+                        LOG.debug(() -> "No row selected on double-click.");
                     }
                 }
             }
@@ -862,7 +866,7 @@ public class MainWindow extends JFrame implements ActionListener {
             data[i][1] = c.getName();
             data[i][2] = c.getPhone();
             data[i][3] = c.getEmail();
-            data[i][4] = c.getBookings().size();
+            data[i][4] = c.getBookingsView().size();
         }
 
         JTable table = new JTable(data, columns) {
@@ -974,7 +978,7 @@ public class MainWindow extends JFrame implements ActionListener {
             data[0][1] = customer.getName();
             data[0][2] = customer.getPhone();
             data[0][3] = customer.getEmail();
-            data[0][4] = customer.getBookings().size();
+            data[0][4] = customer.getBookingsView().size();
             refreshTable(new JTable(data, columns), "My Details");
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(),
@@ -1082,6 +1086,7 @@ public class MainWindow extends JFrame implements ActionListener {
     private void exitApplication() throws Exception {
         try {
             FlightBookingSystemData.store(fbs);
+            FlightBookingSystemData.flush();
         } catch (IOException ex) {
             JOptionPane.showMessageDialog(this, "Error saving data: " + ex.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -1091,8 +1096,7 @@ public class MainWindow extends JFrame implements ActionListener {
     }
 
     public FlightBookingSystem getFlightBookingSystem() {
-        // Add debug print
-        System.out.println("DEBUG: Current flights in system: " + fbs.getFlights().size());
+        LOG.debug(() -> "Current flights in system: " + fbs.getActiveFlightCount());
         return fbs;
     }
 
@@ -1156,13 +1160,14 @@ public class MainWindow extends JFrame implements ActionListener {
     private void displayCustomerFlights(int customerId) {
         try {
             Customer customer = fbs.getCustomerByID(customerId);
-            List<Flight> customerFlights = customer.getBookings().stream()
+            List<Flight> customerFlights = customer.getBookingsView().stream()
                     .map(Booking::getFlight)
                     .collect(Collectors.toList());
 
             // Create table model
             String[] columns = { "Flight Number", "From", "To", "Date", "Status", "Price" };
             Object[][] data = new Object[customerFlights.size()][6];
+            double[] prices = fbs.priceFlights(customerFlights, LocalDate.now());
 
             for (int i = 0; i < customerFlights.size(); i++) {
                 Flight flight = customerFlights.get(i);
@@ -1174,7 +1179,7 @@ public class MainWindow extends JFrame implements ActionListener {
                         flight.getDestination(),
                         flight.getDepartureDate(),
                         status,
-                        String.format("$%.2f", flight.calculatePrice(LocalDate.now()))
+                        String.format("$%.2f", prices[i])
                 };
             }
 
@@ -1260,7 +1265,7 @@ public class MainWindow extends JFrame implements ActionListener {
     private void displayCustomerPayments(int customerId) {
         try {
             Customer customer = fbs.getCustomerByID(customerId);
-            List<Booking> unpaidBookings = customer.getBookings().stream()
+            List<Booking> unpaidBookings = customer.getBookingsView().stream()
                     .filter(b -> !b.isPaymentProcessed())
                     .collect(Collectors.toList());
 
@@ -1352,6 +1357,7 @@ public class MainWindow extends JFrame implements ActionListener {
         SwingUtilities.invokeLater(() -> {
             try {
                 FlightBookingSystem fbs = bcu.cmp5332.bookingsystem.data.FlightBookingSystemData.load();
+                bcu.cmp5332.bookingsystem.metrics.Metrics.registerMBean();
                 new LoginWindow(fbs);
             } catch (Exception ex) {
                 System.err.println("Failed to initialize system: " + ex.getMessage());
@@ -5,7 +5,7 @@ import bcu.cmp5332.bookingsystem.model.*;
 import javax.swing.*;
 import javax.swing.table.*;
 import java.awt.*;
-import java.util.List;
+import java.util.Collection;
 import java.time.LocalDate;
 
 /**
@@ -66,8 +66,7 @@ public class MyFlightsWindow extends JFrame {
 
     private void populateTableModel(DefaultTableModel model) {
         try {
-            Customer customer = fbs.getCustomerByID(customerId);
-            for (Booking booking : customer.getBookings()) {
+            for (Booking booking : fbs.getBookingsForCustomer(customerId)) {
                 Flight flight = booking.getFlight();
                 String status = flight.getDepartureDate().isAfter(LocalDate.now()) 
                     ? "Upcoming" : "Past";
@@ -126,8 +125,7 @@ public class MyFlightsWindow extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         try {
-            Customer customer = fbs.getCustomerByID(customerId);
-            List<Booking> bookings = customer.getBookings();
+            Collection<Booking> bookings = fbs.getBookingsForCustomer(customerId);
 
             int upcomingFlights = 0;
             double totalSpent = 0.0;
@@ -1,5 +1,6 @@
 package bcu.cmp5332.bookingsystem.gui;
 
+import bcu.cmp5332.bookingsystem.commands.TimedCommand;
 import bcu.cmp5332.bookingsystem.commands.UpdateBooking;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
 import javax.swing.*;
@@ -129,7 +130,7 @@ public class UpdateBookingWindow extends JFrame implements ActionListener {
             int bookingId = Integer.parseInt(bookingIdField.getText().trim());
             int newFlightId = Integer.parseInt(newFlightIdField.getText().trim());
             UpdateBooking updateCmd = new UpdateBooking(bookingId, newFlightId);
-            updateCmd.execute(mw.getFlightBookingSystem());
+            new TimedCommand(updateCmd).execute(mw.getFlightBookingSystem());
             
             JOptionPane.showMessageDialog(this,
                     "Booking updated successfully",
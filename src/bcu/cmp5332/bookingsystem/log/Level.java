@@ -0,0 +1,9 @@
+package bcu.cmp5332.bookingsystem.log;
+
+/**
+ * Severity of a log message, from least to most severe. A logger set to a
+ * level writes messages of that level and above; {@link #OFF} writes none.
+ */
+public enum Level {
+    DEBUG, INFO, WARN, ERROR, OFF
+}
@@ -0,0 +1,125 @@
+package bcu.cmp5332.bookingsystem.log;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Level-gated logger whose messages are written asynchronously. Messages
+ * are passed as suppliers and only built if their level is enabled, so a
+ * disabled message costs one comparison; code that does more than build a
+ * string to log (for example a loop) should check {@link #isDebugEnabled()}
+ * first. Enabled messages are handed to a ring buffer that a background
+ * thread writes to standard error, so logging never waits for the console.
+ *
+ * All loggers share one level, {@link Level#INFO} unless the system property
+ * {@code bookingsystem.log.level} names another, and it can be changed at
+ * runtime with {@link #setLevel(Level)}.
+ */
+public final class Logger {
+
+    /** The level messages must be at or above to be written */
+    private static volatile Level level = initialLevel();
+
+    /** Where every logger's messages go */
+    private static final RingBufferWriter writer = new RingBufferWriter(8192, System.err);
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param type the class that logs
+     * @return a logger named after the class
+     */
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    /** @param newLevel the level messages must be at or above to be written */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /** @return the level messages must be at or above to be written */
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Waits until every message logged so far has been written.
+     */
+    public static void flush() {
+        writer.flush();
+    }
+
+    /** @return the number of messages dropped because the buffer was full */
+    public static long getDroppedCount() {
+        return writer.getDroppedCount();
+    }
+
+    /**
+     * @param messageLevel a level
+     * @return whether messages of that level are written
+     */
+    public boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) >= 0 && messageLevel != Level.OFF;
+    }
+
+    /** @return whether debug messages are written */
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    /** @param message builds the message, only if debug messages are written */
+    public void debug(Supplier<String> message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    /** @param message builds the message, only if info messages are written */
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message, null);
+    }
+
+    /** @param message builds the message, only if warnings are written */
+    public void warn(Supplier<String> message) {
+        log(Level.WARN, message, null);
+    }
+
+    /**
+     * @param message builds the message, only if errors are written
+     * @param cause   the exception behind the error, written with its stack
+     *                trace; may be null
+     */
+    public void error(Supplier<String> message, Throwable cause) {
+        log(Level.ERROR, message, cause);
+    }
+
+    /**
+     * Logs a message if its level is enabled. The message is built on the
+     * calling thread, so it sees the state at the time of the call.
+     *
+     * @param messageLevel the message's level
+     * @param message      builds the message
+     * @param cause        an exception to write with the message; may be null
+     */
+    public void log(Level messageLevel, Supplier<String> message, Throwable cause) {
+        if (isEnabled(messageLevel)) {
+            writer.offer(new RingBufferWriter.Entry(System.currentTimeMillis(), messageLevel, name,
+                    message.get(), cause));
+        }
+    }
+
+    private static Level initialLevel() {
+        String configured = System.getProperty("bookingsystem.log.level");
+        if (configured != null) {
+            try {
+                return Level.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Warning: Unknown log level " + configured + ", using INFO");
+            }
+        }
+        return Level.INFO;
+    }
+}
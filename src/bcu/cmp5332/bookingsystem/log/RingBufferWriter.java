@@ -0,0 +1,161 @@
+package bcu.cmp5332.bookingsystem.log;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue of log entries written to a stream by a background thread.
+ * The queue is a ring buffer that any number of threads add to without
+ * locking: a thread claims the next slot by advancing the tail and then
+ * fills it, and the writer thread empties slots in order from the head.
+ * When the buffer is full a new entry is dropped and counted rather than
+ * making the caller wait. The writer sleeps while the buffer is empty and
+ * is woken by the next entry.
+ */
+final class RingBufferWriter {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    /** Longest time {@link #flush()} waits for the writer */
+    private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+    /** One log message waiting to be written */
+    static final class Entry {
+        final long timeMillis;
+        final Level level;
+        final String logger;
+        final String message;
+        final Throwable cause;
+
+        Entry(long timeMillis, Level level, String logger, String message, Throwable cause) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.logger = logger;
+            this.message = message;
+            this.cause = cause;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final PrintStream out;
+
+    /** Number of slots ever claimed */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Number of slots ever emptied; only the writer thread moves it */
+    private volatile long head;
+
+    /** Number of entries ever written out */
+    private volatile long written;
+
+    /** Whether the writer thread is parked and needs waking */
+    private volatile boolean sleeping;
+
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+
+    /**
+     * Starts a writer.
+     *
+     * @param capacity entries the buffer holds, rounded up to a power of two
+     * @param out      the stream to write to
+     */
+    RingBufferWriter(int capacity, PrintStream out) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.out = out;
+        thread = new Thread(this::run, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-flush"));
+    }
+
+    /**
+     * Queues an entry without waiting.
+     *
+     * @param entry the entry
+     * @return false if the buffer was full and the entry was dropped
+     */
+    boolean offer(Entry entry) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.set((int) claimed & mask, entry);
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every entry queued before the call has been written, or
+     * about a second has passed.
+     */
+    void flush() {
+        long target = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MILLIS);
+        while (written < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        out.flush();
+    }
+
+    /** @return the number of entries dropped because the buffer was full */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void run() {
+        StringBuilder line = new StringBuilder();
+        long next = 0;
+        while (true) {
+            int index = (int) next & mask;
+            Entry entry = slots.get(index);
+            if (entry != null) {
+                // the slot is emptied before the head moves past it, so it is free when claimed again
+                slots.set(index, null);
+                head = ++next;
+                write(line, entry);
+                written = next;
+                continue;
+            }
+            out.flush();
+            sleeping = true;
+            if (slots.get(index) == null) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            sleeping = false;
+        }
+    }
+
+    private void write(StringBuilder line, Entry entry) {
+        line.setLength(0);
+        LocalTime time = LocalTime.ofInstant(Instant.ofEpochMilli(entry.timeMillis), ZoneId.systemDefault());
+        TIME.formatTo(time, line);
+        line.append(' ').append(entry.level).append(" [").append(entry.logger).append("] ").append(entry.message);
+        if (entry.cause != null) {
+            StringWriter trace = new StringWriter();
+            entry.cause.printStackTrace(new PrintWriter(trace));
+            line.append(System.lineSeparator()).append(trace.toString().trim());
+        }
+        out.println(line);
+    }
+}
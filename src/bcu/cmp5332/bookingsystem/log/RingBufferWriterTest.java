@@ -0,0 +1,70 @@
+package bcu.cmp5332.bookingsystem.log;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class RingBufferWriterTest {
+
+    @Test
+    void testEveryEntryWrittenOnceWhenNoneDropped() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RingBufferWriter writer = new RingBufferWriter(1 << 16, new PrintStream(bytes, true));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    writer.offer(new RingBufferWriter.Entry(0, Level.INFO, "test", thread + "-" + i, null));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.flush();
+
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator());
+        Set<String> messages = new HashSet<>();
+        for (String line : lines) {
+            assertTrue(line.contains(" INFO [test] "));
+            messages.add(line.substring(line.lastIndexOf(' ') + 1));
+        }
+        assertEquals(0, writer.getDroppedCount());
+        assertEquals(20000, lines.length);
+        assertEquals(20000, messages.size());
+    }
+
+    @Test
+    void testDisabledMessagesNotBuilt() {
+        Level previous = Logger.getLevel();
+        try {
+            Logger.setLevel(Level.WARN);
+            Logger logger = Logger.getLogger(RingBufferWriterTest.class);
+            boolean[] built = new boolean[1];
+            logger.debug(() -> {
+                built[0] = true;
+                return "not written";
+            });
+
+            assertFalse(built[0]);
+            assertFalse(logger.isDebugEnabled());
+            assertTrue(logger.isEnabled(Level.ERROR));
+            assertFalse(logger.isEnabled(Level.OFF));
+            assertTrue(Arrays.asList(Level.values()).indexOf(Level.WARN) > 0);
+        } finally {
+            Logger.setLevel(previous);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package bcu.cmp5332.bookingsystem.main;
+
+import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs a batch of commands without any user interaction, one command per
+ * line in the syntax of {@link CommandParser#parseBatch(String)}. Blank lines
+ * and lines starting with # are skipped, and a line reading exit ends the
+ * batch early.
+ *
+ * Reading and parsing run on a separate thread a bounded number of lines
+ * ahead of execution, so commands are executed back to back in file order.
+ * A command that fails is reported and the batch carries on. The system is
+ * stored once, after the last command, rather than after each change.
+ *
+ * A result line is printed for each command, followed by a summary of the
+ * number of commands that succeeded and failed and the throughput.
+ */
+public class BatchRunner {
+
+    /** Lines parsed ahead of the command being executed */
+    private static final int PIPELINE_DEPTH = 1024;
+
+    /** One line of the batch, parsed */
+    private static final class ParsedLine {
+        final int lineNumber;
+        final String line;
+        final Command command;
+        final Exception error;
+
+        ParsedLine(int lineNumber, String line, Command command, Exception error) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.command = command;
+            this.error = error;
+        }
+    }
+
+    /** Marks the end of the batch in the pipeline */
+    private static final ParsedLine END = new ParsedLine(0, null, null, null);
+
+    private final FlightBookingSystem fbs;
+    private final PrintStream out;
+
+    private long succeeded;
+    private long failed;
+
+    /**
+     * @param fbs the system to run the commands on
+     * @param out where to print the results
+     */
+    public BatchRunner(FlightBookingSystem fbs, PrintStream out) {
+        this.fbs = fbs;
+        this.out = out;
+    }
+
+    /**
+     * Runs every command read from a reader, then stores the system and waits
+     * until the changes are durable.
+     *
+     * @param in the commands, one per line
+     * @return whether every command succeeded
+     * @throws IOException if the commands cannot be read
+     * @throws Exception   if the system cannot be stored, or reading the
+     *                     commands failed unexpectedly; commands read before
+     *                     the failure have been run but not stored
+     */
+    public boolean run(BufferedReader in) throws Exception {
+        BlockingQueue<ParsedLine> pipeline = new ArrayBlockingQueue<>(PIPELINE_DEPTH);
+        Throwable[] readError = new Throwable[1];
+        Thread reader = new Thread(() -> {
+            try {
+                read(in, pipeline);
+            } catch (InterruptedException ex) {
+                // execution stopped early; putEnd returns without waiting for room
+                Thread.currentThread().interrupt();
+            } catch (Throwable ex) {
+                readError[0] = ex;
+            } finally {
+                // whatever stopped the reader, execution must not wait for more lines
+                putEnd(pipeline);
+            }
+        }, "batch-reader");
+        reader.setDaemon(true);
+
+        long start = System.nanoTime();
+        reader.start();
+        try {
+            for (ParsedLine parsed = pipeline.take(); parsed != END; parsed = pipeline.take()) {
+                execute(parsed);
+            }
+        } finally {
+            reader.interrupt();
+        }
+        reader.join();
+        if (readError[0] instanceof Error) {
+            throw (Error) readError[0];
+        } else if (readError[0] != null) {
+            throw readError[0] instanceof Exception ? (Exception) readError[0] : new Exception(readError[0]);
+        }
+        long executed = System.nanoTime();
+        FlightBookingSystemData.store(fbs);
+        FlightBookingSystemData.flush();
+        long stored = System.nanoTime();
+
+        long commands = succeeded + failed;
+        double seconds = (executed - start) / 1e9;
+        out.println(String.format(Locale.ROOT,
+                "Ran %d commands (%d succeeded, %d failed) in %.3f s, %.0f commands/s; stored in %.1f ms",
+                commands, succeeded, failed, seconds, seconds > 0 ? commands / seconds : 0,
+                (stored - executed) / 1e6));
+        return failed == 0;
+    }
+
+    private void read(BufferedReader in, BlockingQueue<ParsedLine> pipeline)
+            throws IOException, InterruptedException {
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (trimmed.equalsIgnoreCase("exit")) {
+                break;
+            }
+            try {
+                pipeline.put(new ParsedLine(lineNumber, trimmed, CommandParser.parseBatch(trimmed), null));
+            } catch (FlightBookingSystemException ex) {
+                pipeline.put(new ParsedLine(lineNumber, trimmed, null, ex));
+            }
+        }
+    }
+
+    private static void putEnd(BlockingQueue<ParsedLine> pipeline) {
+        try {
+            pipeline.put(END);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(ParsedLine parsed) {
+        Exception error = parsed.error;
+        if (error == null) {
+            try {
+                parsed.command.execute(fbs);
+            } catch (FlightBookingSystemException | RuntimeException ex) {
+                error = ex;
+            }
+        }
+        if (error == null) {
+            succeeded++;
+            out.println("line " + parsed.lineNumber + ": ok: " + parsed.line);
+        } else {
+            failed++;
+            out.println("line " + parsed.lineNumber + ": error: " + error.getMessage() + ": " + parsed.line);
+        }
+    }
+}
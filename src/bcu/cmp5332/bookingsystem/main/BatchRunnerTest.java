@@ -0,0 +1,82 @@
+package bcu.cmp5332.bookingsystem.main;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+class BatchRunnerTest {
+    private static final String COMMANDS = "# customers\n"
+            + "addcustomer Ann::0123::ann@example.com::secret\n"
+            + "\n"
+            + "addcustomer Bob::0456::bob@example.com::secret\n";
+
+    private FlightBookingSystem fbs;
+    private ByteArrayOutputStream output;
+    private BatchRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        fbs = new FlightBookingSystem();
+        output = new ByteArrayOutputStream();
+        runner = new BatchRunner(fbs, new PrintStream(output, true));
+    }
+
+    /** A reader that returns the commands, then fails with the given throwable instead of ending */
+    private static BufferedReader failingAfterCommands(Throwable failure) {
+        return new BufferedReader(new StringReader(COMMANDS)) {
+            @Override
+            public String readLine() throws IOException {
+                String line = super.readLine();
+                if (line != null) {
+                    return line;
+                }
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
+                }
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw (RuntimeException) failure;
+            }
+        };
+    }
+
+    private String output() {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testReadErrorRethrownAfterEarlierCommandsRun() {
+        IOException failure = new IOException("disk gone");
+
+        assertSame(failure, assertThrows(IOException.class, () -> runner.run(failingAfterCommands(failure))));
+        assertEquals(2, fbs.getCustomers().size());
+        assertTrue(output().contains("line 2: ok: addcustomer Ann"), output());
+        assertTrue(output().contains("line 4: ok: addcustomer Bob"), output());
+    }
+
+    @Test
+    void testRuntimeExceptionInReaderDoesNotHangBatch() {
+        IllegalStateException failure = new IllegalStateException("reader broke");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> runner.run(failingAfterCommands(failure))));
+        assertEquals(2, fbs.getCustomers().size());
+    }
+
+    @Test
+    void testErrorInReaderDoesNotHangBatch() {
+        OutOfMemoryError failure = new OutOfMemoryError("no room for lines");
+
+        assertSame(failure, assertThrows(OutOfMemoryError.class, () -> runner.run(failingAfterCommands(failure))));
+        assertEquals(2, fbs.getCustomers().size());
+    }
+}
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 
 /**
  * Parses user commands and creates corresponding Command objects for the Flight Booking System.
@@ -19,7 +20,8 @@ public class CommandParser {
     /**
      * Parses a command line input and returns the corresponding Command object.
      * Supports various commands including adding flights/customers, listing data,
-     * managing bookings, and system operations.
+     * managing bookings, and system operations. The command is wrapped in a
+     * {@link TimedCommand} so its executions show up in the metrics.
      *
      * @param line The command line input to parse
      * @return A Command object corresponding to the input
@@ -27,11 +29,59 @@ public class CommandParser {
      * @throws FlightBookingSystemException If the command is invalid or cannot be executed
      */
     public static Command parse(String line) throws IOException, FlightBookingSystemException {
+        return new TimedCommand(parseCommand(line, true));
+    }
+
+    /**
+     * Parses a fully specified command without prompting for anything, for
+     * batch mode. Commands that otherwise prompt take their values on the
+     * line instead, separated as in the data files:
+     * addflight flightNumber::origin::destination::YYYY-MM-DD::basePrice::capacity
+     * addcustomer name::phone::email::password
+     * cancelbooking [booking id] [cancellation fee]
+     * Bookings are made without a confirmation dialog and are not stored
+     * one by one; the caller stores the system once the batch is done.
+     * The GUI cannot be loaded from a batch.
+     *
+     * @param line The command line to parse
+     * @return A Command object corresponding to the line
+     * @throws FlightBookingSystemException If the command is invalid or incomplete
+     */
+    public static Command parseBatch(String line) throws FlightBookingSystemException {
         try {
-            String[] parts = line.split(" ", 3);
+            return new TimedCommand(parseCommand(line, false));
+        } catch (IOException ex) {
+            // only prompting reads input, and batch commands never prompt
+            throw new FlightBookingSystemException("Invalid command: " + ex.getMessage());
+        }
+    }
+
+    private static Command parseCommand(String line, boolean interactive)
+            throws IOException, FlightBookingSystemException {
+        try {
+            String[] parts = line.trim().split(" ", 3);
             String cmd = parts[0];
+            String arguments = line.trim().substring(cmd.length()).trim();
 
-            if (cmd.equals("addflight")) {
+            if (cmd.equals("addflight") && !arguments.isEmpty()) {
+                String[] fields = fields(arguments, 6,
+                        "flightNumber::origin::destination::date::basePrice::capacity");
+                try {
+                    return new AddFlight(fields[0], fields[1], fields[2], LocalDate.parse(fields[3]),
+                            Double.parseDouble(fields[4]), Integer.parseInt(fields[5]));
+                } catch (DateTimeParseException ex) {
+                    throw new FlightBookingSystemException("Date must be in YYYY-MM-DD format.");
+                }
+            } else if (cmd.equals("addcustomer") && !arguments.isEmpty()) {
+                String[] fields = fields(arguments, 4, "name::phone::email::password");
+                return new AddCustomer(fields[0], fields[1], fields[2], fields[3]);
+            } else if (!interactive && (cmd.equals("addflight") || cmd.equals("addcustomer")
+                    || (cmd.equals("cancelbooking") && parts.length == 2))) {
+                throw new FlightBookingSystemException(
+                        "Command " + cmd + " needs its values on the line in batch mode.");
+            } else if (!interactive && cmd.equals("loadgui")) {
+                throw new FlightBookingSystemException("The GUI cannot be loaded in batch mode.");
+            } else if (cmd.equals("addflight")) {
                 BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
                 System.out.print("Flight Number: ");
                 String flightNumber = reader.readLine();
@@ -69,7 +119,11 @@ public class CommandParser {
             } else if (cmd.equals("addbooking") && parts.length == 3) {
                 int customerId = Integer.parseInt(parts[1]);
                 int flightId = Integer.parseInt(parts[2]);
-                return new AddBooking(customerId, flightId, LocalDate.now());
+                return new AddBooking(customerId, flightId, LocalDate.now(), interactive);
+            } else if (cmd.equals("cancelbooking") && parts.length == 3) {
+                int bookingId = Integer.parseInt(parts[1]);
+                double cancellationFee = Double.parseDouble(parts[2]);
+                return new CancelBooking(bookingId, cancellationFee);
             } else if (cmd.equals("cancelbooking") && parts.length == 2) {
                 int bookingId = Integer.parseInt(parts[1]);
                 BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
@@ -78,6 +132,8 @@ public class CommandParser {
                 return new CancelBooking(bookingId, cancellationFee);
             } else if (cmd.equals("loadgui")) {
                 return new LoadGUI();
+            } else if (cmd.equals("stats")) {
+                return new Stats();
             } else if (cmd.equals("help")) {
                 return new Help();
             }
@@ -87,6 +143,30 @@ public class CommandParser {
         throw new FlightBookingSystemException("Invalid command.");
     }
     
+    /**
+     * Splits the values given on a command line.
+     *
+     * @param arguments the text after the command name
+     * @param count     the number of values expected
+     * @param usage     the expected values, for the error message
+     * @return the values, trimmed
+     * @throws FlightBookingSystemException if there are not exactly that many values
+     */
+    private static String[] fields(String arguments, int count, String usage) throws FlightBookingSystemException {
+        String[] fields = arguments.split("::", -1);
+        // a trailing separator, as the data files write, is allowed
+        if (fields.length == count + 1 && fields[count].trim().isEmpty()) {
+            fields = Arrays.copyOf(fields, count);
+        }
+        if (fields.length != count) {
+            throw new FlightBookingSystemException("Expected " + usage);
+        }
+        for (int i = 0; i < count; i++) {
+            fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+
     /**
      * Attempts to parse a date string into a LocalDate object with a specified number of attempts.
      * Prompts the user repeatedly until a valid date is entered or attempts are exhausted.
@@ -0,0 +1,86 @@
+package bcu.cmp5332.bookingsystem.main;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.model.Customer;
+import bcu.cmp5332.bookingsystem.model.Flight;
+import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+
+class CommandParserTest {
+
+    private static String message(String line) {
+        return assertThrows(FlightBookingSystemException.class, () -> CommandParser.parseBatch(line)).getMessage();
+    }
+
+    @Test
+    void testParseBatchTakesValuesFromLine() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+
+        CommandParser.parseBatch("addflight FL1 :: LHR::JFK::2030-01-15::120.50::150::").execute(fbs);
+        CommandParser.parseBatch("addcustomer Ann Smith::0123::ann@example.com::secret").execute(fbs);
+
+        Flight flight = fbs.getFlightByID(1);
+        assertEquals("FL1", flight.getFlightNumber());
+        assertEquals("LHR", flight.getOrigin());
+        assertEquals(LocalDate.of(2030, 1, 15), flight.getDepartureDate());
+        assertEquals(120.5, flight.getBasePrice());
+        assertEquals(150, flight.getCapacity());
+        Customer customer = fbs.getCustomerByID(1);
+        assertEquals("Ann Smith", customer.getName());
+        assertEquals("secret", customer.getPassword());
+    }
+
+    @Test
+    void testParseBatchBooksAndCancelsWithoutPrompting() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", LocalDate.now().plusDays(30), 100.0, 10));
+        fbs.addCustomer(new Customer(1, "Ann", "0123", "ann@example.com", "secret"));
+
+        CommandParser.parseBatch("addbooking 1 1").execute(fbs);
+        assertEquals(1, fbs.getBookings().size());
+        int bookingId = fbs.getBookings().get(0).getId();
+        CommandParser.parseBatch("cancelbooking " + bookingId + " 0").execute(fbs);
+        assertTrue(fbs.getBookingByID(bookingId).isCancelled());
+    }
+
+    @Test
+    void testParseBatchRejectsCommandsThatWouldPrompt() {
+        assertTrue(message("addflight").contains("needs its values on the line"));
+        assertTrue(message("addcustomer").contains("needs its values on the line"));
+        assertTrue(message("cancelbooking 3").contains("needs its values on the line"));
+        assertEquals("The GUI cannot be loaded in batch mode.", message("loadgui"));
+    }
+
+    @Test
+    void testParseBatchRejectsMalformedLines() {
+        assertEquals("Expected flightNumber::origin::destination::date::basePrice::capacity",
+                message("addflight FL1::LHR::JFK::2030-01-15::120"));
+        assertEquals("Date must be in YYYY-MM-DD format.", message("addflight FL1::LHR::JFK::15/01/2030::120::150"));
+        assertEquals("Invalid command.", message("addflight FL1::LHR::JFK::2030-01-15::cheap::150"));
+        assertEquals("Invalid command.", message("addbooking 1 x"));
+        assertEquals("Invalid command.", message("fly me to the moon"));
+    }
+
+    @Test
+    void testBatchCommandsLeaveStandardOutputToRunner() throws Exception {
+        FlightBookingSystem fbs = new FlightBookingSystem();
+        fbs.addFlight(new Flight(1, "FL1", "LHR", "JFK", LocalDate.now().plusDays(30), 100.0, 10));
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(stdout, true));
+        try {
+            CommandParser.parseBatch("addcustomer Ann::0123::ann@example.com::secret").execute(fbs);
+            CommandParser.parseBatch("addbooking 1 1").execute(fbs);
+            CommandParser.parseBatch("cancelbooking " + fbs.getBookings().get(0).getId() + " 0").execute(fbs);
+        } finally {
+            System.setOut(original);
+        }
+
+        assertEquals(0, stdout.size(), stdout.toString());
+        assertEquals(1, fbs.getCancelledBookings().size());
+    }
+}
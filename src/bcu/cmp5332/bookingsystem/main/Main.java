@@ -3,15 +3,22 @@ package bcu.cmp5332.bookingsystem.main;
 import bcu.cmp5332.bookingsystem.data.FlightBookingSystemData;
 import bcu.cmp5332.bookingsystem.model.FlightBookingSystem;
 import bcu.cmp5332.bookingsystem.commands.Command;
+import bcu.cmp5332.bookingsystem.metrics.Metrics;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class Main {
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args.length > 1 ? args[1] : "-"));
+        }
         FlightBookingSystem fbs = null;
         try (BufferedReader br = new BufferedReader(new InputStreamReader(System.in))) {
             fbs = FlightBookingSystemData.load();
+            Metrics.registerMBean();
 
             System.out.println("Flight Booking System");
             System.out.println("Enter 'help' for command list or 'loadgui' to launch GUI");
@@ -23,6 +30,7 @@ public class Main {
                 if (line.trim().equalsIgnoreCase("exit")) {
                     if (fbs != null) {
                         FlightBookingSystemData.store(fbs);
+                        FlightBookingSystemData.flush();
                     }
                     System.exit(0);
                 }
@@ -44,4 +52,24 @@ public class Main {
             System.exit(1);
         }
     }
+
+    /**
+     * Runs a batch of commands from a file, or from standard input if the
+     * file is "-", with {@link BatchRunner}.
+     *
+     * @param file the file of commands, or "-"
+     * @return the exit status: 0 if every command succeeded, 1 if any failed
+     *         or the batch could not be run
+     */
+    private static int runBatch(String file) {
+        try (BufferedReader in = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Paths.get(file))) {
+            FlightBookingSystem fbs = FlightBookingSystemData.load();
+            return new BatchRunner(fbs, System.out).run(in) ? 0 : 1;
+        } catch (Exception ex) {
+            System.err.println("Batch error: " + ex.getMessage());
+            return 1;
+        }
+    }
 }
\ No newline at end of file
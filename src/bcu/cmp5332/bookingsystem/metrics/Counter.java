@@ -0,0 +1,27 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count of events, safe to increment from any number of threads without
+ * contention.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    /** Counts one event */
+    public void increment() {
+        value.increment();
+    }
+
+    /** @param n the number of events to count */
+    public void add(long n) {
+        value.add(n);
+    }
+
+    /** @return the number of events counted */
+    public long get() {
+        return value.sum();
+    }
+}
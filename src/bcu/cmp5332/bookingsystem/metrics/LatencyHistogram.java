@@ -0,0 +1,124 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with a fixed relative precision, in
+ * the manner of an HDR histogram. Values below 64 have a bucket each; above
+ * that every power of two is split into 32 buckets, so a recorded value is
+ * known to within about 3% wherever it falls, from nanoseconds to hours,
+ * with under two thousand buckets.
+ *
+ * Recording is a few arithmetic operations and atomic increments, allocates
+ * nothing and is safe from any number of threads. Percentiles are read by
+ * scanning the buckets, and may miss values recorded during the scan.
+ */
+public final class LatencyHistogram {
+
+    /** Bits of a value kept below its highest set bit */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** Buckets each power of two is split into */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Enough buckets for every non-negative long */
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /** @return the number of latencies recorded */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** @return the mean latency in nanoseconds, or 0 if none was recorded */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /** @return the highest latency recorded in nanoseconds, or 0 if none was */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile a percentile from 0 to 100
+     * @return the latency in nanoseconds that this percentage of the
+     *         recorded latencies were no greater than, or 0 if none was
+     *         recorded
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Reads several percentiles from one scan of the buckets, so they are
+     * consistent with each other.
+     *
+     * @param percentiles percentiles from 0 to 100, in increasing order
+     * @return the latency in nanoseconds for each percentile
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        long[] values = new long[percentiles.length];
+        if (n == 0) {
+            return values;
+        }
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * n));
+            while (seen < rank && bucket < BUCKETS - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[p] = Math.min(middle(bucket), max.get());
+        }
+        return values;
+    }
+
+    /** @return the bucket a value is counted in */
+    static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /** @return the value in the middle of a bucket's range */
+    static long middle(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+}
@@ -0,0 +1,45 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500.0, histogram.getMean(), 1e-6);
+        assertEquals(1_000_000, histogram.getMax());
+        long[] p = histogram.getPercentiles(50, 99, 100);
+        assertEquals(500_000, p[0], 500_000 * 0.02);
+        assertEquals(990_000, p[1], 990_000 * 0.02);
+        assertEquals(1_000_000, p[2], 1_000_000 * 0.02);
+    }
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket == previous || bucket == previous + 1);
+            long middle = LatencyHistogram.middle(bucket);
+            assertTrue(Math.abs(middle - value) <= value / 32 + 1);
+            previous = bucket;
+        }
+        LatencyHistogram.middle(LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
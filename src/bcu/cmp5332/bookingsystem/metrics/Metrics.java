@@ -0,0 +1,167 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the system's runtime metrics: counters, gauges and latency
+ * histograms, each identified by a dotted name such as
+ * {@code command.addbooking}. Metrics are created the first time they are
+ * asked for, so instrumented code just names what it measures.
+ *
+ * Code on a hot path should look a metric up once and keep it, as recording
+ * into a metric allocates nothing but looking one up costs a map access.
+ * The metrics can be printed with {@link #report()} (the CLI "stats" command)
+ * and read over JMX once {@link #registerMBean()} has been called.
+ */
+public final class Metrics {
+
+    /** The name the metrics are registered under with JMX */
+    public static final String OBJECT_NAME = "bcu.cmp5332.bookingsystem:type=Metrics";
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /** A timed piece of work that returns nothing */
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * @param name the counter's name
+     * @return the counter with that name, created if there is none
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * @param name the histogram's name
+     * @return the latency histogram with that name, created if there is none
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge, whose value is read each time the metrics are. A
+     * gauge already registered under the name is replaced.
+     *
+     * @param name  the gauge's name
+     * @param value supplies the current value; it must be cheap and safe to
+     *              call from any thread
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Runs a piece of work and records how long it took, whether it returned
+     * or threw.
+     *
+     * @param name the histogram to record the latency in
+     * @param work the work
+     * @return the work's result
+     * @throws Exception whatever the work threw
+     */
+    public static <T> T time(String name, Callable<T> work) throws Exception {
+        LatencyHistogram histogram = histogram(name);
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a piece of work and records how long it took, whether it returned
+     * or threw.
+     *
+     * @param name the histogram to record the latency in
+     * @param work the work
+     * @throws Exception whatever the work threw
+     */
+    public static void time(String name, Action work) throws Exception {
+        LatencyHistogram histogram = histogram(name);
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /** @return the counters by name, in name order */
+    public static SortedMap<String, Counter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    /** @return the gauges by name, in name order */
+    public static SortedMap<String, LongSupplier> getGauges() {
+        return new TreeMap<>(gauges);
+    }
+
+    /** @return the latency histograms by name, in name order */
+    public static SortedMap<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Makes the metrics readable over JMX under {@link #OBJECT_NAME}. Does
+     * nothing if they already are.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(), name);
+            }
+        } catch (JMException ex) {
+            System.err.println("Warning: Could not register metrics with JMX: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Formats every metric as a table: counters and gauges with their value,
+     * and latency histograms with their count and their mean, median, 90th
+     * and 99th percentile and maximum in milliseconds.
+     *
+     * @return the report
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        if (!counters.isEmpty() || !gauges.isEmpty()) {
+            sb.append(String.format(Locale.ROOT, "%-40s %12s%n", "Metric", "Value"));
+            getCounters().forEach((name, counter) ->
+                    sb.append(String.format(Locale.ROOT, "%-40s %12d%n", name, counter.get())));
+            getGauges().forEach((name, gauge) ->
+                    sb.append(String.format(Locale.ROOT, "%-40s %12d%n", name, gauge.getAsLong())));
+        }
+        if (!histograms.isEmpty()) {
+            sb.append(String.format(Locale.ROOT, "%-40s %10s %10s %10s %10s %10s %10s%n",
+                    "Latency (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+            getHistograms().forEach((name, histogram) -> {
+                long[] p = histogram.getPercentiles(50, 90, 99);
+                sb.append(String.format(Locale.ROOT, "%-40s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                        name, histogram.getCount(), histogram.getMean() / 1e6,
+                        p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, histogram.getMax() / 1e6));
+            });
+        }
+        return sb.length() == 0 ? "No metrics recorded yet." : sb.toString().trim();
+    }
+}
@@ -0,0 +1,113 @@
+package bcu.cmp5332.bookingsystem.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanConstructorInfo;
+
+/**
+ * Read-only JMX view of {@link Metrics}. Every counter and gauge is an
+ * attribute of the same name; every latency histogram is a set of
+ * attributes named after it with the suffixes .count, .meanMillis,
+ * .p50Millis, .p90Millis, .p99Millis and .maxMillis. The attributes follow
+ * the metrics as they are created.
+ */
+class MetricsMBean implements DynamicMBean {
+
+    /** Suffixes of the attributes of a histogram, after its count */
+    private static final String[] LATENCY_SUFFIXES = {
+            ".meanMillis", ".p50Millis", ".p90Millis", ".p99Millis", ".maxMillis" };
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Counter counter = Metrics.getCounters().get(attribute);
+        if (counter != null) {
+            return counter.get();
+        }
+        LongSupplier gauge = Metrics.getGauges().get(attribute);
+        if (gauge != null) {
+            return gauge.getAsLong();
+        }
+        int dot = attribute.lastIndexOf('.');
+        LatencyHistogram histogram = dot < 0 ? null : Metrics.getHistograms().get(attribute.substring(0, dot));
+        if (histogram != null) {
+            switch (attribute.substring(dot)) {
+                case ".count":
+                    return histogram.getCount();
+                case ".meanMillis":
+                    return histogram.getMean() / 1e6;
+                case ".p50Millis":
+                    return histogram.getPercentile(50) / 1e6;
+                case ".p90Millis":
+                    return histogram.getPercentile(90) / 1e6;
+                case ".p99Millis":
+                    return histogram.getPercentile(99) / 1e6;
+                case ".maxMillis":
+                    return histogram.getMax() / 1e6;
+                default:
+                    break;
+            }
+        }
+        throw new AttributeNotFoundException("No metric " + attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // left out, as the JMX contract asks
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operations: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : Metrics.getCounters().keySet()) {
+            attributes.add(attribute(name, "long", "Counter"));
+        }
+        for (String name : Metrics.getGauges().keySet()) {
+            attributes.add(attribute(name, "long", "Gauge"));
+        }
+        for (String name : Metrics.getHistograms().keySet()) {
+            attributes.add(attribute(name + ".count", "long", "Number of latencies recorded"));
+            for (String suffix : LATENCY_SUFFIXES) {
+                attributes.add(attribute(name + suffix, "double", "Latency in milliseconds"));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "Flight booking system metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), new MBeanConstructorInfo[0],
+                new MBeanOperationInfo[0], new MBeanNotificationInfo[0]);
+    }
+
+    private static MBeanAttributeInfo attribute(String name, String type, String description) {
+        return new MBeanAttributeInfo(name, type, description, true, false, false);
+    }
+}
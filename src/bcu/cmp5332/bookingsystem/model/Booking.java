@@ -31,12 +31,12 @@ public class Booking {
     /** Flag indicating if payment has been processed */
     private boolean paymentProcessed = false;
 
-    private static final String SEPARATOR = "::";
-
     private final double finalPrice;
 
     /**
      * Constructs a new Booking with the specified details.
+     * The booking starts as PENDING; payments are linked to it by the data
+     * layer when they are loaded.
      *
      * @param id          unique identifier for the booking
      * @param customer    customer making the booking
@@ -52,24 +52,6 @@ public class Booking {
         this.bookingFee = bookingFee;
         this.paymentStatus = PaymentStatus.PENDING;
         this.finalPrice = flight.calculatePrice(bookingDate);
-        // Check if payment exists in payments.txt and set status accordingly
-        try {
-            java.nio.file.Path path = java.nio.file.Paths.get("resources/data/payments.txt");
-            if (java.nio.file.Files.exists(path)) {
-                java.util.List<String> lines = java.nio.file.Files.readAllLines(path);
-                for (String line : lines) {
-                    String[] parts = line.split(SEPARATOR);
-                    if (parts.length >= 5 && Integer.parseInt(parts[0]) == this.id) {
-                        this.paymentStatus = PaymentStatus.PAID;
-                        this.paymentProcessed = true;
-                        break;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // If there's any error reading the file, keep default PENDING status
-            System.err.println("Error checking payment status: " + e.getMessage());
-        }
     }
 
  
@@ -108,6 +90,16 @@ public class Booking {
         return isCancelled;
     }
 
+    /**
+     * Sets the cancelled flag without touching the flight's passenger list or
+     * the customer's bookings. Used when loading cancelled bookings from storage.
+     *
+     * @param cancelled true if the booking is cancelled
+     */
+    public void setCancelled(boolean cancelled) {
+        isCancelled = cancelled;
+    }
+
     /**
      * @return the fee charged for the booking
      */
@@ -155,7 +147,7 @@ public class Booking {
      */
     public void cancel() {
         isCancelled = true;
-        flight.getPassengers().remove(customer);
+        flight.removePassenger(customer);
         customer.cancelBooking(this);
     }
 
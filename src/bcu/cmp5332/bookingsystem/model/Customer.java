@@ -1,8 +1,12 @@
 package bcu.cmp5332.bookingsystem.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Represents a customer in the flight booking system.
@@ -24,8 +28,8 @@ public class Customer {
     /** Customer's login password */
     private String password;
 
-    /** List of bookings made by this customer */
-    private final List<Booking> bookings;
+    /** Active bookings made by this customer, in the order they were made */
+    private final Set<Booking> bookings;
 
     /** Flag indicating if the customer has been soft-deleted */
     private boolean isDeleted = false;
@@ -39,7 +43,7 @@ public class Customer {
         this.phone = phone;
         this.email = email;
         this.password = password;
-        this.bookings = new ArrayList<>();
+        this.bookings = new LinkedHashSet<>();
     }
 
     /**
@@ -108,10 +112,20 @@ public class Customer {
     /**
      * @return a defensive copy of the customer's booking list
      */
-    public List<Booking> getBookings() {
+    public synchronized List<Booking> getBookings() {
         return new ArrayList<>(bookings);
     }
 
+    /**
+     * Read-only live view of the customer's active bookings, for callers that
+     * only iterate or count them and don't need a copy.
+     *
+     * @return unmodifiable view of the bookings in the order they were made
+     */
+    public Collection<Booking> getBookingsView() {
+        return Collections.unmodifiableCollection(bookings);
+    }
+
     /**
      * Updates the customer's name.
      * 
@@ -162,7 +176,7 @@ public class Customer {
      * 
      * @param booking the booking to add
      */
-    public void addBooking(Booking booking) {
+    public synchronized void addBooking(Booking booking) {
         bookings.add(booking);
     }
 
@@ -171,7 +185,7 @@ public class Customer {
      * 
      * @param booking the booking to remove
      */
-    public void cancelBooking(Booking booking) {
+    public synchronized void cancelBooking(Booking booking) {
         bookings.remove(booking);
     }
 
@@ -0,0 +1,20 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * The groups of records that the flight booking system persists separately.
+ * Used to track which parts of the system have changed since they were last
+ * stored, so that only those need to be written again.
+ */
+public enum EntitySet {
+    /** All flights, including deleted ones */
+    FLIGHTS,
+
+    /** All customers, including deleted ones */
+    CUSTOMERS,
+
+    /** Active and cancelled bookings */
+    BOOKINGS,
+
+    /** Processed payments */
+    PAYMENTS
+}
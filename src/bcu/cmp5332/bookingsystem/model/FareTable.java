@@ -0,0 +1,213 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table-driven {@link PricingEngine}. The rules are two lists of surcharges:
+ * one by days left before departure and one by occupancy. A booking gets the
+ * first days surcharge whose limit it is within and the first occupancy
+ * surcharge whose threshold the flight has reached, so the days ahead and the
+ * occupancy each fall into one of a few buckets.
+ *
+ * The multiplier for every pair of buckets is worked out once when the table
+ * is built, and the fares for each flight (its base price times each
+ * multiplier) the first time the flight is priced with the table. Pricing is
+ * then a lookup of the two buckets and one array read.
+ *
+ * Rules are read from lines of the form used by the data files, with blank
+ * lines and lines starting with # ignored:
+ * DAYS::maxDaysBeforeDeparture::surcharge::
+ * OCCUPANCY::minOccupancy::surcharge::
+ * where a surcharge of 0.3 adds 30% of the base price. Days limits must
+ * increase and occupancy thresholds (fractions of capacity) decrease down the
+ * file.
+ */
+public final class FareTable implements PricingEngine {
+
+    /** The rules the system has always used */
+    public static final FareTable DEFAULT = new FareTable(
+            new int[] { 7, 30 }, new double[] { 0.3, 0.15 },
+            new double[] { 0.8, 0.6 }, new double[] { 0.25, 0.15 });
+
+    /** Days limits, increasing */
+    private final int[] dayLimits;
+
+    /** Occupancy thresholds, decreasing */
+    private final double[] occupancyThresholds;
+
+    /** Days bucket for each number of days ahead from 0 up to the last limit */
+    private final int[] dayBuckets;
+
+    /** Multipliers indexed by days bucket times the number of occupancy buckets, plus occupancy bucket */
+    private final double[] multipliers;
+
+    private final double minMultiplier;
+    private final double maxMultiplier;
+
+    /**
+     * Builds a table from its rules.
+     *
+     * @param dayLimits            days limits, increasing
+     * @param daySurcharges        surcharge for each days limit
+     * @param occupancyThresholds  occupancy thresholds, decreasing
+     * @param occupancySurcharges  surcharge for each occupancy threshold
+     * @throws IllegalArgumentException if the rules are out of order, or
+     *                                  would make a price zero or negative
+     */
+    public FareTable(int[] dayLimits, double[] daySurcharges,
+            double[] occupancyThresholds, double[] occupancySurcharges) {
+        if (dayLimits.length != daySurcharges.length || occupancyThresholds.length != occupancySurcharges.length) {
+            throw new IllegalArgumentException("Every limit needs one surcharge");
+        }
+        for (int i = 1; i < dayLimits.length; i++) {
+            if (dayLimits[i] <= dayLimits[i - 1]) {
+                throw new IllegalArgumentException("Days limits must increase: " + Arrays.toString(dayLimits));
+            }
+        }
+        for (int i = 1; i < occupancyThresholds.length; i++) {
+            if (!(occupancyThresholds[i] < occupancyThresholds[i - 1])) {
+                throw new IllegalArgumentException(
+                        "Occupancy thresholds must decrease: " + Arrays.toString(occupancyThresholds));
+            }
+        }
+        this.dayLimits = dayLimits.clone();
+        this.occupancyThresholds = occupancyThresholds.clone();
+
+        int lastLimit = dayLimits.length == 0 ? 0 : Math.max(0, dayLimits[dayLimits.length - 1]);
+        dayBuckets = new int[lastLimit + 1];
+        for (int days = 0; days <= lastLimit; days++) {
+            dayBuckets[days] = dayBucket(days);
+        }
+
+        // a final bucket in each dimension for no surcharge
+        int occupancyBuckets = occupancyThresholds.length + 1;
+        multipliers = new double[(dayLimits.length + 1) * occupancyBuckets];
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int d = 0; d <= dayLimits.length; d++) {
+            for (int o = 0; o < occupancyBuckets; o++) {
+                double multiplier = 1.0;
+                if (d < dayLimits.length) {
+                    multiplier += daySurcharges[d];
+                }
+                if (o < occupancyThresholds.length) {
+                    multiplier += occupancySurcharges[o];
+                }
+                if (!(multiplier > 0) || Double.isInfinite(multiplier)) {
+                    throw new IllegalArgumentException("Surcharges give a multiplier of " + multiplier);
+                }
+                multipliers[d * occupancyBuckets + o] = multiplier;
+                min = Math.min(min, multiplier);
+                max = Math.max(max, multiplier);
+            }
+        }
+        minMultiplier = min;
+        maxMultiplier = max;
+    }
+
+    /**
+     * Parses rules in the file format described above.
+     *
+     * @param lines the lines of a rules file
+     * @return the table
+     * @throws IllegalArgumentException naming the line at fault if a line is
+     *                                  malformed or the rules are invalid
+     */
+    public static FareTable parse(List<String> lines) {
+        List<Integer> dayLimits = new ArrayList<>();
+        List<Double> daySurcharges = new ArrayList<>();
+        List<Double> occupancyThresholds = new ArrayList<>();
+        List<Double> occupancySurcharges = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : lines) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("::", -1);
+            try {
+                switch (parts[0]) {
+                    case "DAYS":
+                        dayLimits.add(Integer.parseInt(parts[1].trim()));
+                        daySurcharges.add(Double.parseDouble(parts[2].trim()));
+                        break;
+                    case "OCCUPANCY":
+                        occupancyThresholds.add(Double.parseDouble(parts[1].trim()));
+                        occupancySurcharges.add(Double.parseDouble(parts[2].trim()));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown rule " + parts[0]);
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("Invalid pricing rule at line " + lineNumber + ": " + line, ex);
+            }
+        }
+        return new FareTable(dayLimits.stream().mapToInt(Integer::intValue).toArray(),
+                daySurcharges.stream().mapToDouble(Double::doubleValue).toArray(),
+                occupancyThresholds.stream().mapToDouble(Double::doubleValue).toArray(),
+                occupancySurcharges.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    @Override
+    public double calculatePrice(Flight flight, long bookingDay) {
+        Object cached = flight.getPricingCache();
+        double[] fares;
+        if (cached instanceof FlightFares && ((FlightFares) cached).table == this) {
+            fares = ((FlightFares) cached).fares;
+        } else {
+            fares = new double[multipliers.length];
+            for (int i = 0; i < fares.length; i++) {
+                fares[i] = flight.getBasePrice() * multipliers[i];
+            }
+            flight.setPricingCache(new FlightFares(this, fares));
+        }
+
+        long daysUntilFlight = flight.getDepartureDay() - bookingDay;
+        int d;
+        if (daysUntilFlight < 0) {
+            d = dayBucket(daysUntilFlight);
+        } else if (daysUntilFlight < dayBuckets.length) {
+            d = dayBuckets[(int) daysUntilFlight];
+        } else {
+            d = dayLimits.length;
+        }
+        double occupancyRate = 1.0 - ((double) flight.getSeatsRemaining() / flight.getCapacity());
+        int o = 0;
+        while (o < occupancyThresholds.length && !(occupancyRate >= occupancyThresholds[o])) {
+            o++;
+        }
+        return fares[d * (occupancyThresholds.length + 1) + o];
+    }
+
+    private int dayBucket(long days) {
+        int d = 0;
+        while (d < dayLimits.length && days > dayLimits[d]) {
+            d++;
+        }
+        return d;
+    }
+
+    @Override
+    public double getMinMultiplier() {
+        return minMultiplier;
+    }
+
+    @Override
+    public double getMaxMultiplier() {
+        return maxMultiplier;
+    }
+
+    /** Fares worked out for one flight, kept on the flight while this table is in use */
+    private static final class FlightFares {
+        final FareTable table;
+        final double[] fares;
+
+        FlightFares(FareTable table, double[] fares) {
+            this.table = table;
+            this.fares = fares;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+class FareTableTest {
+
+    @Test
+    void testDefaultRules() {
+        LocalDate today = LocalDate.now();
+        Flight flight = new Flight(1, "BA123", "LHR", "JFK", today.plusDays(20), 200.0, 10);
+        long day = today.toEpochDay();
+
+        assertEquals(230.0, FareTable.DEFAULT.calculatePrice(flight, day), 1e-9);
+        assertEquals(260.0, FareTable.DEFAULT.calculatePrice(flight, day + 15), 1e-9);
+        assertEquals(200.0, FareTable.DEFAULT.calculatePrice(flight, day - 20), 1e-9);
+        assertEquals(1.0, FareTable.DEFAULT.getMinMultiplier());
+        assertEquals(1.55, FareTable.DEFAULT.getMaxMultiplier(), 1e-9);
+    }
+
+    @Test
+    void testParsedRules() {
+        FareTable table = FareTable.parse(Arrays.asList(
+                "# last-minute only",
+                "DAYS::3::0.5::",
+                "",
+                "OCCUPANCY::0.5::-0.1::"));
+        LocalDate today = LocalDate.now();
+        Flight flight = new Flight(1, "BA123", "LHR", "JFK", today.plusDays(2), 100.0, 2);
+        flight.addPassenger(new Customer(1, "John Doe", "1234567890", "john@example.com"));
+
+        assertEquals(140.0, table.calculatePrice(flight, today.toEpochDay()), 1e-9);
+        assertEquals(0.9, table.getMinMultiplier(), 1e-9);
+        assertEquals(1.5, table.getMaxMultiplier(), 1e-9);
+    }
+
+    @Test
+    void testInvalidRulesRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FareTable.parse(Arrays.asList("DAYS::30::0.1::", "DAYS::7::0.3::")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FareTable.parse(Arrays.asList("WEEKDAY::1::0.1::")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FareTable.parse(Arrays.asList("OCCUPANCY::0.5::-1.0::")));
+    }
+}
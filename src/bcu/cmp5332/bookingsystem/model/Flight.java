@@ -1,18 +1,22 @@
 package bcu.cmp5332.bookingsystem.model;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a flight in the booking system.
  * Manages flight details, passenger list, and dynamic pricing.
  */
 public class Flight {
+    private static final Logger LOG = Logger.getLogger(Flight.class);
+
     /** Unique identifier for the flight */
     private int id;
 
@@ -37,9 +41,25 @@ public class Flight {
     /** Flag indicating if the flight has been soft-deleted */
     private boolean isDeleted = false;
 
-    /** Set of passengers booked on this flight */
+    /** Set of passengers booked on this flight; safe to update from several threads */
     private final Set<Customer> passengers;
 
+    /**
+     * Number of seats taken. A seat is reserved here with a compare-and-set
+     * before the passenger is added to the set, so concurrent bookings never
+     * take more than {@link #capacity} seats.
+     */
+    private final AtomicInteger seatsTaken = new AtomicInteger();
+
+    /** Rules every flight is priced with */
+    private static volatile PricingEngine pricingEngine = FareTable.DEFAULT;
+
+    /** Departure date as an epoch day, so days to departure is a subtraction */
+    private final long departureDay;
+
+    /** Data the pricing engine keeps for this flight, such as its precomputed fares */
+    private volatile Object pricingCache;
+
     /**
      * Constructs a new Flight with the specified details.
      *
@@ -60,7 +80,8 @@ public class Flight {
         this.departureDate = departureDate;
         this.basePrice = basePrice;
         this.capacity = capacity;
-        this.passengers = new HashSet<>();
+        this.passengers = ConcurrentHashMap.newKeySet();
+        this.departureDay = departureDate.toEpochDay();
     }
 
     /** @return the flight's unique identifier */
@@ -108,87 +129,130 @@ public class Flight {
         this.isDeleted = deleted;
     }
 
+    /** @return the number of seats not yet booked */
+    public int getSeatsRemaining() {
+        return capacity - seatsTaken.get();
+    }
+
+    /** @return the rules every flight is priced with */
+    public static PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
     /**
-     * Calculates the ticket price based on how far in advance the booking is made.
-     * - Within 7 days: 50% increase
-     * - Within 14 days: 25% increase
-     * - More than 14 days: base price
+     * Replaces the rules every flight is priced with. Prices calculated from
+     * then on use the new rules; existing bookings keep the price they were
+     * made at.
+     *
+     * @param engine the pricing rules
+     */
+    public static void setPricingEngine(PricingEngine engine) {
+        pricingEngine = Objects.requireNonNull(engine);
+    }
+
+    /**
+     * Calculates the ticket price based on how far in advance the booking is
+     * made and how full the flight is, using the current
+     * {@link #getPricingEngine() pricing engine}. With the default rules:
+     * - Within 7 days: 30% increase; within 30 days: 15% increase
+     * - At least 80% full: 25% increase; at least 60% full: 15% increase
      *
      * @param bookingDate the date when the booking is being made
      * @return the calculated ticket price
      */
     public double calculatePrice(LocalDate bookingDate) {
-        double basePrice = this.basePrice;
-
-        // Calculate days until departure
-        long daysUntilFlight = ChronoUnit.DAYS.between(bookingDate, departureDate);
-
-        // Calculate seats remaining percentage
-        int seatsRemaining = capacity - passengers.size();
-        double occupancyRate = 1.0 - ((double) seatsRemaining / capacity);
+        return calculatePrice(bookingDate.toEpochDay());
+    }
 
-        // Price adjustments
-        double priceMultiplier = 1.0;
+    /**
+     * Calculates the ticket price for a booking date given as an epoch day,
+     * for callers pricing many flights for the same date.
+     *
+     * @param bookingDay the date when the booking is being made, as an epoch day
+     * @return the calculated ticket price
+     * @see #calculatePrice(LocalDate)
+     */
+    double calculatePrice(long bookingDay) {
+        return pricingEngine.calculatePrice(this, bookingDay);
+    }
 
-        // Adjust based on days until flight
-        if (daysUntilFlight <= 7) {
-            priceMultiplier += 0.3; // 30% increase for last week
-        } else if (daysUntilFlight <= 30) {
-            priceMultiplier += 0.15; // 15% increase for last month
-        }
+    /** @return the departure date as an epoch day */
+    long getDepartureDay() {
+        return departureDay;
+    }
 
-        // Adjust based on occupancy
-        if (occupancyRate >= 0.8) {
-            priceMultiplier += 0.25; // 25% increase when >80% full
-        } else if (occupancyRate >= 0.6) {
-            priceMultiplier += 0.15; // 15% increase when >60% full
-        }
+    /** @return the data the pricing engine keeps for this flight, or null */
+    Object getPricingCache() {
+        return pricingCache;
+    }
 
-        return basePrice * priceMultiplier;
+    /** @param cache data the pricing engine keeps for this flight */
+    void setPricingCache(Object cache) {
+        pricingCache = cache;
     }
 
     /**
      * Adds a passenger to the flight if there is available capacity.
+     * Safe to call from several threads at once without locking: a seat is
+     * reserved by compare-and-set on the seat counter, then the passenger is
+     * added to the set, and the seat is released again if they were already
+     * on it. The flight is never booked beyond its capacity.
      *
      * @param passenger the customer to add as a passenger
      * @return true if passenger was added successfully, false if flight is full
+     *         or they are already a passenger
      */
     public boolean addPassenger(Customer passenger) {
         if (passenger == null) {
             return false;
         }
-        // Check if flight is full
-        if (passengers.size() >= capacity) {
-            return false;
-        }
         // Check if passenger is already on this flight
         if (passengers.contains(passenger)) {
             return false;
         }
+        // Reserve a seat, failing if the flight is full
+        int taken;
+        do {
+            taken = seatsTaken.get();
+            if (taken >= capacity) {
+                return false;
+            }
+        } while (!seatsTaken.compareAndSet(taken, taken + 1));
 
-        boolean added = passengers.add(passenger);
-
-        return added;
+        if (!passengers.add(passenger)) {
+            // booked concurrently by another thread
+            seatsTaken.decrementAndGet();
+            return false;
+        }
+        return true;
     }
 
     /**
-     * Removes a passenger from the flight when their booking is cancelled.
+     * Removes a passenger from the flight when their booking is cancelled,
+     * releasing their seat.
      * 
      * @param customer the customer to remove from the flight
      * @return true if the customer was removed, false if they weren't on the flight
      */
     public boolean removePassenger(Customer customer) {
-        return passengers.remove(customer);
+        if (customer == null || !passengers.remove(customer)) {
+            return false;
+        }
+        seatsTaken.decrementAndGet();
+        return true;
     }
 
     /**
      * @return a defensive copy of the passenger list
      */
     public List<Customer> getPassengers() {
-        for (Customer c : passengers) {
-            System.out.println("DEBUG: Passenger: " + c.getName());
+        List<Customer> copy = new ArrayList<>(passengers);
+        if (LOG.isDebugEnabled()) {
+            for (Customer c : copy) {
+                LOG.debug(() -> "Passenger: " + c.getName());
+            }
         }
-        return new ArrayList<>(passengers);
+        return copy;
     }
 
     /**
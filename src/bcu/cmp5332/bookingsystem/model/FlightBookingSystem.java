@@ -1,33 +1,411 @@
 package bcu.cmp5332.bookingsystem.model;
 
+import bcu.cmp5332.bookingsystem.log.Logger;
 import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
  * Central class that manages the flight booking system.
  * Handles flights, customers, bookings, and their interactions.
+ *
+ * The system may be used from several threads at once. Mutations are
+ * serialised per customer and per flight by striped locks, always taken
+ * customer first, so bookings on different flights for different customers
+ * proceed in parallel. The shared registries and indexes are guarded by a
+ * separate lock held only for the short updates to them; lookups read them
+ * optimistically without locking and retry under the lock only if an update
+ * overlapped, and the copying accessors and {@link #snapshot(boolean)} copy
+ * them under the read lock. Listeners are notified while the
+ * customer and flight locks are still held, so mutations of one customer or
+ * flight reach them in the order they were made.
+ *
+ * The live views ({@link #getBookingsView()}, {@link #getLoadedFlights()} and
+ * the like) are not copied and must not be iterated while other threads are
+ * mutating the system; use the copying accessors instead.
  */
 public class FlightBookingSystem {
+    private static final Logger LOG = Logger.getLogger(FlightBookingSystem.class);
+
+    /** Number of customer and of flight locks; a power of two */
+    private static final int LOCK_STRIPES = 64;
+
     /** Current system date for calculating prices and validating bookings */
     private final LocalDate systemDate = LocalDate.now();
 
     /** Map of all customers indexed by their IDs */
-    private final Map<Integer, Customer> customers = new TreeMap<>();
+    private final IntMap<Customer> customers = new IntMap<>();
 
     /** Map of all flights indexed by their IDs */
-    private final Map<Integer, Flight> flights = new TreeMap<>();
+    private final IntMap<Flight> flights = new IntMap<>();
 
     /** Map of active bookings indexed by their IDs */
-    private final Map<Integer, Booking> bookings = new TreeMap<>();
+    private final IntMap<Booking> bookings = new IntMap<>();
 
     /** Map of cancelled bookings kept for record-keeping */
-    private final Map<Integer, Booking> cancelledBookings = new TreeMap<>();
+    private final IntMap<Booking> cancelledBookings = new IntMap<>();
+
+    /** Active bookings on each flight, in the order they were made */
+    private final IntMap<Set<Booking>> bookingsByFlight = new IntMap<>();
+
+    /** Cancelled bookings held in memory for each customer; active ones are held by the customer */
+    private final IntMap<Set<Booking>> cancelledByCustomer = new IntMap<>();
+
+    /** Flights that are neither deleted nor departed, kept up to date on every change */
+    private final IntMap<Flight> activeFlights = new IntMap<>();
+
+    /** Customers that are not deleted, kept up to date on every change */
+    private final IntMap<Customer> activeCustomers = new IntMap<>();
+
+    /** Snapshot of the active flights returned by {@link #getFlights()}, or null once they change */
+    private volatile List<Flight> activeFlightsView;
+
+    /** Snapshot of the active customers returned by {@link #getCustomers()}, or null once they change */
+    private volatile List<Customer> activeCustomersView;
 
     /** List of all payments processed in the system */
     private final List<Payment> payments = new ArrayList<>();
 
+    /** Payments indexed by the ID of the booking they pay for */
+    private final Map<Integer, Payment> paymentsByBooking = new HashMap<>();
+
+    /** Flights in memory indexed by flight number and departure date */
+    private final HashIndex<List<Object>, Flight> flightsByNumberAndDate = new HashIndex<>();
+
+    /** Flights in memory indexed by route and departure date for searching */
+    private final FlightSearchIndex flightSearch = new FlightSearchIndex();
+
+    /** All customers, including deleted ones, indexed by name */
+    private final HashIndex<String, Customer> customersByName = new HashIndex<>();
+
+    /** All customers, including deleted ones, indexed by case-folded email */
+    private final HashIndex<String, Customer> customersByEmail = new HashIndex<>();
+
+    /** Sources of new flight, customer and booking IDs */
+    private final Map<EntitySet, IdSequence> idSequences = new EnumMap<>(EntitySet.class);
+
+    /** Listeners notified after each successful mutation */
+    private final List<FlightBookingSystemListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Entity sets changed since they were last marked clean by the data layer */
+    private final Set<EntitySet> dirty = EnumSet.noneOf(EntitySet.class);
+
+    /** Archive holding historical flights and cancelled bookings, or null if all data is in memory */
+    private volatile HistoryArchive history;
+
+    /** Whether every archived record has been paged into memory */
+    private volatile boolean historyLoaded;
+
+    /** Locks serialising the mutations of each customer, indexed by customer ID */
+    private final ReentrantLock[] customerLocks = new ReentrantLock[LOCK_STRIPES];
+
+    /** Locks serialising the mutations of each flight, indexed by flight ID */
+    private final ReentrantLock[] flightLocks = new ReentrantLock[LOCK_STRIPES];
+
+    /** Guards every registry, index and view above, and the entity fields changed with them */
+    private final StampedLock registry = new StampedLock();
+
+    /** Thread holding the registry write lock, which may re-enter it */
+    private volatile Thread registryWriter;
+
+    /**
+     * Creates an empty flight booking system.
+     */
+    public FlightBookingSystem() {
+        idSequences.put(EntitySet.FLIGHTS, new IdSequence());
+        idSequences.put(EntitySet.CUSTOMERS, new IdSequence());
+        idSequences.put(EntitySet.BOOKINGS, new IdSequence());
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            customerLocks[i] = new ReentrantLock();
+            flightLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks a customer against other mutations. A thread may hold at most one
+     * customer's lock, and must take it before any flight lock.
+     *
+     * @param id the customer ID
+     * @return the lock taken, to be unlocked by the caller
+     */
+    private ReentrantLock lockCustomer(int id) {
+        ReentrantLock lock = customerLocks[id & (LOCK_STRIPES - 1)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Locks a flight against other mutations. A thread may hold at most one
+     * flight's lock.
+     *
+     * @param id the flight ID
+     * @return the lock taken, to be unlocked by the caller
+     */
+    private ReentrantLock lockFlight(int id) {
+        ReentrantLock lock = flightLocks[id & (LOCK_STRIPES - 1)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Takes the registry write lock, unless the current thread already holds
+     * it. No customer or flight lock may be taken while it is held.
+     *
+     * @return the stamp to pass to {@link #unlockRegistry(long)}
+     */
+    private long lockRegistry() {
+        if (registryWriter == Thread.currentThread()) {
+            return 0;
+        }
+        long stamp = registry.writeLock();
+        registryWriter = Thread.currentThread();
+        return stamp;
+    }
+
+    private void unlockRegistry(long stamp) {
+        if (stamp != 0) {
+            registryWriter = null;
+            registry.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reads the registries without locking. If an update overlaps the read,
+     * which the reader may see half done, it is repeated under the read lock.
+     * Only for reads of fields and {@link IntMap#get(int)}, which reads plain
+     * arrays: a HashMap or HashIndex lookup, or a copy of a collection, can
+     * loop forever on a half done update, so those use {@link #readLocked}.
+     *
+     * @param reader the read, which must have no side effects
+     * @return the result of the read
+     */
+    private <T> T read(Supplier<T> reader) {
+        if (registryWriter != Thread.currentThread()) {
+            long stamp = registry.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    T result = reader.get();
+                    if (registry.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    // saw an update half done; repeated below
+                }
+            }
+        }
+        return readLocked(reader);
+    }
+
+    /**
+     * Reads the registries under the read lock, for reads too long to be
+     * worth attempting optimistically or unsafe to run against a half done update.
+     *
+     * @param reader the read
+     * @return the result of the read
+     */
+    private <T> T readLocked(Supplier<T> reader) {
+        if (registryWriter == Thread.currentThread()) {
+            return reader.get();
+        }
+        long stamp = registry.readLock();
+        try {
+            return reader.get();
+        } finally {
+            registry.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the sequence new IDs of a kind of record are taken from. The
+     * sequence is kept past the ID of every record added to the system,
+     * including archived ones.
+     *
+     * @param set {@link EntitySet#FLIGHTS}, {@link EntitySet#CUSTOMERS} or
+     *            {@link EntitySet#BOOKINGS}
+     * @return the ID sequence
+     * @throws IllegalArgumentException for {@link EntitySet#PAYMENTS}, which
+     *                                  are identified by their booking
+     */
+    public IdSequence getIdSequence(EntitySet set) {
+        IdSequence sequence = idSequences.get(set);
+        if (sequence == null) {
+            throw new IllegalArgumentException("No ID sequence for " + set);
+        }
+        return sequence;
+    }
+
+    /**
+     * Attaches the archive that historical records are paged in from. Records
+     * moved to the archive are removed from memory with {@link #evictFlight(int)}
+     * and {@link #evictCancelledBooking(int)}.
+     *
+     * @param history the archive, or null to detach it
+     */
+    public void setHistoryArchive(HistoryArchive history) {
+        long stamp = lockRegistry();
+        try {
+            this.history = history;
+            this.historyLoaded = false;
+        } finally {
+            unlockRegistry(stamp);
+        }
+        if (history != null) {
+            idSequences.get(EntitySet.FLIGHTS).advanceTo(history.getMaxFlightId());
+            idSequences.get(EntitySet.BOOKINGS).advanceTo(history.getMaxBookingId());
+        }
+    }
+
+    /**
+     * Pages every archived record into memory, once. Records that are
+     * already in memory are kept, as they may be newer than the archive.
+     */
+    private void loadHistory() {
+        if (history == null || historyLoaded) {
+            return;
+        }
+        long stamp = lockRegistry();
+        try {
+            if (history == null || historyLoaded) {
+                return;
+            }
+            for (Flight flight : history.readFlights()) {
+                if (flights.putIfAbsent(flight.getId(), flight) == null) {
+                    indexFlight(flight);
+                }
+            }
+            for (Booking booking : history.readCancelledBookings(this)) {
+                if (!bookings.containsKey(booking.getId()) && !cancelledBookings.containsKey(booking.getId())) {
+                    putCancelledBooking(booking);
+                }
+            }
+            historyLoaded = true;
+        } catch (IOException | FlightBookingSystemException e) {
+            LOG.warn(() -> "Could not load history: " + e.getMessage());
+        } finally {
+            unlockRegistry(stamp);
+        }
+    }
+
+    /**
+     * Removes an archived flight from memory. It is paged back in when it is
+     * next asked for.
+     *
+     * @param id the ID of a flight that has been written to the history archive
+     */
+    public void evictFlight(int id) {
+        long stamp = lockRegistry();
+        try {
+            Flight flight = flights.remove(id);
+            if (flight != null) {
+                unindexFlight(flight);
+                bookingsByFlight.remove(id);
+                historyLoaded = false;
+                dirty.add(EntitySet.FLIGHTS);
+            }
+        } finally {
+            unlockRegistry(stamp);
+        }
+    }
+
+    /**
+     * Removes an archived cancelled booking from memory. It is paged back in
+     * when it is next asked for.
+     *
+     * @param id the ID of a booking that has been written to the history archive
+     */
+    public void evictCancelledBooking(int id) {
+        long stamp = lockRegistry();
+        try {
+            Booking booking = cancelledBookings.remove(id);
+            if (booking != null) {
+                Set<Booking> cancelled = cancelledByCustomer.get(booking.getCustomer().getId());
+                if (cancelled != null) {
+                    cancelled.remove(booking);
+                }
+                historyLoaded = false;
+            }
+        } finally {
+            unlockRegistry(stamp);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified of every mutation.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(FlightBookingSystemListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously added listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(FlightBookingSystemListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Checks whether an entity set has changed since it was last stored.
+     *
+     * @param set the entity set to check
+     * @return true if the set has unsaved changes
+     */
+    public boolean isDirty(EntitySet set) {
+        return read(() -> dirty.contains(set));
+    }
+
+    /**
+     * Marks an entity set as stored.
+     *
+     * @param set the entity set that was written
+     */
+    public void markClean(EntitySet set) {
+        long stamp = lockRegistry();
+        try {
+            dirty.remove(set);
+        } finally {
+            unlockRegistry(stamp);
+        }
+    }
+
+    /**
+     * Marks every entity set as stored, for a store about to write the ones
+     * that changed. Changes made from here on mark their set dirty again.
+     *
+     * @return the entity sets that had changed since they were last stored
+     */
+    public Set<EntitySet> takeDirty() {
+        long stamp = lockRegistry();
+        try {
+            Set<EntitySet> taken = EnumSet.noneOf(EntitySet.class);
+            taken.addAll(dirty);
+            dirty.clear();
+            return taken;
+        } finally {
+            unlockRegistry(stamp);
+        }
+    }
+
+    /**
+     * Marks every entity set as changed, forcing the next store to write all of them.
+     */
+    public void markAllDirty() {
+        long stamp = lockRegistry();
+        try {
+            dirty.addAll(EnumSet.allOf(EntitySet.class));
+        } finally {
+            unlockRegistry(stamp);
+        }
+    }
+
     /** @return the current system date */
     public LocalDate getSystemDate() {
         return systemDate;
@@ -35,20 +413,146 @@ public class FlightBookingSystem {
 
     /**
      * Returns a list of all active flights that haven't departed.
+     * The active flights are tracked as flights are added and removed, and
+     * the list is built from them once and shared by later calls until they
+     * change, so repeated calls cost nothing.
      * 
-     * @return list of available flights
+     * @return unmodifiable snapshot of the available flights in ID order
      */
     public List<Flight> getFlights() {
-        return flights.values().stream()
-                .filter(f -> !f.isDeleted() && !f.getDepartureDate().isBefore(systemDate))
-                .collect(Collectors.toList());
+        List<Flight> view = activeFlightsView;
+        if (view != null) {
+            return view;
+        }
+        // built under the read lock, so no update can clear the field before it is published
+        return readLocked(() -> {
+            if (activeFlightsView == null) {
+                activeFlightsView = Collections.unmodifiableList(new ArrayList<>(activeFlights.values()));
+            }
+            return activeFlightsView;
+        });
+    }
+
+    /**
+     * @return the number of active flights that haven't departed, the size
+     *         of {@link #getFlights()} without building the list
+     */
+    public int getActiveFlightCount() {
+        return read(activeFlights::size);
+    }
+
+    /**
+     * Finds the active flights that haven't departed and match a query. Uses
+     * the route and departure-date index, so only flights on the matching
+     * routes and dates are examined. Prices are calculated for today.
+     *
+     * @param query the search criteria
+     * @return the matching flights, ordered by departure date and then by
+     *         base price
+     */
+    public List<Flight> searchFlights(FlightQuery query) {
+        return readLocked(() -> flightSearch.search(query, systemDate, LocalDate.now()));
+    }
+
+    /**
+     * Prices every active flight that hasn't departed for one booking date.
+     *
+     * @param bookingDate the date the bookings would be made
+     * @return the price of each flight in {@link #getFlights()} by flight ID,
+     *         in ID order
+     */
+    public Map<Integer, Double> priceFlights(LocalDate bookingDate) {
+        List<Flight> active = getFlights();
+        double[] prices = priceFlights(active, bookingDate);
+        Map<Integer, Double> byId = new LinkedHashMap<>(active.size() * 4 / 3 + 1);
+        for (int i = 0; i < prices.length; i++) {
+            byId.put(active.get(i).getId(), prices[i]);
+        }
+        return byId;
+    }
+
+    /**
+     * Prices a list of flights for one booking date. The date is converted
+     * once for the whole list, and every flight is priced with the same
+     * rules even if they are replaced part way through.
+     *
+     * @param flights     the flights to price
+     * @param bookingDate the date the bookings would be made
+     * @return the prices, in the same order as the flights
+     */
+    public double[] priceFlights(List<Flight> flights, LocalDate bookingDate) {
+        PricingEngine pricing = Flight.getPricingEngine();
+        long bookingDay = bookingDate.toEpochDay();
+        double[] prices = new double[flights.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = pricing.calculatePrice(flights.get(i), bookingDay);
+        }
+        return prices;
     }
 
     /**
-     * @return list of all flights including deleted ones
+     * Prices every flight held in memory with the current rules, spread
+     * across the common fork-join pool. Called when the pricing rules are
+     * replaced, so that a table-driven engine works out the fares of every
+     * flight up front rather than on the first booking or search.
+     *
+     * @return the number of flights priced
+     */
+    public int repriceFlights() {
+        List<Flight> loaded = readLocked(() -> new ArrayList<>(flights.values()));
+        PricingEngine pricing = Flight.getPricingEngine();
+        long today = LocalDate.now().toEpochDay();
+        loaded.parallelStream().forEach(flight -> pricing.calculatePrice(flight, today));
+        return loaded.size();
+    }
+
+    /**
+     * @return list of all flights including deleted ones; archived flights
+     *         are paged in first
      */
     public List<Flight> getAllFlights() {
-        return new ArrayList<>(flights.values());
+        loadHistory();
+        return readLocked(() -> new ArrayList<>(flights.values()));
+    }
+
+    /**
+     * Read-only live view of the flights currently held in memory, including
+     * deleted ones but not flights still in the history archive. Used by the
+     * data layer to store the in-memory tier without paging in history.
+     *
+     * @return unmodifiable view of the loaded flights in ID order
+     */
+    public Collection<Flight> getLoadedFlights() {
+        return Collections.unmodifiableCollection(flights.values());
+    }
+
+    /**
+     * Looks up a flight including deleted and archived flights. An archived
+     * flight is paged back into memory.
+     *
+     * @param id the flight ID
+     * @return the flight, or null if there is none with that ID
+     */
+    public Flight findFlight(int id) {
+        Flight f = read(() -> flights.get(id));
+        if (f == null && history != null && !historyLoaded) {
+            long stamp = lockRegistry();
+            try {
+                f = flights.get(id);
+                if (f == null && history != null && !historyLoaded) {
+                    f = history.readFlight(id);
+                    if (f != null) {
+                        flights.put(id, f);
+                        indexFlight(f);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn(() -> "Could not read flight #" + id + " from history: " + e.getMessage());
+            } finally {
+                unlockRegistry(stamp);
+            }
+        }
+        return f;
     }
 
     /**
@@ -59,7 +563,7 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException if flight doesn't exist or is deleted
      */
     public Flight getFlightByID(int id) throws FlightBookingSystemException {
-        Flight f = flights.get(id);
+        Flight f = findFlight(id);
         if (f == null) {
         
             throw new FlightBookingSystemException("Flight #" + id + " not found in the system.");
@@ -72,20 +576,47 @@ public class FlightBookingSystem {
 
     /**
      * Returns a list of all active customers.
+     * Like {@link #getFlights()}, the list is shared by later calls until a
+     * customer is added or deleted.
      * 
-     * @return list of non-deleted customers
+     * @return unmodifiable snapshot of the non-deleted customers in ID order
      */
     public List<Customer> getCustomers() {
-        return customers.values().stream()
-                .filter(c -> !c.isDeleted())
-                .collect(Collectors.toList());
+        List<Customer> view = activeCustomersView;
+        if (view != null) {
+            return view;
+        }
+        return readLocked(() -> {
+            if (activeCustomersView == null) {
+                activeCustomersView = Collections.unmodifiableList(new ArrayList<>(activeCustomers.values()));
+            }
+            return activeCustomersView;
+        });
+    }
+
+    /**
+     * @return the number of non-deleted customers, the size of
+     *         {@link #getCustomers()} without building the list
+     */
+    public int getActiveCustomerCount() {
+        return read(activeCustomers::size);
     }
 
     /**
      * @return list of all customers including deleted ones
      */
     public List<Customer> getAllCustomers() {
-        return new ArrayList<>(customers.values());
+        return readLocked(() -> new ArrayList<>(customers.values()));
+    }
+
+    /**
+     * Looks up a customer including deleted customers.
+     *
+     * @param id the customer ID
+     * @return the customer, or null if there is none with that ID
+     */
+    public Customer findCustomer(int id) {
+        return read(() -> customers.get(id));
     }
 
     /**
@@ -96,7 +627,7 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException if customer doesn't exist or is deleted
      */
     public Customer getCustomerByID(int id) throws FlightBookingSystemException {
-        Customer c = customers.get(id);
+        Customer c = findCustomer(id);
         if (c == null || c.isDeleted()) {
             throw new FlightBookingSystemException("No customer with that ID.");
         }
@@ -105,19 +636,47 @@ public class FlightBookingSystem {
 
     /**
      * Adds a new flight to the system.
-     * Checks for duplicate flight numbers on the same date.
+     * Checks for duplicate flight numbers on the same date, including
+     * archived flights.
      *
      * @param flight the flight to add
      * @throws FlightBookingSystemException if duplicate ID or flight number exists
      */
     public void addFlight(Flight flight) throws FlightBookingSystemException {
-        for (Flight existing : flights.values()) {
-            if (existing.getFlightNumber().equals(flight.getFlightNumber()) &&
-                    existing.getDepartureDate().equals(flight.getDepartureDate())) {
-                throw new FlightBookingSystemException("Flight already exists on that date.");
+        ReentrantLock flightLock = lockFlight(flight.getId());
+        try {
+            long stamp = lockRegistry();
+            try {
+                if (flightsByNumberAndDate.find(flightKey(flight), existing -> true) != null) {
+                    throw new FlightBookingSystemException("Flight already exists on that date.");
+                }
+                if (history != null && !historyLoaded) {
+                    try {
+                        int archived = history.findFlightId(flight.getFlightNumber(), flight.getDepartureDate());
+                        if (archived != 0 && archived != flight.getId()) {
+                            throw new FlightBookingSystemException("Flight already exists on that date.");
+                        }
+                    } catch (IOException e) {
+                        LOG.warn(() -> "Could not check history for flight " + flight.getFlightNumber()
+                                + ": " + e.getMessage());
+                    }
+                }
+                Flight replaced = flights.put(flight.getId(), flight);
+                if (replaced != null) {
+                    unindexFlight(replaced);
+                }
+                indexFlight(flight);
+                dirty.add(EntitySet.FLIGHTS);
+            } finally {
+                unlockRegistry(stamp);
+            }
+            idSequences.get(EntitySet.FLIGHTS).advanceTo(flight.getId());
+            for (FlightBookingSystemListener l : listeners) {
+                l.flightAdded(flight);
             }
+        } finally {
+            flightLock.unlock();
         }
-        flights.put(flight.getId(), flight);
     }
 
     /**
@@ -128,17 +687,28 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException if duplicate name, email, or ID exists
      */
     public void addCustomer(Customer customer) throws FlightBookingSystemException {
-        for (Customer existing : customers.values()) {
-            if (!existing.isDeleted()) {
-                if (existing.getName().equals(customer.getName())) {
+        ReentrantLock customerLock = lockCustomer(customer.getId());
+        try {
+            long stamp = lockRegistry();
+            try {
+                if (customersByName.find(customer.getName(), existing -> !existing.isDeleted()) != null) {
                     throw new FlightBookingSystemException("Customer name already exists.");
                 }
-                if (existing.getEmail().equals(customer.getEmail())) {
+                if (customersByEmail.find(emailKey(customer.getEmail()),
+                        existing -> !existing.isDeleted() && existing.getEmail().equals(customer.getEmail())) != null) {
                     throw new FlightBookingSystemException("Email address already in use.");
                 }
+                putCustomer(customer);
+                dirty.add(EntitySet.CUSTOMERS);
+            } finally {
+                unlockRegistry(stamp);
+            }
+            for (FlightBookingSystemListener l : listeners) {
+                l.customerAdded(customer);
             }
+        } finally {
+            customerLock.unlock();
         }
-        customers.put(customer.getId(), customer);
     }
 
     public void addCustomer(String name, String phone, String email) throws FlightBookingSystemException {
@@ -153,39 +723,170 @@ public class FlightBookingSystem {
             throw new FlightBookingSystemException("Email cannot be empty");
         }
 
-        // Check for duplicate email
-        for (Customer existingCustomer : customers.values()) {
-            if (existingCustomer.getEmail().equalsIgnoreCase(email.trim())) {
-                throw new FlightBookingSystemException("A customer with this email already exists");
-            }
+        // Check for duplicate email before taking an ID, so a rejected customer doesn't use one up
+        String trimmedEmail = email.trim();
+        if (readLocked(() -> hasCustomerWithEmail(trimmedEmail))) {
+            throw new FlightBookingSystemException("A customer with this email already exists");
         }
 
         // Generate new customer ID
-        int newId = getNextCustomerId();
+        int newId = idSequences.get(EntitySet.CUSTOMERS).next();
 
         // Create and add the new customer
         Customer newCustomer = new Customer(newId, name.trim(), phone.trim(), email.trim());
-        customers.put(newId, newCustomer);
+        ReentrantLock customerLock = lockCustomer(newId);
+        try {
+            long stamp = lockRegistry();
+            try {
+                // checked again, as another thread may have added the address since
+                if (hasCustomerWithEmail(trimmedEmail)) {
+                    throw new FlightBookingSystemException("A customer with this email already exists");
+                }
+                putCustomer(newCustomer);
+                dirty.add(EntitySet.CUSTOMERS);
+            } finally {
+                unlockRegistry(stamp);
+            }
+            for (FlightBookingSystemListener l : listeners) {
+                l.customerAdded(newCustomer);
+            }
+        } finally {
+            customerLock.unlock();
+        }
     }
 
-    private int getNextCustomerId() {
-        int maxId = 0;
-        for (Customer customer : customers.values()) {
-            if (customer.getId() > maxId) {
-                maxId = customer.getId();
-            }
+    /**
+     * @param email an email address
+     * @return true if any customer, including deleted ones, has that address
+     *         ignoring case
+     */
+    private boolean hasCustomerWithEmail(String email) {
+        return customersByEmail.find(emailKey(email), existing -> existing.getEmail().equalsIgnoreCase(email)) != null;
+    }
+
+    /**
+     * Stores a customer and indexes it, replacing any customer with the same ID.
+     *
+     * @param customer the customer to store
+     */
+    private void putCustomer(Customer customer) {
+        Customer replaced = customers.put(customer.getId(), customer);
+        if (replaced != null) {
+            unindexCustomer(replaced);
+            activeCustomers.remove(replaced.getId());
+        }
+        indexCustomer(customer);
+        if (!customer.isDeleted()) {
+            activeCustomers.put(customer.getId(), customer);
+        }
+        activeCustomersView = null;
+        idSequences.get(EntitySet.CUSTOMERS).advanceTo(customer.getId());
+    }
+
+    private void indexCustomer(Customer customer) {
+        customersByName.add(customer.getName(), customer);
+        customersByEmail.add(emailKey(customer.getEmail()), customer);
+    }
+
+    private void unindexCustomer(Customer customer) {
+        customersByName.remove(customer.getName(), customer);
+        customersByEmail.remove(emailKey(customer.getEmail()), customer);
+    }
+
+    private void indexFlight(Flight flight) {
+        flightsByNumberAndDate.add(flightKey(flight), flight);
+        flightSearch.add(flight);
+        if (!flight.isDeleted() && !flight.getDepartureDate().isBefore(systemDate)) {
+            activeFlights.put(flight.getId(), flight);
+            activeFlightsView = null;
+        }
+    }
+
+    private void unindexFlight(Flight flight) {
+        flightsByNumberAndDate.remove(flightKey(flight), flight);
+        flightSearch.remove(flight);
+        if (activeFlights.remove(flight.getId()) != null) {
+            activeFlightsView = null;
         }
-        return maxId + 1;
+    }
+
+    /**
+     * @param flight a flight
+     * @return the key a flight is indexed under; two flights clash if their
+     *         keys are equal
+     */
+    private static List<Object> flightKey(Flight flight) {
+        return Arrays.asList(flight.getFlightNumber(), flight.getDepartureDate());
+    }
+
+    /**
+     * @param email an email address, or null
+     * @return the key the address is indexed under, shared by addresses that
+     *         are equal ignoring case
+     */
+    private static String emailKey(String email) {
+        return HashIndex.foldCase(email);
     }
 
     /** @return defensive copy of all bookings */
     public List<Booking> getBookings() {
-        return new ArrayList<>(bookings.values());
+        return readLocked(() -> new ArrayList<>(bookings.values()));
     }
 
-    /** @return defensive copy of cancelled bookings */
+    /** @return defensive copy of cancelled bookings, paging in archived ones first */
     public List<Booking> getCancelledBookings() {
-        return new ArrayList<>(cancelledBookings.values());
+        loadHistory();
+        return readLocked(() -> new ArrayList<>(cancelledBookings.values()));
+    }
+
+    /**
+     * Read-only live view of the active bookings in ID order. Unlike
+     * {@link #getBookings()} nothing is copied, so the view must not be
+     * iterated while the system is being modified.
+     *
+     * @return unmodifiable view of the active bookings
+     */
+    public Collection<Booking> getBookingsView() {
+        return Collections.unmodifiableCollection(bookings.values());
+    }
+
+    /**
+     * Read-only live view of the cancelled bookings in ID order.
+     *
+     * @return unmodifiable view of the cancelled bookings
+     * @see #getBookingsView()
+     */
+    public Collection<Booking> getCancelledBookingsView() {
+        loadHistory();
+        return Collections.unmodifiableCollection(cancelledBookings.values());
+    }
+
+    /**
+     * Read-only live view of the cancelled bookings currently held in memory,
+     * not including those still in the history archive.
+     *
+     * @return unmodifiable view of the loaded cancelled bookings in ID order
+     */
+    public Collection<Booking> getLoadedCancelledBookings() {
+        return Collections.unmodifiableCollection(cancelledBookings.values());
+    }
+
+    /**
+     * Copies every record held in memory in one step under the read lock, so
+     * the copy is consistent even while other threads are making changes.
+     * Used by the data layer to write the system out without blocking them.
+     *
+     * @param history whether archived records are paged in first; otherwise
+     *                records in the history archive are left out
+     * @return the copied records
+     */
+    public SystemSnapshot snapshot(boolean history) {
+        if (history) {
+            loadHistory();
+        }
+        return readLocked(() -> new SystemSnapshot(new ArrayList<>(flights.values()),
+                new ArrayList<>(customers.values()), new ArrayList<>(bookings.values()),
+                new ArrayList<>(cancelledBookings.values()), new ArrayList<>(payments)));
     }
 
     /**
@@ -199,22 +900,73 @@ public class FlightBookingSystem {
      *                                      full
      */
     public Booking addBooking(int customerId, int flightId, LocalDate bookingDate) throws FlightBookingSystemException {
-       
-        Customer customer = getCustomerByID(customerId);
-        Flight flight = getFlightByID(flightId);
+        ReentrantLock customerLock = lockCustomer(customerId);
+        try {
+            Customer customer = getCustomerByID(customerId);
+            ReentrantLock flightLock = lockFlight(flightId);
+            try {
+                Flight flight = getFlightByID(flightId);
+                return book(customer, flight, bookingDate);
+            } finally {
+                flightLock.unlock();
+            }
+        } finally {
+            customerLock.unlock();
+        }
+    }
 
+    /**
+     * Creates a new booking for a customer and flight that have already been
+     * looked up in this system (for example by a loader resolving IDs ahead of
+     * time).
+     *
+     * @param customer    customer making the booking
+     * @param flight      flight to book
+     * @param bookingDate date when booking is made
+     * @return the created booking
+     * @throws FlightBookingSystemException if the flight is full or the customer
+     *                                      is already booked on it
+     */
+    public Booking addBooking(Customer customer, Flight flight, LocalDate bookingDate)
+            throws FlightBookingSystemException {
+        ReentrantLock customerLock = lockCustomer(customer.getId());
+        try {
+            ReentrantLock flightLock = lockFlight(flight.getId());
+            try {
+                return book(customer, flight, bookingDate);
+            } finally {
+                flightLock.unlock();
+            }
+        } finally {
+            customerLock.unlock();
+        }
+    }
 
+    /**
+     * Books a seat and records the booking. The caller holds the locks of the
+     * customer and the flight.
+     */
+    private Booking book(Customer customer, Flight flight, LocalDate bookingDate) throws FlightBookingSystemException {
         if (!flight.addPassenger(customer)) {
             throw new FlightBookingSystemException("Flight is full or passenger already booked");
         }
 
-
         double price = flight.calculatePrice(bookingDate);
-        int bookingId = bookings.size() + cancelledBookings.size() + 1;
+        int bookingId = idSequences.get(EntitySet.BOOKINGS).next();
         Booking booking = new Booking(bookingId, customer, flight, bookingDate, price);
 
-        customer.addBooking(booking);
-        bookings.put(bookingId, booking);
+        long stamp = lockRegistry();
+        try {
+            customer.addBooking(booking);
+            bookings.put(bookingId, booking);
+            bookingSet(bookingsByFlight, flight.getId()).add(booking);
+            dirty.add(EntitySet.BOOKINGS);
+        } finally {
+            unlockRegistry(stamp);
+        }
+        for (FlightBookingSystemListener l : listeners) {
+            l.bookingAdded(booking);
+        }
 
         return booking;
     }
@@ -228,27 +980,47 @@ public class FlightBookingSystem {
      */
     public void cancelBooking(int bookingId, double cancellationFee) throws FlightBookingSystemException {
         Booking booking = getBookingByID(bookingId);
-        if (booking.isCancelled()) {
-            throw new FlightBookingSystemException("Booking is already cancelled.");
-        }
-
-        // Remove passenger from flight
         Flight flight = booking.getFlight();
         Customer customer = booking.getCustomer();
-        if (!flight.removePassenger(customer)) {
-            throw new FlightBookingSystemException("Customer not found on flight.");
-        }
+        ReentrantLock customerLock = lockCustomer(customer.getId());
+        try {
+            ReentrantLock flightLock = lockFlight(flight.getId());
+            try {
+                if (booking.isCancelled()) {
+                    throw new FlightBookingSystemException("Booking is already cancelled.");
+                }
 
-        // Mark booking as cancelled
-        booking.cancel();
+                // Remove passenger from flight
+                if (!flight.removePassenger(customer)) {
+                    throw new FlightBookingSystemException("Customer not found on flight.");
+                }
+
+                long stamp = lockRegistry();
+                try {
+                    // Mark booking as cancelled
+                    booking.cancel();
 
-        // Move booking to cancelled bookings map
-        bookings.remove(bookingId);
-        cancelledBookings.put(bookingId, booking);
+                    // Move booking to cancelled bookings map
+                    bookings.remove(bookingId);
+                    bookingSet(bookingsByFlight, flight.getId()).remove(booking);
+                    putCancelledBooking(booking);
 
-        // Update customer's booking list
-        customer.cancelBooking(booking);
+                    // Update customer's booking list
+                    customer.cancelBooking(booking);
 
+                    dirty.add(EntitySet.BOOKINGS);
+                } finally {
+                    unlockRegistry(stamp);
+                }
+                for (FlightBookingSystemListener l : listeners) {
+                    l.bookingCancelled(booking, cancellationFee);
+                }
+            } finally {
+                flightLock.unlock();
+            }
+        } finally {
+            customerLock.unlock();
+        }
     }
 
     /**
@@ -258,22 +1030,33 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException if customer not found
      */
     public void removeCustomer(int customerId) throws FlightBookingSystemException {
-        Customer customer = getCustomerByID(customerId);
+        ReentrantLock customerLock = lockCustomer(customerId);
+        try {
+            Customer customer = getCustomerByID(customerId);
 
-        // Check if customer has active bookings
-        List<Booking> activeBookings = customer.getBookings().stream()
-                .filter(b -> !b.isCancelled())
-                .collect(Collectors.toList());
-
-        if (!activeBookings.isEmpty()) {
             // Cancel all active bookings first
-            for (Booking booking : activeBookings) {
-                cancelBooking(booking.getId(), 0);
+            for (Booking booking : customer.getBookings()) {
+                if (!booking.isCancelled()) {
+                    cancelBooking(booking.getId(), 0);
+                }
             }
-        }
 
-        customer.setDeleted(true);
-        System.out.println("DEBUG: Customer " + customerId + " marked as deleted");
+            long stamp = lockRegistry();
+            try {
+                customer.setDeleted(true);
+                activeCustomers.remove(customerId);
+                activeCustomersView = null;
+                dirty.add(EntitySet.CUSTOMERS);
+            } finally {
+                unlockRegistry(stamp);
+            }
+            for (FlightBookingSystemListener l : listeners) {
+                l.customerRemoved(customer);
+            }
+        } finally {
+            customerLock.unlock();
+        }
+        LOG.debug(() -> "Customer " + customerId + " marked as deleted");
     }
 
     /**
@@ -283,26 +1066,151 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException if flight not found
      */
     public void removeFlight(int flightId) throws FlightBookingSystemException {
-        Flight flight = getFlightByID(flightId);
-        flight.setDeleted(true);
+        ReentrantLock flightLock = lockFlight(flightId);
+        try {
+            Flight flight = getFlightByID(flightId);
+            long stamp = lockRegistry();
+            try {
+                flight.setDeleted(true);
+                if (activeFlights.remove(flightId) != null) {
+                    activeFlightsView = null;
+                }
+                dirty.add(EntitySet.FLIGHTS);
+            } finally {
+                unlockRegistry(stamp);
+            }
+            for (FlightBookingSystemListener l : listeners) {
+                l.flightRemoved(flight);
+            }
+        } finally {
+            flightLock.unlock();
+        }
     }
 
     /**
-     * Adds a booking from data import.
+     * Adds a booking from data import, keeping its original ID.
+     * Active bookings take a seat on their flight and are added to the
+     * customer's booking list; cancelled bookings are only kept for records.
+     * Listeners are not notified, as the booking is already persisted.
      *
      * @param booking the booking to add
-     * @throws FlightBookingSystemException if duplicate booking ID
+     * @throws FlightBookingSystemException if duplicate booking ID, or the
+     *                                      flight is full
      */
     public void addBookingFromData(Booking booking) throws FlightBookingSystemException {
-        if (bookings.containsKey(booking.getId()) || cancelledBookings.containsKey(booking.getId())) {
-            throw new FlightBookingSystemException("Duplicate booking ID.");
+        long stamp = lockRegistry();
+        try {
+            if (bookings.containsKey(booking.getId()) || cancelledBookings.containsKey(booking.getId())) {
+                throw new FlightBookingSystemException("Duplicate booking ID.");
+            }
+            if (booking.isCancelled()) {
+                putCancelledBooking(booking);
+            } else {
+                if (!booking.getFlight().addPassenger(booking.getCustomer())) {
+                    throw new FlightBookingSystemException("Flight is full or passenger already booked");
+                }
+                bookings.put(booking.getId(), booking);
+                booking.getCustomer().addBooking(booking);
+                bookingSet(bookingsByFlight, booking.getFlight().getId()).add(booking);
+            }
+            dirty.add(EntitySet.BOOKINGS);
+        } finally {
+            unlockRegistry(stamp);
         }
-        if (booking.isCancelled()) {
-            cancelledBookings.put(booking.getId(), booking);
-        } else {
-            bookings.put(booking.getId(), booking);
+        idSequences.get(EntitySet.BOOKINGS).advanceTo(booking.getId());
+    }
+
+    /**
+     * Read-only live view of the active bookings on a flight, one per
+     * passenger.
+     *
+     * @param flightId the flight ID
+     * @return unmodifiable view of the bookings in the order they were made
+     * @throws FlightBookingSystemException if there is no flight with that ID
+     */
+    public Collection<Booking> getBookingsForFlight(int flightId) throws FlightBookingSystemException {
+        if (findFlight(flightId) == null) {
+            throw new FlightBookingSystemException("No flight with that ID.");
+        }
+        return Collections.unmodifiableCollection(liveBookingSet(bookingsByFlight, flightId));
+    }
+
+    /**
+     * Read-only live view of a customer's active bookings.
+     *
+     * @param customerId the customer ID
+     * @return unmodifiable view of the bookings in the order they were made
+     * @throws FlightBookingSystemException if there is no customer with that
+     *                                      ID, including deleted customers
+     */
+    public Collection<Booking> getBookingsForCustomer(int customerId) throws FlightBookingSystemException {
+        Customer customer = findCustomer(customerId);
+        if (customer == null) {
+            throw new FlightBookingSystemException("No customer with that ID.");
+        }
+        return customer.getBookingsView();
+    }
+
+    /**
+     * Read-only live view of a customer's cancelled bookings. Like
+     * {@link #getCancelledBookings()}, archived bookings are paged in first.
+     *
+     * @param customerId the customer ID
+     * @return unmodifiable view of the cancelled bookings in the order they
+     *         were loaded or cancelled
+     * @throws FlightBookingSystemException if there is no customer with that
+     *                                      ID, including deleted customers
+     */
+    public Collection<Booking> getCancelledBookingsForCustomer(int customerId) throws FlightBookingSystemException {
+        if (findCustomer(customerId) == null) {
+            throw new FlightBookingSystemException("No customer with that ID.");
         }
-        booking.getCustomer().addBooking(booking);
+        loadHistory();
+        return Collections.unmodifiableCollection(liveBookingSet(cancelledByCustomer, customerId));
+    }
+
+    /**
+     * Adds a booking to the cancelled bookings and its customer's index.
+     *
+     * @param booking a cancelled booking
+     */
+    private void putCancelledBooking(Booking booking) {
+        cancelledBookings.put(booking.getId(), booking);
+        bookingSet(cancelledByCustomer, booking.getCustomer().getId()).add(booking);
+    }
+
+    /**
+     * Returns the set of bookings indexed under an ID, creating it on first
+     * use. Sets are kept once created so views of them stay live.
+     *
+     * @param index the index
+     * @param id    the flight or customer ID
+     * @return the bookings indexed under the ID
+     */
+    private static Set<Booking> bookingSet(IntMap<Set<Booking>> index, int id) {
+        Set<Booking> set = index.get(id);
+        if (set == null) {
+            set = new LinkedHashSet<>();
+            index.put(id, set);
+        }
+        return set;
+    }
+
+    /**
+     * Like {@link #bookingSet(IntMap, int)}, for callers that don't hold the
+     * registry lock.
+     */
+    private Set<Booking> liveBookingSet(IntMap<Set<Booking>> index, int id) {
+        Set<Booking> set = read(() -> index.get(id));
+        if (set == null) {
+            long stamp = lockRegistry();
+            try {
+                set = bookingSet(index, id);
+            } finally {
+                unlockRegistry(stamp);
+            }
+        }
+        return set;
     }
 
     /**
@@ -313,9 +1221,22 @@ public class FlightBookingSystem {
      * @throws FlightBookingSystemException if booking not found
      */
     public Booking getBookingByID(int id) throws FlightBookingSystemException {
-        Booking booking = bookings.get(id);
-        if (booking == null) {
-            booking = cancelledBookings.get(id);
+        Booking booking = getLoadedBooking(id);
+        if (booking == null && history != null && !historyLoaded) {
+            long stamp = lockRegistry();
+            try {
+                booking = getLoadedBooking(id);
+                if (booking == null && history != null && !historyLoaded) {
+                    booking = history.readCancelledBooking(id, this);
+                    if (booking != null) {
+                        putCancelledBooking(booking);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn(() -> "Could not read booking #" + id + " from history: " + e.getMessage());
+            } finally {
+                unlockRegistry(stamp);
+            }
         }
         if (booking == null) {
             throw new FlightBookingSystemException("No booking with that ID.");
@@ -323,37 +1244,117 @@ public class FlightBookingSystem {
         return booking;
     }
 
+    /**
+     * Looks up an active or cancelled booking that is held in memory,
+     * without paging in the history archive.
+     *
+     * @param id the booking ID
+     * @return the booking, or null if it is not in memory
+     */
+    public Booking getLoadedBooking(int id) {
+        return read(() -> {
+            Booking booking = bookings.get(id);
+            return booking != null ? booking : cancelledBookings.get(id);
+        });
+    }
+
     /**
      * Adds a payment to the system.
      * 
      * @param payment the payment to add
      */
     public void addPayment(Payment payment) {
-        payments.add(payment);
+        long stamp = lockRegistry();
+        try {
+            payments.add(payment);
+            paymentsByBooking.put(payment.getBookingId(), payment);
+            dirty.add(EntitySet.PAYMENTS);
+        } finally {
+            unlockRegistry(stamp);
+        }
+        for (FlightBookingSystemListener l : listeners) {
+            l.paymentAdded(payment);
+        }
+    }
+
+    /**
+     * Looks up the payment recorded for a booking.
+     *
+     * @param bookingId the booking ID
+     * @return the payment for that booking, or null if it has not been paid
+     */
+    public Payment getPaymentForBooking(int bookingId) {
+        return readLocked(() -> paymentsByBooking.get(bookingId));
     }
 
     /**
      * @return defensive copy of all payments
      */
     public List<Payment> getPayments() {
-        return new ArrayList<>(payments);
+        return readLocked(() -> new ArrayList<>(payments));
     }
 
+    /**
+     * Read-only live view of the payments in the order they were recorded.
+     *
+     * @return unmodifiable view of the payments
+     * @see #getBookingsView()
+     */
+    public List<Payment> getPaymentsView() {
+        return Collections.unmodifiableList(payments);
+    }
+
+    /**
+     * Updates a customer's name, phone and email, keeping the password.
+     *
+     * @see #updateCustomer(int, String, String, String, String)
+     */
     public void updateCustomer(int customerId, String name, String phone, String email)
             throws FlightBookingSystemException {
-        Customer customer = getCustomerByID(customerId);
+        updateCustomer(customerId, name, phone, email, null);
+    }
 
-        // Check if new email is already in use by another customer
-        for (Customer existing : customers.values()) {
-            if (!existing.isDeleted() && existing.getId() != customerId && existing.getEmail().equals(email)) {
-                throw new FlightBookingSystemException("Email address already in use by another customer");
+    /**
+     * Updates a customer's details. Nothing changes if the new email is
+     * already used by another customer; otherwise all the details change
+     * together under the customer's lock.
+     *
+     * @param password the new password, or null to keep the current one
+     * @throws FlightBookingSystemException if there is no such customer or the
+     *         email is already in use
+     */
+    public void updateCustomer(int customerId, String name, String phone, String email, String password)
+            throws FlightBookingSystemException {
+        ReentrantLock customerLock = lockCustomer(customerId);
+        try {
+            Customer customer = getCustomerByID(customerId);
+            long stamp = lockRegistry();
+            try {
+                // Check if new email is already in use by another customer
+                if (customersByEmail.find(emailKey(email), existing -> !existing.isDeleted()
+                        && existing.getId() != customerId && existing.getEmail().equals(email)) != null) {
+                    throw new FlightBookingSystemException("Email address already in use by another customer");
+                }
+
+                unindexCustomer(customer);
+                customer.setName(name);
+                customer.setPhone(phone);
+                customer.setEmail(email);
+                if (password != null) {
+                    customer.setPassword(password);
+                }
+                indexCustomer(customer);
+                dirty.add(EntitySet.CUSTOMERS);
+            } finally {
+                unlockRegistry(stamp);
             }
+            for (FlightBookingSystemListener l : listeners) {
+                l.customerUpdated(customer);
+            }
+        } finally {
+            customerLock.unlock();
         }
 
-        customer.setName(name);
-        customer.setPhone(phone);
-        customer.setEmail(email);
-
-        System.out.println("DEBUG: Updated customer " + customerId + " successfully");
+        LOG.debug(() -> "Updated customer " + customerId + " successfully");
     }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class FlightBookingSystemConcurrencyTest {
+    private static final int THREADS = 8;
+
+    private FlightBookingSystem fbs;
+
+    @BeforeEach
+    void setUp() {
+        fbs = new FlightBookingSystem();
+    }
+
+    /** Adds flights and customers numbered from 1 */
+    private void populate(int flights, int capacity, int customers) throws FlightBookingSystemException {
+        for (int i = 1; i <= flights; i++) {
+            fbs.addFlight(new Flight(i, "FL" + i, "LHR", "JFK", LocalDate.now().plusDays(30), 100.0, capacity));
+        }
+        for (int i = 1; i <= customers; i++) {
+            fbs.addCustomer(new Customer(i, "Customer " + i, "0123", "c" + i + "@example.com"));
+        }
+    }
+
+    /** Runs a task on each of several threads, started together, and rethrows the first failure */
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    @Test
+    void testContendedFlightsAreNeverOverbooked() throws Exception {
+        populate(4, 25, 400);
+        Set<Integer> bookingIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < 2000; i++) {
+                try {
+                    Booking booking = fbs.addBooking(1 + random.nextInt(400), 1 + random.nextInt(4), LocalDate.now());
+                    assertTrue(bookingIds.add(booking.getId()), "Booking ID handed out twice");
+                    if (random.nextInt(3) == 0) {
+                        fbs.cancelBooking(booking.getId(), 0);
+                    }
+                } catch (FlightBookingSystemException e) {
+                    // full, or already booked; expected under contention
+                }
+            }
+        });
+
+        for (Flight flight : fbs.getFlights()) {
+            List<Booking> onFlight = new ArrayList<>(fbs.getBookingsForFlight(flight.getId()));
+            assertTrue(onFlight.size() <= flight.getCapacity());
+            assertEquals(flight.getCapacity() - onFlight.size(), flight.getSeatsRemaining());
+            assertEquals(onFlight.size(), flight.getPassengers().size());
+        }
+        int held = 0;
+        for (Customer customer : fbs.getCustomers()) {
+            held += customer.getBookings().size();
+        }
+        assertEquals(fbs.getBookings().size(), held);
+        assertEquals(bookingIds.size(), fbs.getBookings().size() + fbs.getCancelledBookings().size());
+    }
+
+    @Test
+    void testReadsSeeConsistentStateDuringMutations() throws Exception {
+        populate(50, 1000, 200);
+        int writers = THREADS / 2;
+        AtomicInteger writing = new AtomicInteger(writers);
+
+        runConcurrently(THREADS, thread -> {
+            if (thread < writers) {
+                try {
+                    for (int c = 1 + thread; c <= 200; c += writers) {
+                        for (int f = 1; f <= 50; f++) {
+                            fbs.addBooking(c, f, LocalDate.now());
+                        }
+                        if (c % 5 == 0) {
+                            fbs.removeCustomer(c);
+                        }
+                    }
+                } finally {
+                    writing.decrementAndGet();
+                }
+            } else {
+                while (writing.get() > 0) {
+                    Set<Integer> seen = new HashSet<>();
+                    for (Booking booking : fbs.getBookings()) {
+                        assertTrue(seen.add(booking.getId()));
+                        assertSame(booking, fbs.getLoadedBooking(booking.getId()));
+                    }
+                    int lastId = 0;
+                    for (Customer customer : fbs.getCustomers()) {
+                        assertTrue(customer.getId() > lastId);
+                        lastId = customer.getId();
+                    }
+                    fbs.searchFlights(new FlightQuery().origin("lhr").withSeatsAvailable());
+                }
+            }
+        });
+
+        assertEquals(160, fbs.getActiveCustomerCount());
+        assertEquals(160 * 50, fbs.getBookings().size());
+        assertEquals(40 * 50, fbs.getCancelledBookings().size());
+    }
+
+    @Test
+    void testBookingsOnDisjointFlightsFillEachFlightExactly() throws Exception {
+        int bookingsPerThread = 2000;
+        // each thread books its own customers onto its own flight
+        populate(THREADS, bookingsPerThread, THREADS * bookingsPerThread);
+
+        runConcurrently(THREADS, thread -> {
+            int flightId = thread + 1;
+            for (int i = 1; i <= bookingsPerThread; i++) {
+                fbs.addBooking(thread * bookingsPerThread + i, flightId, LocalDate.now());
+            }
+        });
+
+        assertEquals(THREADS * bookingsPerThread, fbs.getBookings().size());
+        for (Flight flight : fbs.getFlights()) {
+            assertEquals(0, flight.getSeatsRemaining());
+            assertEquals(bookingsPerThread, flight.getPassengers().size());
+        }
+    }
+}
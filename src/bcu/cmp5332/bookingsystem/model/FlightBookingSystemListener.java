@@ -0,0 +1,45 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * Listener notified of every mutation made through {@link FlightBookingSystem}.
+ * Persistence components register a listener to record individual changes
+ * instead of rewriting the whole dataset. All methods have empty default
+ * implementations so listeners only override the events they care about.
+ */
+public interface FlightBookingSystemListener {
+
+    /** @param flight the flight that was added */
+    default void flightAdded(Flight flight) {
+    }
+
+    /** @param flight the flight that was marked as deleted */
+    default void flightRemoved(Flight flight) {
+    }
+
+    /** @param customer the customer that was added */
+    default void customerAdded(Customer customer) {
+    }
+
+    /** @param customer the customer whose details were changed */
+    default void customerUpdated(Customer customer) {
+    }
+
+    /** @param customer the customer that was marked as deleted */
+    default void customerRemoved(Customer customer) {
+    }
+
+    /** @param booking the booking that was created */
+    default void bookingAdded(Booking booking) {
+    }
+
+    /**
+     * @param booking         the booking that was cancelled
+     * @param cancellationFee the fee charged for the cancellation
+     */
+    default void bookingCancelled(Booking booking, double cancellationFee) {
+    }
+
+    /** @param payment the payment that was recorded */
+    default void paymentAdded(Payment payment) {
+    }
+}
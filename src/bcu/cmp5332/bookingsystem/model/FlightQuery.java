@@ -0,0 +1,126 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.time.LocalDate;
+
+/**
+ * Search criteria for {@link FlightBookingSystem#searchFlights(FlightQuery)}.
+ * Every criterion is optional; a query with none set matches every upcoming
+ * flight. Origin and destination are matched ignoring case, and prices are
+ * the dynamic prices returned by {@link Flight#calculatePrice(LocalDate)}.
+ *
+ * <pre>
+ * fbs.searchFlights(new FlightQuery().origin("LHR").destination("JFK")
+ *         .departing(from, to).priceBetween(null, 300.0).withSeatsAvailable());
+ * </pre>
+ */
+public class FlightQuery {
+    /** Departure airport, or null for any */
+    private String origin;
+
+    /** Arrival airport, or null for any */
+    private String destination;
+
+    /** Earliest departure date, or null for no lower bound */
+    private LocalDate from;
+
+    /** Latest departure date, or null for no upper bound */
+    private LocalDate to;
+
+    /** Lowest price, or null for no lower bound */
+    private Double minPrice;
+
+    /** Highest price, or null for no upper bound */
+    private Double maxPrice;
+
+    /** Whether full flights are excluded */
+    private boolean seatsAvailable;
+
+    /**
+     * @param origin departure airport, or null for any
+     * @return this query
+     */
+    public FlightQuery origin(String origin) {
+        this.origin = origin;
+        return this;
+    }
+
+    /**
+     * @param destination arrival airport, or null for any
+     * @return this query
+     */
+    public FlightQuery destination(String destination) {
+        this.destination = destination;
+        return this;
+    }
+
+    /**
+     * Restricts the departure date to a range, both ends inclusive.
+     *
+     * @param from earliest departure date, or null for no lower bound
+     * @param to   latest departure date, or null for no upper bound
+     * @return this query
+     */
+    public FlightQuery departing(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * Restricts the dynamic price to a range, both ends inclusive.
+     *
+     * @param minPrice lowest price, or null for no lower bound
+     * @param maxPrice highest price, or null for no upper bound
+     * @return this query
+     */
+    public FlightQuery priceBetween(Double minPrice, Double maxPrice) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        return this;
+    }
+
+    /**
+     * Excludes flights that have no seats left.
+     *
+     * @return this query
+     */
+    public FlightQuery withSeatsAvailable() {
+        this.seatsAvailable = true;
+        return this;
+    }
+
+    /** @return departure airport, or null for any */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /** @return arrival airport, or null for any */
+    public String getDestination() {
+        return destination;
+    }
+
+    /** @return earliest departure date, or null for no lower bound */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    /** @return latest departure date, or null for no upper bound */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    /** @return lowest price, or null for no lower bound */
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    /** @return highest price, or null for no upper bound */
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /** @return true if full flights are excluded */
+    public boolean isSeatsAvailable() {
+        return seatsAvailable;
+    }
+}
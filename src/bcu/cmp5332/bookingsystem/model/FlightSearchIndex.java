@@ -0,0 +1,219 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Search index over the flights held in memory, used by
+ * {@link FlightBookingSystem#searchFlights(FlightQuery)}. Flights are indexed
+ * by route (origin, then destination, both case-folded) and then by departure
+ * date, with a second date index across all routes for queries that name no
+ * route.
+ *
+ * Each date bucket is kept sorted by base price. The dynamic price of a flight
+ * is its base price scaled by a multiplier between the
+ * {@link PricingEngine#getMinMultiplier() lowest} and
+ * {@link PricingEngine#getMaxMultiplier() highest} of the pricing engine, so a
+ * price range maps to a band of base prices: a bucket is cut off once base
+ * prices are too high, and flights too cheap to qualify are skipped without
+ * pricing them. A search prices every flight with the engine whose bounds it
+ * used, even if the rules are replaced while it runs.
+ *
+ * Deleted flights stay indexed and are filtered out when searching, so
+ * deleting a flight needs no index update.
+ */
+class FlightSearchIndex {
+    /** Orders a date bucket by base price */
+    private static final Comparator<Flight> BY_BASE_PRICE = Comparator.comparingDouble(Flight::getBasePrice);
+
+    /** Flights by origin, destination and departure date */
+    private final Map<String, Map<String, NavigableMap<LocalDate, List<Flight>>>> byRoute = new HashMap<>();
+
+    /** Flights on every route by departure date */
+    private final NavigableMap<LocalDate, List<Flight>> byDate = new TreeMap<>();
+
+    /**
+     * Adds a flight to the index.
+     *
+     * @param flight the flight
+     */
+    void add(Flight flight) {
+        NavigableMap<LocalDate, List<Flight>> dates = byRoute
+                .computeIfAbsent(HashIndex.foldCase(flight.getOrigin()), k -> new HashMap<>())
+                .computeIfAbsent(HashIndex.foldCase(flight.getDestination()), k -> new TreeMap<>());
+        insert(dates, flight);
+        insert(byDate, flight);
+    }
+
+    /**
+     * Removes a flight from the index. Does nothing if it is not indexed.
+     *
+     * @param flight the flight
+     */
+    void remove(Flight flight) {
+        String origin = HashIndex.foldCase(flight.getOrigin());
+        Map<String, NavigableMap<LocalDate, List<Flight>>> destinations = byRoute.get(origin);
+        if (destinations != null) {
+            String destination = HashIndex.foldCase(flight.getDestination());
+            NavigableMap<LocalDate, List<Flight>> dates = destinations.get(destination);
+            if (dates != null) {
+                delete(dates, flight);
+                if (dates.isEmpty()) {
+                    destinations.remove(destination);
+                    if (destinations.isEmpty()) {
+                        byRoute.remove(origin);
+                    }
+                }
+            }
+        }
+        delete(byDate, flight);
+    }
+
+    /**
+     * Finds the flights matching a query. Only the date buckets in range on
+     * the matching routes are visited.
+     *
+     * @param query    the search criteria
+     * @param earliest departures before this date are never returned
+     * @param pricedOn the booking date prices are calculated for
+     * @return the matching flights, ordered by departure date and then by
+     *         base price
+     */
+    List<Flight> search(FlightQuery query, LocalDate earliest, LocalDate pricedOn) {
+        List<NavigableMap<LocalDate, List<Flight>>> routes = routes(query);
+        LocalDate from = query.getFrom() == null || query.getFrom().isBefore(earliest) ? earliest : query.getFrom();
+        LocalDate to = query.getTo();
+        if (to != null && to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+
+        long pricedOnDay = pricedOn.toEpochDay();
+        PricingEngine pricing = Flight.getPricingEngine();
+        List<Flight> matches = new ArrayList<>();
+        for (NavigableMap<LocalDate, List<Flight>> dates : routes) {
+            NavigableMap<LocalDate, List<Flight>> range = to == null
+                    ? dates.tailMap(from, true)
+                    : dates.subMap(from, true, to, true);
+            for (List<Flight> bucket : range.values()) {
+                collect(bucket, query, pricing, pricedOnDay, matches);
+            }
+        }
+        if (routes.size() > 1) {
+            matches.sort(Comparator.comparing(Flight::getDepartureDate).thenComparing(BY_BASE_PRICE));
+        }
+        return matches;
+    }
+
+    /**
+     * @param query the search criteria
+     * @return the date indexes of the routes the query can match
+     */
+    private List<NavigableMap<LocalDate, List<Flight>>> routes(FlightQuery query) {
+        String origin = blankToNull(query.getOrigin());
+        String destination = blankToNull(query.getDestination());
+        List<NavigableMap<LocalDate, List<Flight>>> routes = new ArrayList<>();
+        if (origin == null && destination == null) {
+            routes.add(byDate);
+        } else if (origin != null) {
+            Map<String, NavigableMap<LocalDate, List<Flight>>> destinations = byRoute.get(HashIndex.foldCase(origin));
+            if (destinations == null) {
+                return routes;
+            }
+            if (destination == null) {
+                routes.addAll(destinations.values());
+            } else {
+                NavigableMap<LocalDate, List<Flight>> dates = destinations.get(HashIndex.foldCase(destination));
+                if (dates != null) {
+                    routes.add(dates);
+                }
+            }
+        } else {
+            String key = HashIndex.foldCase(destination);
+            for (Map<String, NavigableMap<LocalDate, List<Flight>>> destinations : byRoute.values()) {
+                NavigableMap<LocalDate, List<Flight>> dates = destinations.get(key);
+                if (dates != null) {
+                    routes.add(dates);
+                }
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Adds the flights in a date bucket that match a query to a list.
+     *
+     * @param bucket   flights departing on one date, sorted by base price
+     * @param query    the search criteria
+     * @param pricing  the rules prices are calculated with
+     * @param pricedOn the booking date prices are calculated for, as an epoch day
+     * @param matches  the list to add matches to
+     */
+    private static void collect(List<Flight> bucket, FlightQuery query, PricingEngine pricing, long pricedOn,
+            Collection<Flight> matches) {
+        Double minPrice = query.getMinPrice();
+        Double maxPrice = query.getMaxPrice();
+        double minMultiplier = pricing.getMinMultiplier();
+        double maxMultiplier = pricing.getMaxMultiplier();
+        for (Flight flight : bucket) {
+            double basePrice = flight.getBasePrice();
+            if (maxPrice != null && basePrice * minMultiplier > maxPrice) {
+                break;
+            }
+            if (minPrice != null && basePrice * maxMultiplier < minPrice) {
+                continue;
+            }
+            if (flight.isDeleted() || (query.isSeatsAvailable() && flight.getSeatsRemaining() <= 0)) {
+                continue;
+            }
+            if (minPrice != null || maxPrice != null) {
+                double price = pricing.calculatePrice(flight, pricedOn);
+                if ((minPrice != null && price < minPrice) || (maxPrice != null && price > maxPrice)) {
+                    continue;
+                }
+            }
+            matches.add(flight);
+        }
+    }
+
+    private static void insert(NavigableMap<LocalDate, List<Flight>> dates, Flight flight) {
+        List<Flight> bucket = dates.computeIfAbsent(flight.getDepartureDate(), k -> new ArrayList<>(2));
+        int low = 0;
+        int high = bucket.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucket.get(mid).getBasePrice() <= flight.getBasePrice()) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        bucket.add(low, flight);
+    }
+
+    private static void delete(NavigableMap<LocalDate, List<Flight>> dates, Flight flight) {
+        List<Flight> bucket = dates.get(flight.getDepartureDate());
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == flight) {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) {
+            dates.remove(flight.getDepartureDate());
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.trim().isEmpty() ? null : s.trim();
+    }
+}
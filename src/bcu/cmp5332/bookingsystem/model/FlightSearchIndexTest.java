@@ -0,0 +1,142 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+class FlightSearchIndexTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    /** Prices every flight at 1.2 times its base price and counts the flights it prices */
+    private static final class CountingEngine implements PricingEngine {
+        int priced;
+
+        @Override
+        public double calculatePrice(Flight flight, long bookingDay) {
+            priced++;
+            return flight.getBasePrice() * 1.2;
+        }
+
+        @Override
+        public double getMinMultiplier() {
+            return 1.0;
+        }
+
+        @Override
+        public double getMaxMultiplier() {
+            return 1.5;
+        }
+    }
+
+    private PricingEngine previous;
+    private CountingEngine engine;
+    private FlightSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        previous = Flight.getPricingEngine();
+        engine = new CountingEngine();
+        Flight.setPricingEngine(engine);
+        index = new FlightSearchIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Flight.setPricingEngine(previous);
+    }
+
+    private List<Flight> search(FlightQuery query) {
+        return index.search(query, TODAY, TODAY);
+    }
+
+    @Test
+    void testPriceBandSkipsFlightsWithoutPricingThem() {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            Flight flight = new Flight(i, "FL" + i, "LHR", "JFK", TODAY.plusDays(5), 50.0 * (7 - i), 10);
+            flights.add(flight);
+            index.add(flight);
+        }
+
+        // base prices 50 to 300: only 100, 150 and 200 can be priced between 150 and 200
+        List<Flight> matches = search(new FlightQuery().origin("LHR").priceBetween(150.0, 200.0));
+
+        assertEquals(List.of(flights.get(3)), matches);
+        assertEquals(3, engine.priced);
+    }
+
+    @Test
+    void testUnboundedPriceNeedsNoPricing() {
+        index.add(new Flight(1, "FL1", "LHR", "JFK", TODAY.plusDays(5), 100.0, 10));
+        index.add(new Flight(2, "FL2", "LHR", "JFK", TODAY.plusDays(6), 200.0, 10));
+
+        assertEquals(2, search(new FlightQuery().origin("lhr").destination("jfk")).size());
+        assertEquals(0, engine.priced);
+    }
+
+    @Test
+    void testMatchesLinearFilter() {
+        Random random = new Random(7);
+        String[] airports = { "LHR", "JFK", "CDG", "AMS" };
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            Flight flight = new Flight(i, "FL" + i, airports[random.nextInt(4)], airports[random.nextInt(4)],
+                    TODAY.plusDays(random.nextInt(60) - 10), 20 + random.nextInt(400), 1);
+            if (random.nextInt(10) == 0) {
+                flight.setDeleted(true);
+            }
+            if (random.nextInt(5) == 0) {
+                flight.addPassenger(new Customer(i, "C" + i, "0123", "c" + i + "@example.com"));
+            }
+            flights.add(flight);
+            index.add(flight);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            index.remove(flights.get(i));
+        }
+
+        for (int q = 0; q < 200; q++) {
+            String origin = random.nextBoolean() ? airports[random.nextInt(4)] : null;
+            String destination = random.nextBoolean() ? airports[random.nextInt(4)].toLowerCase() : null;
+            LocalDate from = random.nextBoolean() ? TODAY.plusDays(random.nextInt(30) - 5) : null;
+            LocalDate to = random.nextBoolean() ? TODAY.plusDays(random.nextInt(60)) : null;
+            Double min = random.nextBoolean() ? (double) random.nextInt(300) : null;
+            Double max = random.nextBoolean() ? (double) random.nextInt(600) : null;
+            boolean seats = random.nextBoolean();
+            FlightQuery query = new FlightQuery().origin(origin).destination(destination).departing(from, to)
+                    .priceBetween(min, max);
+            if (seats) {
+                query.withSeatsAvailable();
+            }
+
+            List<Flight> expected = new ArrayList<>();
+            for (int i = 0; i < flights.size(); i++) {
+                Flight f = flights.get(i);
+                double price = f.getBasePrice() * 1.2;
+                if ((i >= 200 || i % 2 == 1) && !f.isDeleted()
+                        && (origin == null || f.getOrigin().equalsIgnoreCase(origin))
+                        && (destination == null || f.getDestination().equalsIgnoreCase(destination))
+                        && !f.getDepartureDate().isBefore(TODAY)
+                        && (from == null || !f.getDepartureDate().isBefore(from))
+                        && (to == null || !f.getDepartureDate().isAfter(to))
+                        && (min == null || price >= min) && (max == null || price <= max)
+                        && (!seats || f.getSeatsRemaining() > 0)) {
+                    expected.add(f);
+                }
+            }
+            expected.sort(Comparator.comparing(Flight::getDepartureDate).thenComparingDouble(Flight::getBasePrice)
+                    .thenComparingInt(Flight::getId));
+            List<Flight> actual = new ArrayList<>(search(query));
+            actual.sort(Comparator.comparing(Flight::getDepartureDate).thenComparingDouble(Flight::getBasePrice)
+                    .thenComparingInt(Flight::getId));
+            assertEquals(expected, actual);
+        }
+    }
+}
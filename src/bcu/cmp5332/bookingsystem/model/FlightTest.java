@@ -77,6 +77,27 @@ class FlightTest {
         assertEquals(500.0, farFlight.calculatePrice(bookingDate));
     }
 
+    @Test
+    void testCalculatePriceFollowsOccupancyAndDate() {
+        LocalDate bookingDate = LocalDate.now();
+        Flight smallFlight = new Flight(5, "BA345", "LHR", "JFK",
+                bookingDate.plusDays(38), 100.0, 5);
+        assertEquals(100.0, smallFlight.calculatePrice(bookingDate));
+
+        // 3 of 5 seats taken crosses the 60% threshold
+        Customer first = new Customer(1, "Passenger 1", "0123", "p1@example.com");
+        smallFlight.addPassenger(first);
+        smallFlight.addPassenger(new Customer(2, "Passenger 2", "0123", "p2@example.com"));
+        smallFlight.addPassenger(new Customer(3, "Passenger 3", "0123", "p3@example.com"));
+        assertEquals(115.0, smallFlight.calculatePrice(bookingDate), 1e-9);
+
+        // A week later the flight is within 30 days
+        assertEquals(130.0, smallFlight.calculatePrice(bookingDate.plusDays(8)), 1e-9);
+
+        smallFlight.removePassenger(first);
+        assertEquals(100.0, smallFlight.calculatePrice(bookingDate));
+    }
+
     @Test
     void testGetDetailsShort() {
         String details = flight.getDetailsShort();
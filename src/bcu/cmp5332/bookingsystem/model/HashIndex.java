@@ -0,0 +1,115 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Secondary hash index from a key to the records that have it. Used by
+ * {@link FlightBookingSystem} to check uniqueness without scanning every
+ * record.
+ *
+ * Keys are usually unique, so a key with a single record maps straight to it
+ * and a list is only allocated once a second record shares the key.
+ *
+ * @param <K> the key type
+ * @param <V> the record type
+ */
+class HashIndex<K, V> {
+    /** Each key maps to its record, or to a list once it has several */
+    private final Map<K, Object> entries = new HashMap<>();
+
+    /**
+     * Adds a record under a key.
+     *
+     * @param key    the key
+     * @param record the record
+     */
+    @SuppressWarnings("unchecked")
+    void add(K key, V record) {
+        Object current = entries.putIfAbsent(key, record);
+        if (current == null) {
+            return;
+        }
+        if (current instanceof MultiRecord) {
+            ((MultiRecord<V>) current).add(record);
+        } else {
+            MultiRecord<V> list = new MultiRecord<>();
+            list.add((V) current);
+            list.add(record);
+            entries.put(key, list);
+        }
+    }
+
+    /**
+     * Removes a record from a key. Does nothing if the record is not indexed
+     * under that key.
+     *
+     * @param key    the key the record was added under
+     * @param record the record
+     */
+    @SuppressWarnings("unchecked")
+    void remove(K key, V record) {
+        Object current = entries.get(key);
+        if (current == record) {
+            entries.remove(key);
+        } else if (current instanceof MultiRecord) {
+            MultiRecord<V> list = (MultiRecord<V>) current;
+            list.remove(record);
+            if (list.size() == 1) {
+                entries.put(key, list.get(0));
+            }
+        }
+    }
+
+    /**
+     * Finds a record indexed under a key that matches a condition.
+     *
+     * @param key       the key
+     * @param condition the condition the record must meet
+     * @return the first matching record, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V find(K key, Predicate<V> condition) {
+        Object current = entries.get(key);
+        if (current instanceof MultiRecord) {
+            for (V record : (MultiRecord<V>) current) {
+                if (condition.test(record)) {
+                    return record;
+                }
+            }
+            return null;
+        }
+        return current != null && condition.test((V) current) ? (V) current : null;
+    }
+
+    /**
+     * Case-folds a string the same way as
+     * {@link String#equalsIgnoreCase(String)}, so strings that compare equal
+     * ignoring case fold to the same key.
+     *
+     * @param s the string, or null
+     * @return the folded string, or null
+     */
+    static String foldCase(String s) {
+        if (s == null) {
+            return null;
+        }
+        char[] folded = s.toCharArray();
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(folded[i]));
+        }
+        return new String(folded);
+    }
+
+    /** Records sharing a key; a distinct type so it is never mistaken for a record */
+    private static final class MultiRecord<V> extends ArrayList<V> {
+        private static final long serialVersionUID = 1L;
+
+        MultiRecord() {
+            super(2);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class HashIndexTest {
+
+    @Test
+    void testFindsRecordUnderItsKeyOnly() {
+        HashIndex<String, String> index = new HashIndex<>();
+        index.add("a", "first");
+        index.add("b", "second");
+
+        assertEquals("first", index.find("a", record -> true));
+        assertEquals("second", index.find("b", record -> true));
+        assertNull(index.find("c", record -> true));
+        assertNull(index.find("a", record -> false));
+    }
+
+    @Test
+    void testSharedKeyHoldsEveryRecordUntilRemoved() {
+        HashIndex<String, String> index = new HashIndex<>();
+        index.add("k", "one");
+        index.add("k", "two");
+        index.add("k", "three");
+
+        assertEquals("one", index.find("k", record -> true));
+        assertEquals("three", index.find("k", record -> record.startsWith("th")));
+
+        index.remove("k", "one");
+        index.remove("k", "three");
+        assertEquals("two", index.find("k", record -> true));
+        assertNull(index.find("k", record -> record.equals("one")));
+
+        index.remove("k", "two");
+        assertNull(index.find("k", record -> true));
+    }
+
+    @Test
+    void testRemovingUnindexedRecordChangesNothing() {
+        HashIndex<String, String> index = new HashIndex<>();
+        index.add("k", "one");
+        index.remove("k", "other");
+        index.remove("missing", "one");
+
+        assertEquals("one", index.find("k", record -> true));
+    }
+
+    @Test
+    void testRecordsThatAreListsAreNotMistakenForSharedKeys() {
+        HashIndex<String, List<String>> index = new HashIndex<>();
+        List<String> record = new ArrayList<>(Arrays.asList("x", "y"));
+        index.add("k", record);
+
+        assertSame(record, index.find("k", r -> true));
+        index.remove("k", record);
+        assertNull(index.find("k", r -> true));
+    }
+
+    @Test
+    void testFoldCaseMatchesEqualsIgnoreCase() {
+        String[] strings = { "Ann@Example.COM", "ann@example.com", "\u0130stanbul", "i\u0307stanbul", "\u03a3\u03c3\u03c2", "" };
+        for (String a : strings) {
+            for (String b : strings) {
+                assertEquals(a.equalsIgnoreCase(b), HashIndex.foldCase(a).equals(HashIndex.foldCase(b)), a + " vs " + b);
+            }
+        }
+        assertNull(HashIndex.foldCase(null));
+    }
+}
@@ -0,0 +1,77 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import bcu.cmp5332.bookingsystem.main.FlightBookingSystemException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * On-disk store of historical records that {@link FlightBookingSystem} keeps
+ * out of memory until they are asked for: flights that have departed or been
+ * deleted and no longer have active bookings, and cancelled bookings.
+ *
+ * Records are paged in individually when looked up by ID, or all at once when
+ * a caller asks for the full history (for example
+ * {@link FlightBookingSystem#getAllFlights()}).
+ */
+public interface HistoryArchive {
+
+    /**
+     * Reads one archived flight.
+     *
+     * @param id the flight ID
+     * @return the flight, or null if it is not archived
+     * @throws IOException if the archive cannot be read
+     */
+    Flight readFlight(int id) throws IOException;
+
+    /**
+     * Reads every archived flight.
+     *
+     * @return the archived flights in ID order
+     * @throws IOException if the archive cannot be read
+     */
+    List<Flight> readFlights() throws IOException;
+
+    /**
+     * Looks up an archived flight by its flight number and departure date,
+     * which no two flights may share.
+     *
+     * @param flightNumber  the flight number
+     * @param departureDate the departure date
+     * @return the ID of the archived flight, or 0 if none is archived
+     * @throws IOException if the archive cannot be read
+     */
+    int findFlightId(String flightNumber, LocalDate departureDate) throws IOException;
+
+    /**
+     * Reads one archived cancelled booking. Its customer and flight are
+     * resolved through {@link FlightBookingSystem#findCustomer(int)} and
+     * {@link FlightBookingSystem#findFlight(int)}.
+     *
+     * @param id  the booking ID
+     * @param fbs the system the booking belongs to
+     * @return the cancelled booking, or null if it is not archived
+     * @throws IOException                  if the archive cannot be read
+     * @throws FlightBookingSystemException if the booking's customer or
+     *                                      flight no longer exists
+     */
+    Booking readCancelledBooking(int id, FlightBookingSystem fbs) throws IOException, FlightBookingSystemException;
+
+    /**
+     * Reads every archived cancelled booking.
+     *
+     * @param fbs the system the bookings belong to
+     * @return the cancelled bookings in ID order
+     * @throws IOException                  if the archive cannot be read
+     * @throws FlightBookingSystemException if a booking's customer or flight
+     *                                      no longer exists
+     */
+    List<Booking> readCancelledBookings(FlightBookingSystem fbs) throws IOException, FlightBookingSystemException;
+
+    /** @return the highest archived flight ID, or 0 if there is none */
+    int getMaxFlightId();
+
+    /** @return the highest archived booking ID, or 0 if there is none */
+    int getMaxBookingId();
+}
@@ -0,0 +1,53 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monotonic source of IDs for one kind of record. IDs are handed out in
+ * constant time and are safe to take from several threads at once; an ID is
+ * never handed out twice, even if the record it was used for is later removed.
+ *
+ * The sequence is advanced past every record loaded into the system with
+ * {@link #advanceTo(int)}, and its position is persisted by the data layer so
+ * that it survives a restart.
+ */
+public class IdSequence {
+    /** The last ID handed out or advanced to */
+    private final AtomicInteger last = new AtomicInteger();
+
+    /** @return a new ID, one greater than the last */
+    public int next() {
+        return last.incrementAndGet();
+    }
+
+    /**
+     * Reserves a block of consecutive IDs in one step, for example for a
+     * batch import.
+     *
+     * @param count the number of IDs to reserve
+     * @return the first ID in the block; the block runs to
+     *         {@code first + count - 1}
+     * @throws IllegalArgumentException if count is not positive
+     */
+    public int reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + count);
+        }
+        return last.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Moves the sequence past an ID that is already in use. Does nothing if
+     * the sequence is already past it.
+     *
+     * @param id an ID in use
+     */
+    public void advanceTo(int id) {
+        last.accumulateAndGet(id, Math::max);
+    }
+
+    /** @return the last ID handed out or advanced to, or 0 if there is none */
+    public int getLast() {
+        return last.get();
+    }
+}
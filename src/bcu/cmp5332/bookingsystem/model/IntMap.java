@@ -0,0 +1,199 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from non-negative int IDs to records, used by
+ * {@link FlightBookingSystem} for its registries in place of
+ * {@code TreeMap<Integer, V>}. IDs are handed out densely by
+ * {@link IdSequence}, so records are stored directly in an array indexed by
+ * ID: keys are never boxed, a lookup is two array reads, and iterating the
+ * array yields the records in ID order.
+ *
+ * The array is split into fixed-size pages allocated on first use and freed
+ * when emptied, so gaps in the IDs (for example flights evicted to the history
+ * archive) cost one null slot per page rather than a slot per missing ID.
+ *
+ * Null values are not allowed. The {@link #values()} view iterates in ID order
+ * and fails fast if the map is structurally modified during iteration.
+ *
+ * @param <V> the record type
+ */
+class IntMap<V> {
+    /** Log2 of the number of slots in a page */
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /** Pages of slots indexed by ID; a page is null until one of its IDs is used */
+    private Object[][] pages = new Object[0][];
+
+    /** Number of records in each page */
+    private int[] pageCounts = new int[0];
+
+    private int size;
+
+    /** Number of structural changes, for fail-fast iteration */
+    private int modCount;
+
+    private final Collection<V> values = new Values();
+
+    /**
+     * @param key the ID
+     * @return the record with that ID, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Object[][] pages = this.pages;
+        int p = key >>> PAGE_BITS;
+        if (key < 0 || p >= pages.length) {
+            return null;
+        }
+        Object[] page = pages[p];
+        return page == null ? null : (V) page[key & PAGE_MASK];
+    }
+
+    /**
+     * @param key the ID
+     * @return true if there is a record with that ID
+     */
+    boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Stores a record under an ID, replacing any record already there.
+     *
+     * @param key   the ID
+     * @param value the record
+     * @return the record replaced, or null if there was none
+     * @throws IllegalArgumentException if the ID is negative
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative ID: " + key);
+        }
+        int p = key >>> PAGE_BITS;
+        if (p >= pages.length) {
+            int length = Math.max(p + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            pageCounts = Arrays.copyOf(pageCounts, length);
+        }
+        Object[] page = pages[p];
+        if (page == null) {
+            page = pages[p] = new Object[PAGE_SIZE];
+        }
+        Object old = page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = value;
+        if (old == null) {
+            pageCounts[p]++;
+            size++;
+            modCount++;
+        }
+        return (V) old;
+    }
+
+    /**
+     * Stores a record under an ID unless there is one already.
+     *
+     * @param key   the ID
+     * @param value the record
+     * @return the record already stored, or null if the new one was stored
+     */
+    V putIfAbsent(int key, V value) {
+        V current = get(key);
+        return current != null ? current : put(key, value);
+    }
+
+    /**
+     * @param key the ID
+     * @return the record removed, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int p = key >>> PAGE_BITS;
+        if (key < 0 || p >= pages.length || pages[p] == null) {
+            return null;
+        }
+        Object old = pages[p][key & PAGE_MASK];
+        if (old != null) {
+            pages[p][key & PAGE_MASK] = null;
+            if (--pageCounts[p] == 0) {
+                pages[p] = null;
+            }
+            size--;
+            modCount++;
+        }
+        return (V) old;
+    }
+
+    /** @return the number of records */
+    int size() {
+        return size;
+    }
+
+    /** @return true if there are no records */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return live view of the records in ID order */
+    Collection<V> values() {
+        return values;
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<V>() {
+                private final int expectedModCount = modCount;
+                private int remaining = size;
+                private int page;
+                private int slot = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    while (true) {
+                        Object[] current = pages[page];
+                        if (current != null) {
+                            while (++slot < PAGE_SIZE) {
+                                if (current[slot] != null) {
+                                    remaining--;
+                                    return (V) current[slot];
+                                }
+                            }
+                        }
+                        page++;
+                        slot = -1;
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+class IntMapTest {
+
+    @Test
+    void testMatchesTreeMap() {
+        IntMap<String> map = new IntMap<>();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        for (int key = -1; key <= 5000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void testEmptiedPagesAreFreedAndReused() throws ReflectiveOperationException {
+        IntMap<String> map = new IntMap<>();
+        map.put(1, "low");
+        map.put(5000, "high");
+        map.put(5001, "higher");
+        map.remove(5000);
+        map.remove(5001);
+
+        Object[][] pages = pages(map);
+        assertNotNull(pages[0]);
+        assertNull(pages[5000 >>> 10]);
+        assertEquals(List.of("low"), new ArrayList<>(map.values()));
+        assertNull(map.remove(5000));
+
+        map.put(5002, "again");
+        assertEquals(List.of("low", "again"), new ArrayList<>(map.values()));
+        assertEquals(2, map.size());
+    }
+
+    private static Object[][] pages(IntMap<?> map) throws ReflectiveOperationException {
+        Field field = IntMap.class.getDeclaredField("pages");
+        field.setAccessible(true);
+        return (Object[][]) field.get(map);
+    }
+
+    @Test
+    void testIterationFailsFastOnStructuralChange() {
+        IntMap<String> map = new IntMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+
+        Iterator<String> replaced = map.values().iterator();
+        map.put(1, "uno");
+        assertEquals("uno", replaced.next());
+
+        Iterator<String> added = map.values().iterator();
+        added.next();
+        map.put(3, "three");
+        assertThrows(ConcurrentModificationException.class, added::next);
+
+        Iterator<String> removed = map.values().iterator();
+        map.remove(2);
+        assertThrows(ConcurrentModificationException.class, removed::next);
+    }
+
+    @Test
+    void testIteratorEndsAfterLastRecord() {
+        IntMap<String> map = new IntMap<>();
+        map.put(3000, "only");
+        Iterator<String> values = map.values().iterator();
+
+        assertTrue(values.hasNext());
+        assertEquals("only", values.next());
+        assertFalse(values.hasNext());
+        assertThrows(NoSuchElementException.class, values::next);
+    }
+
+    @Test
+    void testRejectsNegativeIdsAndNullValues() {
+        IntMap<String> map = new IntMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, "x"));
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+        assertNull(map.get(-1));
+        assertNull(map.remove(-1));
+        assertTrue(map.isEmpty());
+    }
+}
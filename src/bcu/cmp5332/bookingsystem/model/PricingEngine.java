@@ -0,0 +1,29 @@
+package bcu.cmp5332.bookingsystem.model;
+
+/**
+ * Rules that turn a flight's base price into the price of a booking, given
+ * how far ahead the booking is made and how full the flight is. The engine in
+ * use is set with {@link Flight#setPricingEngine(PricingEngine)} and applied by
+ * {@link Flight#calculatePrice(java.time.LocalDate)}.
+ *
+ * Every price an engine returns must lie between the base price scaled by
+ * {@link #getMinMultiplier()} and by {@link #getMaxMultiplier()}; the flight
+ * search index relies on these bounds to skip flights without pricing them.
+ */
+public interface PricingEngine {
+
+    /**
+     * Prices a booking on a flight at its current occupancy.
+     *
+     * @param flight     the flight
+     * @param bookingDay the date the booking is made, as an epoch day
+     * @return the price of the booking
+     */
+    double calculatePrice(Flight flight, long bookingDay);
+
+    /** @return the lowest multiplier this engine applies to a base price */
+    double getMinMultiplier();
+
+    /** @return the highest multiplier this engine applies to a base price */
+    double getMaxMultiplier();
+}
@@ -0,0 +1,56 @@
+package bcu.cmp5332.bookingsystem.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The records of a flight booking system copied at one instant by
+ * {@link FlightBookingSystem#snapshot(boolean)}. Every booking's customer and
+ * flight and every payment's booking taken while the system was in memory are
+ * among the copied records, however many changes other threads were making,
+ * so the snapshot can be written out at leisure.
+ *
+ * Only the lists are copied; the records are shared with the system.
+ */
+public class SystemSnapshot {
+
+    private final List<Flight> flights;
+    private final List<Customer> customers;
+    private final List<Booking> bookings;
+    private final List<Booking> cancelledBookings;
+    private final List<Payment> payments;
+
+    SystemSnapshot(List<Flight> flights, List<Customer> customers, List<Booking> bookings,
+            List<Booking> cancelledBookings, List<Payment> payments) {
+        this.flights = Collections.unmodifiableList(flights);
+        this.customers = Collections.unmodifiableList(customers);
+        this.bookings = Collections.unmodifiableList(bookings);
+        this.cancelledBookings = Collections.unmodifiableList(cancelledBookings);
+        this.payments = Collections.unmodifiableList(payments);
+    }
+
+    /** @return the flights, including deleted ones, in ID order */
+    public List<Flight> getFlights() {
+        return flights;
+    }
+
+    /** @return the customers, including deleted ones, in ID order */
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    /** @return the active bookings in ID order */
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    /** @return the cancelled bookings in ID order */
+    public List<Booking> getCancelledBookings() {
+        return cancelledBookings;
+    }
+
+    /** @return the payments in the order they were recorded */
+    public List<Payment> getPayments() {
+        return payments;
+    }
+}